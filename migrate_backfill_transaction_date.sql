@@ -0,0 +1,23 @@
+-- تعبئة TRANSACTION_DATE الفارغ من PROCESSING_DATE
+-- الترقيم بالمؤشر (TRANSACTION_DATE, ID) والإحصائيات اليومية والتقسيم لا ترى الصفوف بدون تاريخ معاملة
+-- المعاملات الجديدة تأخذ نفس القيمة تلقائياً (TransactionService.applyDefaults)
+
+-- 1) عدد الصفوف المتأثرة
+SELECT COUNT(*) FROM MD_TRANSACTION_CURRENT WHERE TRANSACTION_DATE IS NULL;
+SELECT COUNT(*) FROM MD_TRANSACTION_HISTORY WHERE TRANSACTION_DATE IS NULL;
+
+-- 2) التعبئة (على دفعات في الجداول الكبيرة حتى لا يطول الـ lock و الـ undo)
+UPDATE MD_TRANSACTION_CURRENT SET TRANSACTION_DATE = PROCESSING_DATE
+WHERE TRANSACTION_DATE IS NULL AND PROCESSING_DATE IS NOT NULL;
+
+UPDATE MD_TRANSACTION_HISTORY SET TRANSACTION_DATE = PROCESSING_DATE
+WHERE TRANSACTION_DATE IS NULL AND PROCESSING_DATE IS NOT NULL;
+
+COMMIT;
+
+-- 3) يجب ألا ترجع صفوف، الصفوف المتبقية بدون أي تاريخ تحتاج تصحيحاً يدوياً
+SELECT ID, TRANS_ID FROM MD_TRANSACTION_CURRENT WHERE TRANSACTION_DATE IS NULL;
+SELECT ID, TRANS_ID FROM MD_TRANSACTION_HISTORY WHERE TRANSACTION_DATE IS NULL;
+
+-- 4) إعادة بناء الإحصائيات اليومية للأيام التي تمت تعبئتها:
+-- POST /api/transactions/stats/rebuild?from=&to= أو --rebuild-daily-rollup=from:to
@@ -0,0 +1,29 @@
+-- تقسيم جدول المعاملات حسب TRANSACTION_DATE (Interval Range Partitioning، partition لكل شهر)
+-- التطبيق ينفذ الخطوة 2 تلقائياً عند بدء التشغيل (transaction.partitioning.enabled=true)
+-- هذا الملف للتنفيذ اليدوي أو للتحقق بعد التحويل
+
+-- 1) عمود التقسيم لا يقبل NULL: يجب أن تكون النتيجة 0 قبل التحويل (migrate_backfill_transaction_date.sql)
+SELECT COUNT(*) FROM MD_TRANSACTION_CURRENT WHERE TRANSACTION_DATE IS NULL;
+
+-- 2) التحويل بدون إيقاف (Oracle 12.2+)، الفهارس العادية محلية والمفتاح الأساسي و UK_TXN_TRANS_ID عامة
+ALTER TABLE MD_TRANSACTION_CURRENT MODIFY
+    PARTITION BY RANGE (TRANSACTION_DATE) INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))
+    (PARTITION P_INITIAL VALUES LESS THAN (TIMESTAMP '2000-01-01 00:00:00'))
+    ONLINE UPDATE INDEXES (
+        IDX_TXN_DATE_ID LOCAL,
+        IDX_TXN_TERMINAL_ID LOCAL,
+        IDX_TXN_AUTH_NUMBER LOCAL,
+        IDX_TXN_MERCHANT_ACCOUNT LOCAL,
+        IDX_TXN_OUTLET_CODE LOCAL
+    );
+
+-- 3) التحقق من الـ partitions والفهارس
+SELECT PARTITION_NAME, HIGH_VALUE, INTERVAL, NUM_ROWS
+FROM USER_TAB_PARTITIONS
+WHERE TABLE_NAME = 'MD_TRANSACTION_CURRENT'
+ORDER BY PARTITION_POSITION;
+
+SELECT INDEX_NAME, LOCALITY FROM USER_PART_INDEXES WHERE TABLE_NAME = 'MD_TRANSACTION_CURRENT';
+
+-- 4) حذف شهر قديم (نفس ما يفعله POST /api/transactions/partitions/expire)
+-- ALTER TABLE MD_TRANSACTION_CURRENT DROP PARTITION FOR (TIMESTAMP '2024-01-15 00:00:00') UPDATE GLOBAL INDEXES;
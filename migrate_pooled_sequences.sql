@@ -0,0 +1,15 @@
+-- تحويل TRANSACTION_SEQ و USER_SEQ إلى الحجز بالكتل (pooled-lo)
+-- يجب أن تساوي قيمة INCREMENT BY الإعداد id.allocation.block-size (الافتراضي 50)
+-- نفّذ السكربت قبل تشغيل النسخة الجديدة، وإلا يرفض Hibernate بدء التطبيق بسبب اختلاف حجم الزيادة
+
+ALTER SEQUENCE TRANSACTION_SEQ INCREMENT BY 50;
+ALTER SEQUENCE USER_SEQ INCREMENT BY 50;
+
+-- للرجوع إلى الوضع السابق (id.allocation.block-size=1)
+-- ALTER SEQUENCE TRANSACTION_SEQ INCREMENT BY 1;
+-- ALTER SEQUENCE USER_SEQ INCREMENT BY 1;
+
+-- التحقق
+SELECT SEQUENCE_NAME, INCREMENT_BY, LAST_NUMBER
+FROM USER_SEQUENCES
+WHERE SEQUENCE_NAME IN ('TRANSACTION_SEQ', 'USER_SEQ');
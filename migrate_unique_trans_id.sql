@@ -0,0 +1,12 @@
+-- إضافة المفتاح الفريد على TRANS_ID (مطلوب للإدخال المتكرر الآمن بأمر MERGE)
+
+-- 1) التأكد من عدم وجود أرقام معاملات مكررة قبل إضافة المفتاح
+SELECT TRANS_ID, COUNT(*)
+FROM MD_TRANSACTION_CURRENT
+WHERE TRANS_ID IS NOT NULL
+GROUP BY TRANS_ID
+HAVING COUNT(*) > 1;
+
+-- 2) استبدال الفهرس العادي بالمفتاح الفريد (يُنشئ فهرساً فريداً بنفس الاسم)
+DROP INDEX IDX_TXN_TRANS_ID;
+ALTER TABLE MD_TRANSACTION_CURRENT ADD CONSTRAINT UK_TXN_TRANS_ID UNIQUE (TRANS_ID);
@@ -2,11 +2,19 @@ package com.example.springbootcrudapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Spring Boot Application Main Class
+ * إعداد R2DBC التلقائي معطل: وجود ConnectionFactory يوقف إعداد الـ DataSource، وواجهة القراءة التفاعلية
+ * تنشئ اتصالاتها في ReactiveServerConfig
  */
-@SpringBootApplication
+@SpringBootApplication(exclude = { R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class })
+@EnableScheduling
+@EnableAsync
 public class SpringbootCrudApiApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,74 @@
+package com.example.springbootcrudapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * صيغ ثنائية بجانب JSON يختارها العميل بالـ Accept أو Content-Type: CBOR و Smile (بنفس إعدادات Jackson) و Protobuf
+ * المحولات تأتي بعد محول JSON في القائمة، فيبقى JSON هو الافتراضي بدون Accept أو مع Accept: *&#47;*
+ */
+@Component
+public class BinaryFormats implements WebMvcConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private ObjectProvider<Jackson2ObjectMapperBuilder> mapperBuilders;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ObjectMapper cborMapper;
+
+    private ObjectMapper smileMapper;
+
+    @PostConstruct
+    public void init() {
+        // التواريخ كأرقام بدل نص ISO لأنها أكبر جزء من المعاملة بعد ترميز المبالغ والنصوص
+        cborMapper = mapperBuilders.getObject().factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        smileMapper = mapperBuilders.getObject().factory(new SmileFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    /**
+     * Spring يضيف محولات CBOR و Smile تلقائياً بإعدادات Jackson الافتراضية، ويتم استبدالها هنا
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(cborMapper));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileMapper));
+        converters.add(new TransactionProtobufHttpMessageConverter());
+    }
+
+    /**
+     * الـ ObjectMapper المناسب لنوع المحتوى (JSON لأي نوع آخر)
+     */
+    public ObjectMapper mapperFor(MediaType contentType) {
+        if (MediaType.APPLICATION_CBOR.isCompatibleWith(contentType)) {
+            return cborMapper;
+        }
+        if (APPLICATION_SMILE.isCompatibleWith(contentType)) {
+            return smileMapper;
+        }
+        return objectMapper;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.springbootcrudapi.config;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * إعدادات Hibernate Second-level cache (JCache / Caffeine) بحجم أقصى ومدة صلاحية لكل منطقة
+ */
+@Configuration
+public class CacheConfig {
+
+    /**
+     * مناطق الـ cache المسموحة، أي منطقة أخرى يطلبها Hibernate تعتبر خطأ في الإعدادات
+     */
+    public static final List<String> REGIONS = List.of(Transaction.CACHE_REGION, Transaction.NATURAL_ID_CACHE_REGION);
+
+    @Value("${transaction.cache.max-entries:100000}")
+    private long maxEntries;
+
+    @Value("${transaction.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    /**
+     * CacheManager خاص بـ Hibernate مع إنشاء المناطق مسبقاً بالحدود المطلوبة
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("hibernate-" + UUID.randomUUID()), provider.getDefaultClassLoader());
+
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region, configuration);
+        }
+        return cacheManager;
+    }
+
+    /**
+     * تفعيل الـ Second-level cache في Hibernate باستخدام الـ CacheManager أعلاه
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", true);
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        };
+    }
+}
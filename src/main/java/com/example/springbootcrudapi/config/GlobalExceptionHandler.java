@@ -1,5 +1,6 @@
 package com.example.springbootcrudapi.config;
 
+import com.example.springbootcrudapi.security.PasswordHashingRejectedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -76,6 +77,26 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
     }
 
+    /**
+     * معالج امتلاء طابور تشفير كلمات المرور
+     */
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handlePasswordHashingRejectedException(
+            PasswordHashingRejectedException ex, WebRequest request) {
+
+        logger.warn("Password hashing rejected: {}", ex.getMessage());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "طلبات كثيرة");
+        response.put("message", ex.getMessage());
+        response.put("timestamp", System.currentTimeMillis());
+        response.put("path", request.getDescription(false));
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", Long.toString(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
     /**
      * معالج خطأ Runtime العام
      */
@@ -0,0 +1,25 @@
+package com.example.springbootcrudapi.config;
+
+import com.example.springbootcrudapi.entity.PooledSequenceGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * إعدادات توليد المعرفات (حجم كتلة الـ Sequence)
+ */
+@Configuration
+public class IdAllocationConfig {
+
+    @Value("${id.allocation.block-size:" + PooledSequenceGenerator.DEFAULT_BLOCK_SIZE + "}")
+    private int blockSize;
+
+    /**
+     * تمرير حجم الكتلة إلى Hibernate ليستخدمه PooledSequenceGenerator
+     */
+    @Bean
+    public HibernatePropertiesCustomizer idAllocationCustomizer() {
+        return properties -> properties.put(PooledSequenceGenerator.BLOCK_SIZE_SETTING, blockSize);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.springbootcrudapi.config;
+
+import com.example.springbootcrudapi.dto.SettlementLoadReport;
+import com.example.springbootcrudapi.service.SettlementFileLoader;
+import com.example.springbootcrudapi.dto.TransactionPartitionInfo;
+import com.example.springbootcrudapi.service.SettlementRecordParser;
+import com.example.springbootcrudapi.service.TransactionArchiveService;
+import com.example.springbootcrudapi.service.TransactionPartitionService;
+import com.example.springbootcrudapi.service.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * تنفيذ أوامر الصيانة من سطر الأوامر عند تشغيل التطبيق
+ *
+ * مثال: java -jar app.jar --spring.main.web-application-type=none --rebuild-daily-rollup=2025-08-01:2025-08-31
+ * مثال: java -jar app.jar --spring.main.web-application-type=none --load-settlement-file=/data/eod.csv
+ * مثال: java -jar app.jar --spring.main.web-application-type=none --partition-transactions
+ * مثال: java -jar app.jar --spring.main.web-application-type=none --expire-partitions=2024-01-01 --partition-mode=drop
+ * مثال: java -jar app.jar --spring.main.web-application-type=none --archive-transactions=2024-01-01
+ */
+@Component
+public class MaintenanceCommandRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceCommandRunner.class);
+
+    static final String REBUILD_DAILY_ROLLUP = "rebuild-daily-rollup";
+    static final String LOAD_SETTLEMENT_FILE = "load-settlement-file";
+    static final String SETTLEMENT_FORMAT = "settlement-format";
+    static final String PARTITION_TRANSACTIONS = "partition-transactions";
+    static final String EXPIRE_PARTITIONS = "expire-partitions";
+    static final String PARTITION_MODE = "partition-mode";
+    static final String ARCHIVE_TRANSACTIONS = "archive-transactions";
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private SettlementFileLoader settlementFileLoader;
+
+    @Autowired
+    private TransactionPartitionService partitionService;
+
+    @Autowired
+    private TransactionArchiveService archiveService;
+
+    @Value("${transaction.archive.age-days:365}")
+    private int archiveAgeDays;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(REBUILD_DAILY_ROLLUP)) {
+            rebuildDailyRollup(args.getOptionValues(REBUILD_DAILY_ROLLUP));
+        }
+        if (args.containsOption(LOAD_SETTLEMENT_FILE)) {
+            for (String file : args.getOptionValues(LOAD_SETTLEMENT_FILE)) {
+                loadSettlementFile(file, args.getOptionValues(SETTLEMENT_FORMAT));
+            }
+        }
+        if (args.containsOption(PARTITION_TRANSACTIONS)) {
+            logger.info("Partitioning transactions table from command line");
+            logger.info("Transactions table partitioned: {}", partitionService.partition());
+        }
+        if (args.containsOption(EXPIRE_PARTITIONS)) {
+            expirePartitions(args.getOptionValues(EXPIRE_PARTITIONS), args.getOptionValues(PARTITION_MODE));
+        }
+        if (args.containsOption(ARCHIVE_TRANSACTIONS)) {
+            archiveTransactions(args.getOptionValues(ARCHIVE_TRANSACTIONS));
+        }
+    }
+
+    /**
+     * --archive-transactions بعمر transaction.archive.age-days أو --archive-transactions=yyyy-MM-dd
+     */
+    private void archiveTransactions(List<String> values) {
+        LocalDate before = values != null && !values.isEmpty() && !values.get(0).isBlank()
+                ? LocalDate.parse(values.get(0))
+                : LocalDate.now().minusDays(archiveAgeDays);
+
+        logger.info("Running transaction archival before {} from command line", before);
+        long archived = archiveService.archive(before);
+        logger.info("Transaction archival finished - archived: {}", archived);
+    }
+
+    /**
+     * --expire-partitions=yyyy-MM-dd مع --partition-mode=drop|truncate (الافتراضي drop)
+     */
+    private void expirePartitions(List<String> values, List<String> modeValues) {
+        LocalDate before = LocalDate.parse(values.get(0));
+        TransactionPartitionService.ExpireMode mode = modeValues != null && !modeValues.isEmpty()
+                ? TransactionPartitionService.ExpireMode.from(modeValues.get(0))
+                : TransactionPartitionService.ExpireMode.DROP;
+
+        logger.info("Expiring transaction partitions before {} ({}) from command line", before, mode);
+        List<TransactionPartitionInfo> expired = partitionService.expirePartitions(before, mode);
+        logger.info("Expired {} transaction partitions", expired.size());
+    }
+
+    /**
+     * --load-settlement-file=path مع --settlement-format=csv|fixed (الافتراضي حسب امتداد الملف)
+     * تشغيل نفس الأمر مرة أخرى بعد التوقف يستأنف من آخر جزء مكتمل
+     */
+    private void loadSettlementFile(String file, List<String> formatValues) {
+        Path path = Paths.get(file);
+        SettlementRecordParser.Format format;
+        if (formatValues != null && !formatValues.isEmpty()) {
+            format = SettlementRecordParser.Format.from(formatValues.get(0));
+        } else {
+            format = file.toLowerCase().endsWith(".csv")
+                    ? SettlementRecordParser.Format.CSV
+                    : SettlementRecordParser.Format.FIXED;
+        }
+
+        logger.info("Loading settlement file {} as {} from command line", path, format);
+        SettlementLoadReport report = settlementFileLoader.load(path, format);
+        logger.info("Settlement file {} finished with status {} - rows: {}, created: {}, duplicates: {}, "
+                + "invalid: {}, failed: {} in {} ms", path, report.getStatus(), report.getRowsRead(),
+                report.getCreated(), report.getDuplicates(), report.getInvalid(), report.getFailed(),
+                report.getElapsedMillis());
+    }
+
+    /**
+     * --rebuild-daily-rollup لكامل الجدول أو --rebuild-daily-rollup=from:to لفترة محددة
+     */
+    private void rebuildDailyRollup(List<String> values) {
+        LocalDate from = null;
+        LocalDate to = null;
+        if (values != null && !values.isEmpty() && !values.get(0).isBlank()) {
+            String[] range = values.get(0).split(":");
+            from = LocalDate.parse(range[0]);
+            to = range.length > 1 ? LocalDate.parse(range[1]) : from;
+        }
+
+        logger.info("Running daily rollup rebuild from command line ({} - {})", from, to);
+        long days = transactionService.rebuildDailyRollup(from, to);
+        logger.info("Daily rollup rebuild finished for {} days", days);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.springbootcrudapi.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+
+/**
+ * خادم Reactor Netty منفصل عن Tomcat لمسارات القراءة التفاعلية
+ * يبدأ بعد إنشاء كل الـ beans ويتوقف قبل إغلاق الـ DataSource وقاعدة البيانات
+ */
+public class ReactiveHttpServer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveHttpServer.class);
+
+    private final HttpHandler httpHandler;
+    private final int port;
+    private final int compressionMinSize;
+
+    private volatile DisposableServer server;
+
+    /**
+     * @param compressionMinSize أقل حجم للرد يتم ضغطه بـ gzip/deflate، أو -1 بدون ضغط
+     */
+    public ReactiveHttpServer(HttpHandler httpHandler, int port, int compressionMinSize) {
+        this.httpHandler = httpHandler;
+        this.port = port;
+        this.compressionMinSize = compressionMinSize;
+    }
+
+    @Override
+    public void start() {
+        HttpServer httpServer = HttpServer.create().port(port);
+        if (compressionMinSize >= 0) {
+            httpServer = httpServer.compress(compressionMinSize);
+        }
+        server = httpServer
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        logger.info("Reactive read API started on port {}", server.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer current = server;
+        if (current != null) {
+            current.disposeNow(Duration.ofSeconds(10));
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * المنفذ الفعلي (مهم عند reactive.server.port=0)
+     */
+    public int getPort() {
+        DisposableServer current = server;
+        return current != null ? current.port() : port;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.springbootcrudapi.config;
+
+import com.example.springbootcrudapi.controller.ReactiveTransactionHandler;
+import com.example.springbootcrudapi.security.ReactiveJwtAuthenticationFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import java.time.Duration;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+
+/**
+ * واجهة قراءة تفاعلية (WebFlux + R2DBC) على منفذ مستقل عند reactive.server.enabled=true
+ * الـ ConnectionFactory لا يُسجل كـ bean لأن Spring Boot يوقف إعداد الـ DataSource (JDBC/JPA) عند وجوده
+ */
+@Configuration
+@ConditionalOnProperty(name = "reactive.server.enabled", havingValue = "true")
+public class ReactiveServerConfig implements DisposableBean {
+
+    @Value("${reactive.server.port:8082}")
+    private int port;
+
+    @Value("${reactive.r2dbc.url}")
+    private String url;
+
+    @Value("${reactive.r2dbc.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${reactive.r2dbc.password:${spring.datasource.password:}}")
+    private String password;
+
+    @Value("${reactive.r2dbc.pool-size:20}")
+    private int poolSize;
+
+    @Value("${server.compression.enabled:false}")
+    private boolean compression;
+
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize compressionMinSize;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive")
+                .maxSize(poolSize)
+                .maxAcquireTime(Duration.ofSeconds(30))
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * نفس مسارات TransactionController تحت /api/reactive/transactions
+     */
+    @Bean
+    public RouterFunction<ServerResponse> reactiveTransactionRoutes(ReactiveTransactionHandler handler,
+            ReactiveJwtAuthenticationFilter authenticationFilter) {
+        return RouterFunctions.route()
+                .path("/api/reactive/transactions", builder -> builder
+                        .route(GET("/terminal/{terminalId}"), handler::getTransactionsByTerminalId)
+                        .route(GET("/search/merchant"), handler::searchTransactionsByMerchantName)
+                        .route(GET("/date-range"), handler::getTransactionsByDateRange)
+                        .route(GET("/filter"), handler::filterTransactions))
+                .onError(IllegalArgumentException.class, handler::badRequest)
+                .filter(authenticationFilter)
+                .build();
+    }
+
+    @Bean
+    public ReactiveHttpServer reactiveHttpServer(RouterFunction<ServerResponse> reactiveTransactionRoutes) {
+        // نفس إعدادات Jackson في الواجهة العادية (تنسيق التواريخ والحقول)
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        // نفس إعداد الضغط في Tomcat
+        int minSize = compression ? (int) compressionMinSize.toBytes() : -1;
+        return new ReactiveHttpServer(RouterFunctions.toHttpHandler(reactiveTransactionRoutes, strategies), port,
+                minSize);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
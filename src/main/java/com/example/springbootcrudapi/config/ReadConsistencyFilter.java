@@ -0,0 +1,35 @@
+package com.example.springbootcrudapi.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * نطاق توجيه القراءة لكل طلب HTTP
+ * الهيدر X-Read-Consistency: primary يجبر كل قراءات الطلب على قاعدة البيانات الرئيسية،
+ * وبدونه تذهب القراءات للرئيسية تلقائياً بعد أول كتابة في نفس الطلب
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReadConsistencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Read-Consistency";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ReplicaRoutingDataSource.beginRequest("primary".equalsIgnoreCase(request.getHeader(HEADER)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.endRequest();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.springbootcrudapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * توجيه القراءة إلى نسخ القراءة (Read Replicas) عند datasource.replicas.enabled=true
+ * الـ DataSource الرئيسي يُبنى من spring.datasource.* كالمعتاد، وكل رابط في datasource.replicas.urls يحصل على pool خاص
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Value("${datasource.replicas.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${datasource.replicas.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${datasource.replicas.password:${spring.datasource.password:}}")
+    private String password;
+
+    @Value("${datasource.replicas.strategy:round-robin}")
+    private String strategy;
+
+    @Value("${datasource.replicas.pool-size:10}")
+    private int poolSize;
+
+    @Value("${datasource.replicas.health-check-timeout-seconds:2}")
+    private int healthCheckTimeoutSeconds;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    /**
+     * الـ pool الرئيسي بنفس إعدادات spring.datasource.hikari.*
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource() {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // النسخة غير المتاحة عند التشغيل لا تمنع بدء التطبيق، وفحص الصحة يعيدها لاحقاً
+            replica.setInitializationFailTimeout(-1);
+            replicas.put(name, replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource(), replicas,
+                ReplicaRoutingDataSource.Strategy.from(strategy));
+    }
+
+    /**
+     * الـ DataSource الذي يستخدمه JPA و JdbcTemplate
+     * الاتصال يُطلب عند أول أمر SQL، أي بعد أن يحدد الـ TransactionManager إذا كانت الـ transaction للقراءة فقط
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource());
+    }
+
+    /**
+     * Spring يجعل Hibernate يحتفظ بالاتصال حتى نهاية الـ Session (طوال الطلب مع open-in-view)،
+     * وهنا يُعاد الاتصال بعد كل transaction حتى تُوجه كل transaction حسب نوعها
+     */
+    @Bean
+    public HibernatePropertiesCustomizer connectionReleaseCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-interval-ms:5000}")
+    public void checkReplicaHealth() {
+        replicaRoutingDataSource().checkHealth(healthCheckTimeoutSeconds);
+    }
+}
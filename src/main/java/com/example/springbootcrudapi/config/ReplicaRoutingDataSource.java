@@ -0,0 +1,251 @@
+package com.example.springbootcrudapi.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataSource يوجه الـ transactions للقراءة فقط (@Transactional(readOnly = true)) إلى نسخ القراءة (replicas)
+ * وكل ما عداها إلى قاعدة البيانات الرئيسية
+ * يجب تغليفه بـ LazyConnectionDataSourceProxy حتى يتم طلب الاتصال بعد تحديد readOnly للـ transaction
+ * نسخة القراءة التي يفشل الاتصال بها تُستبعد حتى ينجح فحص الصحة التالي، وعند عدم وجود نسخة سليمة تُستخدم الرئيسية
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /**
+     * طريقة اختيار نسخة القراءة
+     */
+    public enum Strategy {
+        ROUND_ROBIN, LEAST_PENDING;
+
+        public static Strategy from(String value) {
+            for (Strategy strategy : values()) {
+                if (strategy.name().equalsIgnoreCase(value.replace('-', '_'))) {
+                    return strategy;
+                }
+            }
+            throw new IllegalArgumentException("طريقة اختيار غير مدعومة: " + value);
+        }
+    }
+
+    /**
+     * نطاق الطلب الحالي: بعد أي كتابة أو عند طلب العميل تذهب قراءات نفس الطلب للرئيسية (read-your-writes)
+     */
+    private static final ThreadLocal<AtomicBoolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Strategy strategy;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final AtomicLong primaryConnections = new AtomicLong();
+    private final AtomicLong failovers = new AtomicLong();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Strategy strategy) {
+        this.primary = primary;
+        this.strategy = strategy;
+        this.replicas = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+    }
+
+    /**
+     * بداية طلب: primaryOnly=true يوجه كل قراءات الطلب للرئيسية من البداية
+     */
+    public static void beginRequest(boolean primaryOnly) {
+        PRIMARY_ONLY.set(new AtomicBoolean(primaryOnly));
+    }
+
+    public static void endRequest() {
+        PRIMARY_ONLY.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    /**
+     * نفس التوجيه مع بيانات الدخول المحددة بدلاً من بيانات كل pool
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!routeToReplica()) {
+            primaryConnections.incrementAndGet();
+            return source.open(primary);
+        }
+
+        for (Replica replica : candidates()) {
+            try {
+                return replica.getConnection(source);
+            } catch (SQLFeatureNotSupportedException e) {
+                // الـ pool لا يدعم هذه الطريقة: ليست مشكلة في صحة النسخة
+                logger.debug("Read replica {} cannot open connection: {}", replica.name, e.getMessage());
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+
+        failovers.incrementAndGet();
+        primaryConnections.incrementAndGet();
+        return source.open(primary);
+    }
+
+    /**
+     * طريقة فتح الاتصال من DataSource (ببيانات الـ pool أو ببيانات دخول محددة)
+     */
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    private boolean routeToReplica() {
+        AtomicBoolean primaryOnly = PRIMARY_ONLY.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // transaction كتابة داخل طلب: القراءات التالية في نفس الطلب قد لا تجد التغيير في النسخ بعد
+            if (primaryOnly != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                primaryOnly.set(true);
+            }
+            return false;
+        }
+        return !replicas.isEmpty() && (primaryOnly == null || !primaryOnly.get());
+    }
+
+    /**
+     * نسخ القراءة السليمة بترتيب التجربة حسب الطريقة المحددة
+     */
+    private List<Replica> candidates() {
+        List<Replica> healthy = new ArrayList<>(replicas.size());
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                healthy.add(replica);
+            }
+        }
+        if (strategy == Strategy.LEAST_PENDING) {
+            // ترتيب ثابت (stable) لذلك النسخ المتساوية تبقى بترتيب round-robin
+            healthy.sort((a, b) -> Integer.compare(a.pending.get(), b.pending.get()));
+        }
+        return healthy;
+    }
+
+    /**
+     * فحص كل نسخ القراءة وإعادة النسخ التي عادت للعمل
+     */
+    public void checkHealth(int timeoutSeconds) {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(timeoutSeconds)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(new SQLException("Connection validation failed"));
+                }
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    /**
+     * إحصائيات التوجيه لكل نسخة
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("strategy", strategy.name().toLowerCase(Locale.ROOT));
+        stats.put("primaryConnections", primaryConnections.get());
+        stats.put("failovers", failovers.get());
+        List<Map<String, Object>> replicaStats = new ArrayList<>();
+        for (Replica replica : replicas) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", replica.name);
+            entry.put("healthy", replica.healthy);
+            entry.put("pending", replica.pending.get());
+            entry.put("connections", replica.connections.get());
+            entry.put("lastError", replica.lastError);
+            replicaStats.add(entry);
+        }
+        stats.put("replicas", replicaStats);
+        return stats;
+    }
+
+    /**
+     * نسخة قراءة مع عدد الاتصالات المفتوحة حالياً (للطريقة LEAST_PENDING)
+     */
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicLong connections = new AtomicLong();
+        private volatile boolean healthy = true;
+        private volatile String lastError;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private Connection getConnection(ConnectionSource source) throws SQLException {
+            Connection connection = source.open(dataSource);
+            pending.incrementAndGet();
+            connections.incrementAndGet();
+            return tracked(connection);
+        }
+
+        /**
+         * اتصال يُنقص عداد الاتصالات المفتوحة عند إغلاقه (مرة واحدة)
+         */
+        private Connection tracked(Connection connection) {
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                            pending.decrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+
+        private void markDown(SQLException e) {
+            if (healthy) {
+                logger.warn("Read replica {} marked unhealthy: {}", name, e.getMessage());
+            }
+            healthy = false;
+            lastError = e.getMessage();
+        }
+
+        private void markUp() {
+            if (!healthy) {
+                logger.info("Read replica {} is healthy again", name);
+            }
+            healthy = true;
+            lastError = null;
+        }
+    }
+}
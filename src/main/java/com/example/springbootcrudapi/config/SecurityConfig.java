@@ -1,8 +1,10 @@
 package com.example.springbootcrudapi.config;
 
+import com.example.springbootcrudapi.security.BoundedPasswordEncoder;
 import com.example.springbootcrudapi.security.JwtAuthenticationFilter;
 import com.example.springbootcrudapi.service.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,7 +16,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -37,12 +38,19 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Value("${password.hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${password.hashing.queue-capacity:16}")
+    private int hashingQueueCapacity;
+
     /**
-     * إعداد Password Encoder
+     * إعداد Password Encoder: BCrypt(12) على pool خاص بعدد الأنوية (0 = عدد الأنوية) مع طابور محدود
      */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder() {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(12), threads, hashingQueueCapacity);
     }
 
     /**
@@ -0,0 +1,329 @@
+package com.example.springbootcrudapi.config;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import org.springframework.http.MediaType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * ترميز المعاملات بصيغة Protobuf حسب src/main/resources/proto/transaction.proto
+ * مكتوب مباشرة بـ CodedOutputStream/CodedInputStream بدون classes مولدة، وقراءة القائمة تتم عنصراً بعنصر
+ */
+public final class TransactionProtobuf {
+
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType("application/x-protobuf");
+
+    private static final int LENGTH_DELIMITED = WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+    // Transaction
+    private static final int ID = 1 << 3 | WireFormat.WIRETYPE_VARINT;
+    private static final int TRANS_ID = 2 << 3 | LENGTH_DELIMITED;
+    private static final int TERMINAL_ID = 3 << 3 | LENGTH_DELIMITED;
+    private static final int MERCHANT_NAME = 4 << 3 | LENGTH_DELIMITED;
+    private static final int SOURCE_AMOUNT = 5 << 3 | LENGTH_DELIMITED;
+    private static final int MERCHANT_COMMISSION = 6 << 3 | LENGTH_DELIMITED;
+    private static final int TRANSACTION_DATE = 7 << 3 | WireFormat.WIRETYPE_VARINT;
+    private static final int PROCESSING_DATE = 8 << 3 | WireFormat.WIRETYPE_VARINT;
+    private static final int MASK_PAN = 9 << 3 | LENGTH_DELIMITED;
+    private static final int AUTHORIZATION_NUMBER = 10 << 3 | LENGTH_DELIMITED;
+    private static final int MERCHANT_ACCOUNT_NUMBER = 11 << 3 | LENGTH_DELIMITED;
+    private static final int OUTLET_CODE = 12 << 3 | LENGTH_DELIMITED;
+
+    // Decimal
+    private static final int UNSCALED = 1 << 3 | WireFormat.WIRETYPE_VARINT;
+    private static final int SCALE = 2 << 3 | WireFormat.WIRETYPE_VARINT;
+
+    // TransactionList
+    private static final int TRANSACTIONS = 1 << 3 | LENGTH_DELIMITED;
+
+    private TransactionProtobuf() {
+    }
+
+    /**
+     * كتابة TransactionList (next و size و timestamp اختيارية)
+     */
+    public static void writeList(List<Transaction> transactions, String next, Integer size, Long timestamp,
+            OutputStream stream) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(stream, 8192);
+        for (Transaction transaction : transactions) {
+            output.writeTag(1, LENGTH_DELIMITED);
+            output.writeUInt32NoTag(transactionSize(transaction));
+            writeFields(transaction, output);
+        }
+        if (next != null) {
+            output.writeString(2, next);
+        }
+        if (size != null) {
+            output.writeInt32(3, size);
+        }
+        if (timestamp != null) {
+            output.writeInt64(4, timestamp);
+        }
+        output.flush();
+    }
+
+    /**
+     * كتابة معاملة واحدة كرسالة Transaction
+     */
+    public static void write(Transaction transaction, OutputStream stream) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(stream, 1024);
+        writeFields(transaction, output);
+        output.flush();
+    }
+
+    /**
+     * قراءة رسالة Transaction واحدة
+     */
+    public static Transaction read(InputStream stream) throws IOException {
+        CodedInputStream input = CodedInputStream.newInstance(stream);
+        Transaction transaction = readFields(input);
+        input.checkLastTagWas(0);
+        return transaction;
+    }
+
+    /**
+     * قراءة المعاملات من TransactionList عنصراً بعنصر (بدون تحميل كل الرسالة في الذاكرة)
+     */
+    public static Reader reader(InputStream stream) {
+        return new Reader(stream);
+    }
+
+    public static final class Reader implements Iterator<Transaction>, Closeable {
+
+        private final InputStream stream;
+        private final CodedInputStream input;
+        private Transaction next;
+        private boolean finished;
+
+        private Reader(InputStream stream) {
+            this.stream = stream;
+            this.input = CodedInputStream.newInstance(stream);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                try {
+                    next = advance();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                finished = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Transaction next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Transaction current = next;
+            next = null;
+            return current;
+        }
+
+        private Transaction advance() throws IOException {
+            while (true) {
+                int tag = input.readTag();
+                if (tag == 0) {
+                    return null;
+                }
+                if (tag != TRANSACTIONS) {
+                    input.skipField(tag);
+                    continue;
+                }
+                // حد الحجم في CodedInputStream على مجموع ما تمت قراءته، والطلب قد يكون أكبر منه
+                input.resetSizeCounter();
+                int limit = input.pushLimit(input.readRawVarint32());
+                Transaction transaction = readFields(input);
+                input.checkLastTagWas(0);
+                input.popLimit(limit);
+                return transaction;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            stream.close();
+        }
+    }
+
+    private static void writeFields(Transaction transaction, CodedOutputStream output) throws IOException {
+        if (transaction.getId() != null) {
+            output.writeInt64(1, transaction.getId());
+        }
+        writeString(output, 2, transaction.getTransId());
+        writeString(output, 3, transaction.getTerminalId());
+        writeString(output, 4, transaction.getMerchantName());
+        writeDecimal(output, 5, transaction.getSourceAmount());
+        writeDecimal(output, 6, transaction.getMerchantCommission());
+        if (transaction.getTransactionDate() != null) {
+            output.writeSInt64(7, toMicros(transaction.getTransactionDate()));
+        }
+        if (transaction.getProcessingDate() != null) {
+            output.writeSInt64(8, toMicros(transaction.getProcessingDate()));
+        }
+        writeString(output, 9, transaction.getMaskPan());
+        writeString(output, 10, transaction.getAuthorizationNumber());
+        writeString(output, 11, transaction.getMerchantAccountNumber());
+        writeString(output, 12, transaction.getOutletCode());
+    }
+
+    private static int transactionSize(Transaction transaction) {
+        int size = 0;
+        if (transaction.getId() != null) {
+            size += CodedOutputStream.computeInt64Size(1, transaction.getId());
+        }
+        size += stringSize(2, transaction.getTransId());
+        size += stringSize(3, transaction.getTerminalId());
+        size += stringSize(4, transaction.getMerchantName());
+        size += decimalFieldSize(5, transaction.getSourceAmount());
+        size += decimalFieldSize(6, transaction.getMerchantCommission());
+        if (transaction.getTransactionDate() != null) {
+            size += CodedOutputStream.computeSInt64Size(7, toMicros(transaction.getTransactionDate()));
+        }
+        if (transaction.getProcessingDate() != null) {
+            size += CodedOutputStream.computeSInt64Size(8, toMicros(transaction.getProcessingDate()));
+        }
+        size += stringSize(9, transaction.getMaskPan());
+        size += stringSize(10, transaction.getAuthorizationNumber());
+        size += stringSize(11, transaction.getMerchantAccountNumber());
+        size += stringSize(12, transaction.getOutletCode());
+        return size;
+    }
+
+    private static Transaction readFields(CodedInputStream input) throws IOException {
+        Transaction transaction = new Transaction();
+        while (true) {
+            int tag = input.readTag();
+            switch (tag) {
+                case 0:
+                    return transaction;
+                case ID:
+                    transaction.setId(input.readInt64());
+                    break;
+                case TRANS_ID:
+                    transaction.setTransId(input.readStringRequireUtf8());
+                    break;
+                case TERMINAL_ID:
+                    transaction.setTerminalId(input.readStringRequireUtf8());
+                    break;
+                case MERCHANT_NAME:
+                    transaction.setMerchantName(input.readStringRequireUtf8());
+                    break;
+                case SOURCE_AMOUNT:
+                    transaction.setSourceAmount(readDecimal(input));
+                    break;
+                case MERCHANT_COMMISSION:
+                    transaction.setMerchantCommission(readDecimal(input));
+                    break;
+                case TRANSACTION_DATE:
+                    transaction.setTransactionDate(fromMicros(input.readSInt64()));
+                    break;
+                case PROCESSING_DATE:
+                    transaction.setProcessingDate(fromMicros(input.readSInt64()));
+                    break;
+                case MASK_PAN:
+                    transaction.setMaskPan(input.readStringRequireUtf8());
+                    break;
+                case AUTHORIZATION_NUMBER:
+                    transaction.setAuthorizationNumber(input.readStringRequireUtf8());
+                    break;
+                case MERCHANT_ACCOUNT_NUMBER:
+                    transaction.setMerchantAccountNumber(input.readStringRequireUtf8());
+                    break;
+                case OUTLET_CODE:
+                    transaction.setOutletCode(input.readStringRequireUtf8());
+                    break;
+                default:
+                    input.skipField(tag);
+            }
+        }
+    }
+
+    private static void writeString(CodedOutputStream output, int field, String value) throws IOException {
+        if (value != null) {
+            output.writeString(field, value);
+        }
+    }
+
+    private static int stringSize(int field, String value) {
+        return value != null ? CodedOutputStream.computeStringSize(field, value) : 0;
+    }
+
+    private static void writeDecimal(CodedOutputStream output, int field, BigDecimal value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        output.writeTag(field, LENGTH_DELIMITED);
+        output.writeUInt32NoTag(decimalSize(value));
+        output.writeSInt64(1, unscaled(value));
+        output.writeSInt32(2, value.scale());
+    }
+
+    private static int decimalFieldSize(int field, BigDecimal value) {
+        if (value == null) {
+            return 0;
+        }
+        int size = decimalSize(value);
+        return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+
+    private static int decimalSize(BigDecimal value) {
+        return CodedOutputStream.computeSInt64Size(1, unscaled(value))
+                + CodedOutputStream.computeSInt32Size(2, value.scale());
+    }
+
+    private static long unscaled(BigDecimal value) {
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() > 63) {
+            throw new IllegalArgumentException("المبلغ أكبر من الحد المسموح في صيغة protobuf: " + value);
+        }
+        return unscaled.longValue();
+    }
+
+    private static BigDecimal readDecimal(CodedInputStream input) throws IOException {
+        int limit = input.pushLimit(input.readRawVarint32());
+        long unscaled = 0;
+        int scale = 0;
+        while (true) {
+            int tag = input.readTag();
+            if (tag == 0) {
+                break;
+            } else if (tag == UNSCALED) {
+                unscaled = input.readSInt64();
+            } else if (tag == SCALE) {
+                scale = input.readSInt32();
+            } else {
+                input.skipField(tag);
+            }
+        }
+        input.popLimit(limit);
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private static long toMicros(LocalDateTime value) {
+        return Math.addExact(Math.multiplyExact(value.toEpochSecond(ZoneOffset.UTC), 1_000_000L),
+                value.getNano() / 1_000);
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
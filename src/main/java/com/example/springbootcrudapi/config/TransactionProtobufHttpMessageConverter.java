@@ -0,0 +1,104 @@
+package com.example.springbootcrudapi.config;
+
+import com.example.springbootcrudapi.dto.TransactionPageResponse;
+import com.example.springbootcrudapi.entity.Transaction;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * محول application/x-protobuf لـ Transaction و List&lt;Transaction&gt; و TransactionPageResponse
+ * باقي الأنواع (رسائل الأخطاء مثلاً) لا تُكتب بهذه الصيغة، لذلك يُفضل أن يقبل العميل JSON كبديل
+ */
+public class TransactionProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public TransactionProtobufHttpMessageConverter() {
+        super(TransactionProtobuf.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == Transaction.class || clazz == TransactionPageResponse.class || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return isTransactions(ResolvableType.forType(type), false) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+        // نوع العناصر غير معروف عند ResponseEntity<?>، ويتم التحقق منه أثناء الكتابة
+        return supports(clazz) && isTransactions(resolved, true) && canWrite(mediaType);
+    }
+
+    private static boolean isTransactions(ResolvableType type, boolean allowUnknownElements) {
+        Class<?> raw = type.resolve(Object.class);
+        if (raw == Transaction.class || raw == TransactionPageResponse.class) {
+            return true;
+        }
+        if (raw == Object.class) {
+            return allowUnknownElements;
+        }
+        if (!List.class.isAssignableFrom(raw)) {
+            return false;
+        }
+        Class<?> element = type.asCollection().resolveGeneric(0);
+        return element == null ? allowUnknownElements : Transaction.class.isAssignableFrom(element);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal(ResolvableType.forType(type).resolve(Object.class), inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            if (clazz == Transaction.class) {
+                return TransactionProtobuf.read(inputMessage.getBody());
+            }
+            List<Transaction> transactions = new ArrayList<>();
+            TransactionProtobuf.reader(inputMessage.getBody()).forEachRemaining(transactions::add);
+            return transactions;
+        } catch (IOException | RuntimeException e) {
+            throw new HttpMessageNotReadableException("بيانات protobuf غير صحيحة: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (value instanceof Transaction transaction) {
+            TransactionProtobuf.write(transaction, outputMessage.getBody());
+        } else if (value instanceof TransactionPageResponse page) {
+            TransactionProtobuf.writeList(page.getTransactions(), page.getNext(), page.getSize(), page.getTimestamp(),
+                    outputMessage.getBody());
+        } else if (value instanceof List<?> list) {
+            TransactionProtobuf.writeList(transactions(list), null, null, null, outputMessage.getBody());
+        } else {
+            throw new HttpMessageNotWritableException("لا يمكن كتابة " + value.getClass().getName() + " بصيغة protobuf");
+        }
+    }
+
+    private static List<Transaction> transactions(List<?> list) {
+        List<Transaction> transactions = new ArrayList<>(list.size());
+        for (Object item : list) {
+            if (!(item instanceof Transaction transaction)) {
+                throw new HttpMessageNotWritableException("لا يمكن كتابة " + item.getClass().getName() + " بصيغة protobuf");
+            }
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+}
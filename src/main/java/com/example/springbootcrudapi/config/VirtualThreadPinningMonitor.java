@@ -0,0 +1,95 @@
+package com.example.springbootcrudapi.config;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * مراقبة تثبيت الـ Virtual Threads على الـ carrier thread (pinning) عبر حدث JFR jdk.VirtualThreadPinned
+ * الـ Virtual Thread المثبت أثناء انتظار I/O (مثل استدعاء JDBC داخل synchronized) يحجز carrier thread كاملاً،
+ * وعدد الـ carriers يساوي عدد المعالجات، لذلك يتم تسجيل كل مكان يحدث فيه ذلك مرة واحدة مع الـ stack
+ */
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int LOGGED_FRAMES = 16;
+
+    private final RecordingStream stream;
+
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private final AtomicLong maxPinnedMillis = new AtomicLong();
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+    public VirtualThreadPinningMonitor(long thresholdMillis) {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        logger.info("Monitoring virtual thread pinning longer than {} ms", thresholdMillis);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        long millis = event.getDuration().toMillis();
+        pinnedEvents.incrementAndGet();
+        maxPinnedMillis.accumulateAndGet(millis, Math::max);
+
+        String stack = describe(event.getStackTrace());
+        if (reportedSites.add(stack)) {
+            logger.warn("Virtual thread pinned for {} ms at:{}", millis, stack);
+        }
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return " (no stack trace)";
+        }
+        StringBuilder description = new StringBuilder();
+        int frames = 0;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame() || isInternal(frame.getMethod().getType().getName())) {
+                continue;
+            }
+            description.append("\n\tat ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+            if (++frames == LOGGED_FRAMES) {
+                break;
+            }
+        }
+        return description.toString();
+    }
+
+    /**
+     * إطارات الـ JDK (park وقراءة الـ socket و reflection) تتكرر في كل حدث، والـ synchronized يكون في الـ driver أو التطبيق
+     */
+    private static boolean isInternal(String type) {
+        return type.startsWith("java.") || type.startsWith("javax.") || type.startsWith("sun.")
+                || type.startsWith("jdk.");
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pinnedEvents", pinnedEvents.get());
+        stats.put("maxPinnedMillis", maxPinnedMillis.get());
+        stats.put("pinnedSites", reportedSites.size());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.springbootcrudapi.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * إنشاء Virtual Threads عند التشغيل على JDK 21 أو أحدث
+ * المشروع يُبنى بـ release 17، لذلك يتم الوصول إلى Thread.ofVirtual() عبر reflection ونفس الـ jar يعمل على الإصدارين
+ */
+public final class VirtualThreads {
+
+    private static final int MIN_FEATURE_VERSION = 21;
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= MIN_FEATURE_VERSION;
+    }
+
+    /**
+     * ThreadFactory لـ Virtual Threads بأسماء prefix0, prefix1, ...
+     */
+    public static ThreadFactory factory(String prefix) {
+        requireSupported();
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create virtual thread factory", unwrap(e));
+        }
+    }
+
+    /**
+     * Executor ينشئ Virtual Thread جديداً لكل مهمة (بدون pool وبدون حد لعدد المهام)
+     */
+    public static ExecutorService newExecutor(String prefix) {
+        ThreadFactory factory = factory(prefix);
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create virtual thread executor", unwrap(e));
+        }
+    }
+
+    private static void requireSupported() {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads require Java " + MIN_FEATURE_VERSION
+                    + " or later, running on " + Runtime.version());
+        }
+    }
+
+    private static Throwable unwrap(ReflectiveOperationException e) {
+        return e instanceof InvocationTargetException ? e.getCause() : e;
+    }
+}
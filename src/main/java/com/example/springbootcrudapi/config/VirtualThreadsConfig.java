@@ -0,0 +1,98 @@
+package com.example.springbootcrudapi.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * تشغيل طلبات HTTP ومهام @Async على Virtual Threads عند threads.virtual.enabled=true (يتطلب JDK 21)
+ * انتظار Oracle لا يحجز thread من pool ثابت، والحد الفعلي للتوازي يصبح حجم الـ Hikari pool
+ */
+@Configuration
+@ConditionalOnProperty(name = "threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    /**
+     * Oracle JDBC يدعم Virtual Threads (أقفال بدلاً من synchronized حول I/O الشبكة) ابتداءً من 21c
+     */
+    private static final int ORACLE_DRIVER_MIN_MAJOR_VERSION = 21;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${threads.virtual.pinned-threshold-ms:20}")
+    private long pinnedThresholdMillis;
+
+    public VirtualThreadsConfig() {
+        if (!VirtualThreads.isSupported()) {
+            throw new IllegalStateException("threads.virtual.enabled=true requires Java 21 or later, running on "
+                    + Runtime.version());
+        }
+    }
+
+    /**
+     * Virtual Thread لكل طلب بدلاً من server.tomcat.threads.max
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService requestExecutor() {
+        return VirtualThreads.newExecutor("http-vt-");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            protocolHandler.setExecutor(requestExecutor());
+            logger.info("Tomcat requests run on virtual threads");
+        };
+    }
+
+    /**
+     * يستبدل الـ applicationTaskExecutor الافتراضي، ويستخدمه @Async وطلبات MVC غير المتزامنة
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"}, destroyMethod = "")
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(asyncExecutor());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService asyncExecutor() {
+        return VirtualThreads.newExecutor("async-vt-");
+    }
+
+    @Bean(destroyMethod = "close")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor() {
+        return new VirtualThreadPinningMonitor(pinnedThresholdMillis);
+    }
+
+    /**
+     * برامج Oracle JDBC الأقدم من 21 تنفذ I/O داخل synchronized وتثبت الـ Virtual Thread طوال الاستعلام
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkJdbcDriver() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            if (metaData.getDriverName().startsWith("Oracle")
+                    && metaData.getDriverMajorVersion() < ORACLE_DRIVER_MIN_MAJOR_VERSION) {
+                logger.warn("Oracle JDBC driver {} pins virtual threads during I/O, use {} or later",
+                        metaData.getDriverVersion(), ORACLE_DRIVER_MIN_MAJOR_VERSION);
+            }
+            return null;
+        });
+    }
+}
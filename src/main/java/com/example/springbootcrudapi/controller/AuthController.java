@@ -5,7 +5,12 @@ import com.example.springbootcrudapi.dto.LoginRequest;
 import com.example.springbootcrudapi.dto.RegisterRequest;
 import com.example.springbootcrudapi.entity.User;
 import com.example.springbootcrudapi.security.JwtUtil;
+import com.example.springbootcrudapi.security.JwtVerifier;
+import com.example.springbootcrudapi.security.LoginThrottle;
+import com.example.springbootcrudapi.security.PasswordHashingRejectedException;
 import com.example.springbootcrudapi.service.UserService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,16 +41,30 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private JwtVerifier jwtVerifier;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private LoginThrottle loginThrottle;
+
     /**
      * تسجيل دخول المستخدم
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         logger.debug("Login attempt for user: {}", loginRequest.getUsernameOrEmail());
 
+        // تحديد عدد المحاولات لكل IP ولكل مستخدم قبل أي عملية BCrypt
+        long retryAfter = loginThrottle.tryAcquire(loginRequest.getUsernameOrEmail(), request.getRemoteAddr());
+        if (retryAfter > 0) {
+            logger.debug("Login throttled for user: {} from {}", loginRequest.getUsernameOrEmail(),
+                    request.getRemoteAddr());
+            return tooManyRequests(retryAfter, "محاولات دخول كثيرة، حاول مرة أخرى بعد " + retryAfter + " ثانية");
+        }
+
         try {
             // إجراء المصادقة
             Authentication authentication = authenticationManager.authenticate(
@@ -75,6 +94,10 @@ public class AuthController {
 
             return ResponseEntity.ok(jwtResponse);
 
+        } catch (PasswordHashingRejectedException e) {
+            logger.debug("Login rejected for user: {} - {}", loginRequest.getUsernameOrEmail(), e.getMessage());
+            return tooManyRequests(e.getRetryAfterSeconds(), e.getMessage());
+
         } catch (AuthenticationException e) {
             logger.error("Authentication failed for user: {} - Error: {}",
                     loginRequest.getUsernameOrEmail(), e.getMessage());
@@ -129,6 +152,10 @@ public class AuthController {
 
             return ResponseEntity.status(201).body(response);
 
+        } catch (PasswordHashingRejectedException e) {
+            logger.debug("Registration rejected for user: {} - {}", registerRequest.getUsername(), e.getMessage());
+            return tooManyRequests(e.getRetryAfterSeconds(), e.getMessage());
+
         } catch (RuntimeException e) {
             logger.error("Registration failed for user: {} - Error: {}",
                     registerRequest.getUsername(), e.getMessage());
@@ -184,8 +211,9 @@ public class AuthController {
             }
 
             // التحقق من صحة Token
-            if (jwtUtil.validateToken(token)) {
-                String username = jwtUtil.extractUsername(token);
+            Claims claims = jwtVerifier.verify(token);
+            if (claims != null) {
+                String username = claims.getSubject();
 
                 Map<String, Object> response = new HashMap<>();
                 response.put("valid", true);
@@ -259,4 +287,18 @@ public class AuthController {
             return ResponseEntity.status(500).body(response);
         }
     }
+
+    /**
+     * استجابة 429 مع Retry-After
+     */
+    private static ResponseEntity<?> tooManyRequests(long retryAfterSeconds, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "طلبات كثيرة");
+        response.put("message", message);
+        response.put("timestamp", System.currentTimeMillis());
+
+        return ResponseEntity.status(429)
+                .header("Retry-After", Long.toString(retryAfterSeconds))
+                .body(response);
+    }
 }
@@ -0,0 +1,177 @@
+package com.example.springbootcrudapi.controller;
+
+import com.example.springbootcrudapi.config.ReplicaRoutingDataSource;
+import com.example.springbootcrudapi.config.VirtualThreadPinningMonitor;
+import com.example.springbootcrudapi.security.BoundedPasswordEncoder;
+import com.example.springbootcrudapi.security.JwtVerifier;
+import com.example.springbootcrudapi.security.LoginThrottle;
+import com.example.springbootcrudapi.security.TokenVersionRegistry;
+import com.example.springbootcrudapi.service.CustomUserDetailsService;
+import com.example.springbootcrudapi.service.LatestTransactionsBuffer;
+import com.example.springbootcrudapi.service.SecondLevelCacheStats;
+import com.example.springbootcrudapi.service.TransIdFilter;
+import com.example.springbootcrudapi.service.TransactionArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Metrics Controller لإحصائيات المكونات الداخلية (للمدير فقط)
+ */
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class MetricsController {
+
+    @Autowired
+    private TransIdFilter transIdFilter;
+
+    @Autowired
+    private SecondLevelCacheStats secondLevelCacheStats;
+
+    @Autowired
+    private LatestTransactionsBuffer latestTransactions;
+
+    @Autowired
+    private TransactionArchiveService archiveService;
+
+    @Autowired
+    private JwtVerifier jwtVerifier;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired(required = false)
+    private ReplicaRoutingDataSource replicaRouting;
+
+    @Autowired(required = false)
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    /**
+     * إحصائيات فلتر أرقام المعاملات (الحجم ونسبة الإيجابيات الكاذبة)
+     */
+    @GetMapping("/trans-id-filter")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getTransIdFilterStats() {
+        Map<String, Object> response = transIdFilter.getStats();
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * إحصائيات الـ Second-level cache للمعاملات (بالـ ID وبرقم المعاملة)
+     */
+    @GetMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> response = secondLevelCacheStats.getStats();
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * حالة آخر المعاملات المحفوظة في الذاكرة ونسبة القراءات التي لم تحتج قاعدة البيانات
+     */
+    @GetMapping("/latest-transactions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getLatestTransactionsStats() {
+        Map<String, Object> response = latestTransactions.getStats();
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * إحصائيات cache الـ JWT Tokens التي تم التحقق منها وأرقام إصدار الـ tokens لكل مستخدم
+     */
+    @GetMapping("/jwt")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getJwtStats() {
+        Map<String, Object> response = jwtVerifier.getStats();
+        response.put("tokenVersions", tokenVersionRegistry.getStats());
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * إحصائيات cache بيانات المستخدمين (نسبة الإصابة وزمن التحميل من قاعدة البيانات)
+     */
+    @GetMapping("/user-details")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getUserDetailsStats() {
+        Map<String, Object> response = userDetailsService.getStats();
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * إحصائيات pool تشفير كلمات المرور (الطابور والرفض وزمن الانتظار) وتحديد محاولات الدخول
+     */
+    @GetMapping("/password-hashing")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingStats() {
+        Map<String, Object> response = passwordEncoder.getStats();
+        response.put("loginThrottle", loginThrottle.getStats());
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * حالة الأرشفة ونتيجة آخر تشغيل
+     */
+    @GetMapping("/archive")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getArchiveStats() {
+        Map<String, Object> response = archiveService.getStats();
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * توزيع الاتصالات بين قاعدة البيانات الرئيسية ونسخ القراءة وحالة كل نسخة
+     */
+    @GetMapping("/datasource")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getDataSourceStats() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("replicasEnabled", replicaRouting != null);
+        if (replicaRouting != null) {
+            response.putAll(replicaRouting.getStats());
+        }
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * وضع تنفيذ الطلبات (Virtual أو Platform Threads) وعدد مرات تثبيت الـ Virtual Threads
+     */
+    @GetMapping("/threads")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getThreadStats() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("virtualThreads", pinningMonitor != null);
+        response.put("javaVersion", Runtime.version().toString());
+        response.put("platformThreads", ManagementFactory.getThreadMXBean().getThreadCount());
+        if (pinningMonitor != null) {
+            response.putAll(pinningMonitor.getStats());
+        }
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.springbootcrudapi.controller;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import com.example.springbootcrudapi.repository.TransactionReactiveRepository;
+import com.example.springbootcrudapi.service.TransactionCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * نسخة تفاعلية (WebFlux) من مسارات القراءة كثيرة النتائج في TransactionController
+ * النتائج تُكتب للعميل أثناء قراءتها من قاعدة البيانات: Accept: application/x-ndjson يرسل كل معاملة في سطر،
+ * وبدونه يتم إرسال JSON array بنفس شكل الواجهة العادية
+ */
+@Component
+@ConditionalOnProperty(name = "reactive.server.enabled", havingValue = "true")
+public class ReactiveTransactionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTransactionHandler.class);
+
+    @Autowired
+    private TransactionReactiveRepository reactiveRepository;
+
+    /**
+     * البحث عن المعاملات بواسطة رقم الطرفية
+     */
+    public Mono<ServerResponse> getTransactionsByTerminalId(ServerRequest request) {
+        String terminalId = request.pathVariable("terminalId");
+        logger.debug("Reactive request to get transactions by terminal id: {}", terminalId);
+        return stream(request, reactiveRepository.findByTerminalId(terminalId));
+    }
+
+    /**
+     * البحث عن المعاملات بواسطة اسم التاجر
+     */
+    public Mono<ServerResponse> searchTransactionsByMerchantName(ServerRequest request) {
+        return Mono.defer(() -> {
+            String merchantName = required(request, "merchantName");
+            logger.debug("Reactive request to search transactions by merchant name: {}", merchantName);
+            return stream(request, reactiveRepository.findByMerchantNameContainingIgnoreCase(merchantName));
+        });
+    }
+
+    /**
+     * البحث عن المعاملات في فترة زمنية
+     */
+    public Mono<ServerResponse> getTransactionsByDateRange(ServerRequest request) {
+        return Mono.defer(() -> {
+            LocalDateTime startDate = dateTime(request, "startDate");
+            LocalDateTime endDate = dateTime(request, "endDate");
+            logger.debug("Reactive request to get transactions between {} and {}", startDate, endDate);
+            return stream(request, reactiveRepository.findByTransactionDateBetween(startDate, endDate));
+        });
+    }
+
+    /**
+     * البحث بنفس معاملات /api/transactions/filter، مع إرسال كل النتائج بعد المؤشر أو أول size منها
+     */
+    public Mono<ServerResponse> filterTransactions(ServerRequest request) {
+        return Mono.defer(() -> {
+            TransactionCursor after = request.queryParam("cursor").filter(cursor -> !cursor.isBlank())
+                    .map(TransactionCursor::decode)
+                    .orElse(new TransactionCursor(null, null));
+            Integer size = request.queryParam("size").map(value -> parse(value, "size", Integer::valueOf)).orElse(null);
+            if (size != null && size < 1) {
+                throw new IllegalArgumentException("حجم الصفحة يجب أن يكون أكبر من صفر: " + size);
+            }
+            logger.debug("Reactive filtering transactions with provided parameters");
+
+            return stream(request, reactiveRepository.filter(
+                    optional(request, "transId"), optional(request, "terminalId"), optional(request, "merchantName"),
+                    optional(request, "maskPan"), optional(request, "authorizationNumber"),
+                    optional(request, "merchantAccountNumber"), optional(request, "outletCode"),
+                    amount(request, "minAmount"), amount(request, "maxAmount"),
+                    after.getTransactionDate(), after.getId(), size));
+        });
+    }
+
+    /**
+     * أخطاء المعطيات تُرجع 400 بنفس شكل GlobalExceptionHandler
+     * (المعالجات ترجع الخطأ داخل Mono.defer حتى يصل لـ onError بدل أن يُرمى مباشرة)
+     */
+    public Mono<ServerResponse> badRequest(Throwable e, ServerRequest request) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("error", "معطى غير صحيح");
+        response.put("message", e.getMessage());
+        response.put("timestamp", System.currentTimeMillis());
+        response.put("path", request.path());
+        return ServerResponse.status(400).contentType(MediaType.APPLICATION_JSON).bodyValue(response);
+    }
+
+    private static Mono<ServerResponse> stream(ServerRequest request, Flux<Transaction> transactions) {
+        boolean ndjson = request.headers().accept().stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        return ServerResponse.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(transactions, Transaction.class);
+    }
+
+    private static String required(ServerRequest request, String name) {
+        return request.queryParam(name)
+                .orElseThrow(() -> new IllegalArgumentException("المعطى " + name + " مطلوب"));
+    }
+
+    private static String optional(ServerRequest request, String name) {
+        return request.queryParam(name).orElse(null);
+    }
+
+    private static BigDecimal amount(ServerRequest request, String name) {
+        return request.queryParam(name).map(value -> parse(value, name, BigDecimal::new)).orElse(null);
+    }
+
+    private static LocalDateTime dateTime(ServerRequest request, String name) {
+        return parse(required(request, name), name, LocalDateTime::parse);
+    }
+
+    private static <T> T parse(String value, String name, Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("قيمة غير صحيحة للمعطى " + name + ": " + value);
+        }
+    }
+}
@@ -1,16 +1,40 @@
 package com.example.springbootcrudapi.controller;
 
+import com.example.springbootcrudapi.config.BinaryFormats;
+import com.example.springbootcrudapi.config.TransactionProtobuf;
+import com.example.springbootcrudapi.dto.BatchIngestResponse;
+import com.example.springbootcrudapi.dto.DailyTransactionStats;
+import com.example.springbootcrudapi.dto.SettlementLoadReport;
+import com.example.springbootcrudapi.dto.TransactionPageResponse;
+import com.example.springbootcrudapi.dto.TransactionPartitionInfo;
 import com.example.springbootcrudapi.entity.Transaction;
+import com.example.springbootcrudapi.service.SettlementFileLoader;
+import com.example.springbootcrudapi.service.SettlementRecordParser;
+import com.example.springbootcrudapi.service.TransactionBatchService;
+import com.example.springbootcrudapi.service.TransactionChangeTracker;
+import com.example.springbootcrudapi.service.TransactionExportService;
+import com.example.springbootcrudapi.service.TransactionExportService.ExportFormat;
+import com.example.springbootcrudapi.service.TransactionPartitionService;
 import com.example.springbootcrudapi.service.TransactionService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -27,20 +51,56 @@ public class TransactionController {
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionController.class);
 
+    /**
+     * العميل يحتفظ بالنتيجة ويتحقق منها بالـ ETag في كل طلب
+     */
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private TransactionBatchService transactionBatchService;
+
+    @Autowired
+    private SettlementFileLoader settlementFileLoader;
+
+    @Autowired
+    private TransactionPartitionService partitionService;
+
+    @Autowired
+    private TransactionChangeTracker changeTracker;
+
+    @Autowired
+    private BinaryFormats binaryFormats;
+
     /**
-     * جلب جميع المعاملات
+     * أرقام الإصدار في ذاكرة هذا الـ instance فقط، لذلك الـ ETag لا يُستخدم مع نسخ القراءة أو أكثر من instance
+     */
+    @Value("${transaction.etag.enabled:true}")
+    private boolean etagEnabled;
+
+    @Value("${datasource.replicas.enabled:false}")
+    private boolean replicasEnabled;
+
+    /**
+     * جلب المعاملات على صفحات باستخدام مؤشر الصفحة التالية
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
-        logger.debug("Request to get all transactions");
+    public ResponseEntity<TransactionPageResponse> getAllTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        logger.debug("Request to get transactions page - cursor: {}, size: {}", cursor, size);
 
         try {
-            List<Transaction> transactions = transactionService.getAllTransactions();
-            return ResponseEntity.ok(transactions);
+            TransactionPageResponse page = transactionService.getTransactionsPage(cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error getting all transactions: {}", e.getMessage());
             throw new RuntimeException("خطأ في جلب المعاملات: " + e.getMessage());
@@ -153,6 +213,31 @@ public class TransactionController {
         }
     }
 
+    /**
+     * إدخال جماعي للمعاملات (JSON array أو NDJSON أو CBOR/Smile أو TransactionList بصيغة protobuf) مع نتيجة لكل عنصر
+     */
+    @PostMapping(value = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson",
+            MediaType.APPLICATION_CBOR_VALUE, "application/x-jackson-smile", "application/x-protobuf" })
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<BatchIngestResponse> createTransactionsBatch(HttpServletRequest request) throws IOException {
+        logger.debug("Request to create transactions batch ({})", request.getContentType());
+
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        if (TransactionProtobuf.MEDIA_TYPE.isCompatibleWith(contentType)) {
+            try (TransactionProtobuf.Reader items = TransactionProtobuf.reader(request.getInputStream())) {
+                BatchIngestResponse response = transactionBatchService.ingest(items);
+                return ResponseEntity.ok(response);
+            }
+        }
+
+        // القراءة تتم عنصراً بعنصر من الطلب سواء كان array أو سطور NDJSON أو قيم CBOR/Smile متتالية
+        try (MappingIterator<Transaction> items = binaryFormats.mapperFor(contentType).readerFor(Transaction.class)
+                .readValues(request.getInputStream())) {
+            BatchIngestResponse response = transactionBatchService.ingest(items);
+            return ResponseEntity.ok(response);
+        }
+    }
+
     /**
      * تحديث بيانات معاملة
      */
@@ -237,12 +322,18 @@ public class TransactionController {
      */
     @GetMapping("/terminal/{terminalId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    public ResponseEntity<List<Transaction>> getTransactionsByTerminalId(@PathVariable String terminalId) {
+    public ResponseEntity<List<Transaction>> getTransactionsByTerminalId(@PathVariable String terminalId,
+            WebRequest request) {
         logger.debug("Request to get transactions by terminal id: {}", terminalId);
 
+        String etag = etag(changeTracker.getTerminalVersion(terminalId));
+        if (notModified(request, etag)) {
+            return revalidated(304, etag).build();
+        }
+
         try {
             List<Transaction> transactions = transactionService.getTransactionsByTerminalId(terminalId);
-            return ResponseEntity.ok(transactions);
+            return revalidated(200, etag).body(transactions);
         } catch (Exception e) {
             logger.error("Error getting transactions by terminal id {}: {}", terminalId, e.getMessage());
             throw new RuntimeException("خطأ في جلب المعاملات: " + e.getMessage());
@@ -286,6 +377,34 @@ public class TransactionController {
         }
     }
 
+    /**
+     * تصدير المعاملات في فترة زمنية بشكل متدفق (NDJSON أو CSV أو Arrow أو Parquet)
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public void exportTransactionsByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String terminalId,
+            @RequestParam(required = false) String merchantName,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+
+        logger.debug("Request to export transactions between {} and {} as {}", startDate, endDate, format);
+
+        ExportFormat exportFormat = ExportFormat.from(format);
+        response.setContentType(exportFormat.getContentType());
+        if (exportFormat.isText()) {
+            response.setCharacterEncoding("UTF-8");
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"transactions." + exportFormat.getExtension() + "\"");
+
+        long rows = transactionExportService.exportByDateRange(
+                startDate, endDate, terminalId, merchantName, exportFormat, response.getOutputStream());
+        logger.debug("Export finished with {} rows", rows);
+    }
+
     /**
      * البحث عن المعاملات بمبلغ أكبر من قيمة معينة
      */
@@ -329,21 +448,26 @@ public class TransactionController {
     @GetMapping("/stats/total-amount")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
     public ResponseEntity<Map<String, Object>> getTotalAmountByDate(
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date,
+            WebRequest request) {
 
         logger.debug("Request to get total amount for date: {}", date);
 
+        String etag = etag(changeTracker.getVersion());
+        if (notModified(request, etag)) {
+            return revalidated(304, etag).build();
+        }
+
         try {
-            BigDecimal totalAmount = transactionService.getTotalAmountByDate(date);
-            Long transactionCount = transactionService.getTransactionCountByDate(date);
+            DailyTransactionStats stats = transactionService.getDailyStats(date);
 
             Map<String, Object> response = new HashMap<>();
             response.put("date", date);
-            response.put("totalAmount", totalAmount);
-            response.put("transactionCount", transactionCount);
+            response.put("totalAmount", stats.getTotalAmount());
+            response.put("transactionCount", stats.getTransactionCount());
             response.put("timestamp", System.currentTimeMillis());
 
-            return ResponseEntity.ok(response);
+            return revalidated(200, etag).body(response);
         } catch (Exception e) {
             logger.error("Error getting total amount by date: {}", e.getMessage());
             throw new RuntimeException("خطأ في حساب الإجمالي: " + e.getMessage());
@@ -351,16 +475,50 @@ public class TransactionController {
     }
 
     /**
-     * جلب آخر المعاملات
+     * إعادة حساب جدول الإحصائيات اليومية من جدول المعاملات
+     */
+    @PostMapping("/stats/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildDailyStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        logger.debug("Request to rebuild daily stats from {} to {}", from, to);
+
+        try {
+            long days = transactionService.rebuildDailyRollup(from, to);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "تم إعادة حساب الإحصائيات اليومية بنجاح");
+            response.put("rebuiltDays", days);
+            response.put("timestamp", System.currentTimeMillis());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error rebuilding daily stats: {}", e.getMessage());
+            throw new RuntimeException("خطأ في إعادة حساب الإحصائيات: " + e.getMessage());
+        }
+    }
+
+    /**
+     * جلب آخر المعاملات (limit اختياري، الافتراضي سعة الـ buffer في الذاكرة)
      */
     @GetMapping("/latest")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    public ResponseEntity<List<Transaction>> getLatestTransactions() {
-        logger.debug("Request to get latest transactions");
+    public ResponseEntity<List<Transaction>> getLatestTransactions(@RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        logger.debug("Request to get latest transactions - limit: {}", limit);
+
+        String etag = etag(changeTracker.getVersion());
+        if (notModified(request, etag)) {
+            return revalidated(304, etag).build();
+        }
 
         try {
-            List<Transaction> transactions = transactionService.getLatestTransactions();
-            return ResponseEntity.ok(transactions);
+            List<Transaction> transactions = transactionService.getLatestTransactions(limit);
+            return revalidated(200, etag).body(transactions);
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error getting latest transactions: {}", e.getMessage());
             throw new RuntimeException("خطأ في جلب آخر المعاملات: " + e.getMessage());
@@ -398,6 +556,95 @@ public class TransactionController {
         }
     }
 
+    /**
+     * إعادة بناء فهرس البحث الشامل (للبيانات الموجودة قبل تفعيل الفهرس)
+     */
+    @PostMapping("/search/reindex")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex() {
+        logger.debug("Request to rebuild transaction search index");
+
+        try {
+            long indexed = transactionService.rebuildSearchIndex();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "تم إعادة بناء فهرس البحث بنجاح");
+            response.put("indexedTransactions", indexed);
+            response.put("timestamp", System.currentTimeMillis());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error rebuilding search index: {}", e.getMessage());
+            throw new RuntimeException("خطأ في إعادة بناء فهرس البحث: " + e.getMessage());
+        }
+    }
+
+    /**
+     * بدء تحميل ملف تسوية من مجلد ملفات التسوية على الخادم (يعمل في الخلفية)
+     */
+    @PostMapping("/settlement/load")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SettlementLoadReport> loadSettlementFile(
+            @RequestParam String file,
+            @RequestParam(defaultValue = "csv") String format) {
+        logger.debug("Request to load settlement file {} as {}", file, format);
+
+        SettlementLoadReport report = settlementFileLoader.submit(file, SettlementRecordParser.Format.from(format));
+        return ResponseEntity.status(202).body(report);
+    }
+
+    /**
+     * قائمة الـ partitions وعدد الصفوف (exact=true للعد الفعلي بدلاً من إحصائيات Oracle)
+     */
+    @GetMapping("/partitions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getPartitions(@RequestParam(defaultValue = "false") boolean exact) {
+        logger.debug("Request to list transaction partitions - exact: {}", exact);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("partitioned", partitionService.isPartitioned());
+        response.put("partitions", partitionService.listPartitions(exact));
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * حذف أو تفريغ الـ partitions التي تنتهي قبل تاريخ معين
+     */
+    @PostMapping("/partitions/expire")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> expirePartitions(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before,
+            @RequestParam(defaultValue = "drop") String mode) {
+        logger.debug("Request to expire transaction partitions before {} ({})", before, mode);
+
+        List<TransactionPartitionInfo> expired = partitionService.expirePartitions(before,
+                TransactionPartitionService.ExpireMode.from(mode));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "تم حذف البيانات القديمة بنجاح");
+        response.put("partitions", expired);
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * تقدم تحميل ملف تسوية
+     */
+    @GetMapping("/settlement/load/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getSettlementLoadReport(@PathVariable String jobId) {
+        SettlementLoadReport report = settlementFileLoader.getReport(jobId);
+        if (report == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "عملية التحميل غير موجودة");
+            response.put("message", "لا توجد عملية تحميل بالمعرف: " + jobId);
+            response.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.status(404).body(response);
+        }
+        return ResponseEntity.ok(report);
+    }
+
     /**
      * البحث بكويري بارميتر - بسيط وعملي
      */
@@ -412,21 +659,47 @@ public class TransactionController {
             @RequestParam(required = false) String merchantAccountNumber,
             @RequestParam(required = false) String outletCode,
             @RequestParam(required = false) BigDecimal minAmount,
-            @RequestParam(required = false) BigDecimal maxAmount) {
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         
         logger.debug("Filtering transactions with provided parameters");
 
         try {
-            List<Transaction> transactions = transactionService.searchByMultipleCriteria(
+            TransactionPageResponse page = transactionService.searchByMultipleCriteria(
                     transId, terminalId, merchantName, maskPan,
                     authorizationNumber, merchantAccountNumber, outletCode,
-                    minAmount, maxAmount);
+                    minAmount, maxAmount, cursor, size);
 
-            return ResponseEntity.ok(transactions);
+            return ResponseEntity.ok(page);
 
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error filtering transactions: {}", e.getMessage());
             throw new RuntimeException("خطأ في البحث: " + e.getMessage());
         }
     }
+
+    /**
+     * ETag من رقم إصدار البيانات (weak لأن الضغط والحقول مثل timestamp تغير البايتات لنفس الإصدار)
+     * null إذا كان الـ ETag غير مفعل
+     */
+    private String etag(String version) {
+        return etagEnabled && !replicasEnabled ? "W/\"" + version + "\"" : null;
+    }
+
+    /**
+     * مقارنة If-None-Match بإصدار البيانات قبل تنفيذ الاستعلام
+     */
+    private static boolean notModified(WebRequest request, String etag) {
+        return etag != null && request.checkNotModified(etag);
+    }
+
+    private static ResponseEntity.BodyBuilder revalidated(int status, String etag) {
+        if (etag == null) {
+            return ResponseEntity.status(status);
+        }
+        return ResponseEntity.status(status).eTag(etag).cacheControl(REVALIDATE);
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.springbootcrudapi.controller;
 
 import com.example.springbootcrudapi.entity.User;
+import com.example.springbootcrudapi.security.PasswordHashingRejectedException;
 import com.example.springbootcrudapi.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -128,6 +129,18 @@ public class UserController {
 
             return ResponseEntity.status(201).body(response);
 
+        } catch (PasswordHashingRejectedException e) {
+            logger.warn("Create user rejected {}: {}", user.getUsername(), e.getMessage());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "طلبات كثيرة");
+            response.put("message", e.getMessage());
+            response.put("timestamp", System.currentTimeMillis());
+
+            return ResponseEntity.status(429)
+                    .header("Retry-After", Long.toString(e.getRetryAfterSeconds()))
+                    .body(response);
+
         } catch (RuntimeException e) {
             logger.error("Error creating user {}: {}", user.getUsername(), e.getMessage());
 
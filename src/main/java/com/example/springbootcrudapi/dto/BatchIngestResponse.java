@@ -0,0 +1,79 @@
+package com.example.springbootcrudapi.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch Ingest Response DTO
+ * ملخص الإدخال الجماعي مع نتيجة كل عنصر
+ */
+public class BatchIngestResponse {
+
+    private int total;
+    private int created;
+    private int duplicates;
+    private int invalid;
+    private int failed;
+    private String error;
+    private List<BatchItemResult> results = new ArrayList<>();
+    private long timestamp = System.currentTimeMillis();
+
+    // Default constructor
+    public BatchIngestResponse() {
+    }
+
+    /**
+     * إضافة نتيجة عنصر وتحديث العدادات
+     */
+    public void addResult(BatchItemResult result) {
+        results.add(result);
+        total++;
+        switch (result.getStatus()) {
+            case CREATED -> created++;
+            case DUPLICATE -> duplicates++;
+            case INVALID -> invalid++;
+            case FAILED -> failed++;
+        }
+    }
+
+    // Getters and Setters
+    public int getTotal() {
+        return total;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public int getInvalid() {
+        return invalid;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public List<BatchItemResult> getResults() {
+        return results;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
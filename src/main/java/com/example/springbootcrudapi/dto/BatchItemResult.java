@@ -0,0 +1,75 @@
+package com.example.springbootcrudapi.dto;
+
+/**
+ * Batch Item Result DTO
+ * نتيجة معالجة عنصر واحد في طلب الإدخال الجماعي
+ */
+public class BatchItemResult {
+
+    /**
+     * حالة العنصر بعد المعالجة
+     */
+    public enum Status {
+        CREATED, DUPLICATE, INVALID, FAILED
+    }
+
+    private int index;
+    private String transId;
+    private Status status;
+    private Long id;
+    private String message;
+
+    // Default constructor
+    public BatchItemResult() {
+    }
+
+    // Constructor
+    public BatchItemResult(int index, String transId, Status status, Long id, String message) {
+        this.index = index;
+        this.transId = transId;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getTransId() {
+        return transId;
+    }
+
+    public void setTransId(String transId) {
+        this.transId = transId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.springbootcrudapi.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Daily Transaction Stats DTO
+ * إجمالي المبلغ وعدد المعاملات ليوم واحد
+ */
+public class DailyTransactionStats {
+
+    private BigDecimal totalAmount;
+    private Long transactionCount;
+
+    // Default constructor
+    public DailyTransactionStats() {
+    }
+
+    // Constructor (يستخدم في JPQL constructor expression)
+    public DailyTransactionStats(BigDecimal totalAmount, Long transactionCount) {
+        this.totalAmount = totalAmount != null ? totalAmount : BigDecimal.ZERO;
+        this.transactionCount = transactionCount != null ? transactionCount : 0L;
+    }
+
+    // Getters and Setters
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.springbootcrudapi.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Settlement Load Report DTO
+ * تقدم وسرعة تحميل ملف تسوية، يتم تحديثه من عدة Threads أثناء التحميل
+ */
+public class SettlementLoadReport {
+
+    /**
+     * حالة عملية التحميل
+     */
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    /**
+     * الحد الأقصى لعدد رسائل الأخطاء المحفوظة في التقرير
+     */
+    private static final int MAX_ERRORS = 100;
+
+    private final String jobId;
+    private final String file;
+    private final String format;
+    private volatile Status status = Status.QUEUED;
+    private volatile long totalBytes;
+    private volatile int totalChunks;
+    private final AtomicLong processedBytes = new AtomicLong();
+    private final AtomicInteger completedChunks = new AtomicInteger();
+    private final AtomicInteger skippedChunks = new AtomicInteger();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<String> errors = new ArrayList<>();
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    public SettlementLoadReport(String jobId, String file, String format) {
+        this.jobId = jobId;
+        this.file = file;
+        this.format = format;
+    }
+
+    public void start(long totalBytes, int totalChunks) {
+        this.totalBytes = totalBytes;
+        this.totalChunks = totalChunks;
+        this.startedAt = System.currentTimeMillis();
+        this.status = Status.RUNNING;
+    }
+
+    public void finish(Status status) {
+        this.finishedAt = System.currentTimeMillis();
+        this.status = status;
+    }
+
+    public void chunkCompleted(long bytes) {
+        processedBytes.addAndGet(bytes);
+        completedChunks.incrementAndGet();
+    }
+
+    public void chunkSkipped(long bytes) {
+        processedBytes.addAndGet(bytes);
+        skippedChunks.incrementAndGet();
+    }
+
+    public void addRowsRead(long rows) {
+        rowsRead.addAndGet(rows);
+    }
+
+    /**
+     * إضافة نتيجة دفعة من TransactionBatchService
+     */
+    public void addBatch(BatchIngestResponse batch) {
+        created.addAndGet(batch.getCreated());
+        duplicates.addAndGet(batch.getDuplicates());
+        invalid.addAndGet(batch.getInvalid());
+        failed.addAndGet(batch.getFailed());
+    }
+
+    /**
+     * سجل لم يمكن تحليله من الملف
+     */
+    public void addInvalidRecord(long offset, String message) {
+        invalid.incrementAndGet();
+        addError("offset " + offset + ": " + message);
+    }
+
+    public void addError(String message) {
+        synchronized (errors) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(message);
+            }
+        }
+    }
+
+    // Getters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getProcessedBytes() {
+        return processedBytes.get();
+    }
+
+    public int getTotalChunks() {
+        return totalChunks;
+    }
+
+    public int getCompletedChunks() {
+        return completedChunks.get();
+    }
+
+    public int getSkippedChunks() {
+        return skippedChunks.get();
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getCreated() {
+        return created.get();
+    }
+
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    public long getInvalid() {
+        return invalid.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getElapsedMillis() {
+        if (startedAt == 0) {
+            return 0;
+        }
+        return (finishedAt != 0 ? finishedAt : System.currentTimeMillis()) - startedAt;
+    }
+
+    public double getPercentComplete() {
+        return totalBytes == 0 ? 0 : processedBytes.get() * 100.0 / totalBytes;
+    }
+
+    public long getRowsPerSecond() {
+        long elapsed = getElapsedMillis();
+        return elapsed == 0 ? 0 : rowsRead.get() * 1000 / elapsed;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.springbootcrudapi.dto;
+
+import com.example.springbootcrudapi.entity.Transaction;
+
+import java.util.List;
+
+/**
+ * Transaction Page Response DTO
+ * صفحة من المعاملات مع مؤشر الصفحة التالية (null إذا لم يعد هناك المزيد)
+ */
+public class TransactionPageResponse {
+
+    private List<Transaction> transactions;
+    private String next;
+    private int size;
+    private long timestamp = System.currentTimeMillis();
+
+    // Default constructor
+    public TransactionPageResponse() {
+    }
+
+    // Constructor
+    public TransactionPageResponse(List<Transaction> transactions, String next, int size) {
+        this.transactions = transactions;
+        this.next = next;
+        this.size = size;
+    }
+
+    // Getters and Setters
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(List<Transaction> transactions) {
+        this.transactions = transactions;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasMore() {
+        return next != null;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
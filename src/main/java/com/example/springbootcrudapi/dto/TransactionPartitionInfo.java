@@ -0,0 +1,82 @@
+package com.example.springbootcrudapi.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transaction Partition Info DTO
+ * بيانات partition واحد من جدول المعاملات: الحد الأعلى (غير شامل) وعدد الصفوف
+ */
+public class TransactionPartitionInfo {
+
+    private String name;
+    private int position;
+    private LocalDateTime highValue;
+    private boolean interval;
+    private Long rows;
+    private boolean rowsExact;
+
+    // Default constructor
+    public TransactionPartitionInfo() {
+    }
+
+    // Constructor
+    public TransactionPartitionInfo(String name, int position, LocalDateTime highValue, boolean interval, Long rows) {
+        this.name = name;
+        this.position = position;
+        this.highValue = highValue;
+        this.interval = interval;
+        this.rows = rows;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public LocalDateTime getHighValue() {
+        return highValue;
+    }
+
+    public void setHighValue(LocalDateTime highValue) {
+        this.highValue = highValue;
+    }
+
+    public boolean isInterval() {
+        return interval;
+    }
+
+    public void setInterval(boolean interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * عدد الصفوف: من إحصائيات Oracle (قد يكون null أو قديماً) إلا إذا كان rowsExact
+     */
+    public Long getRows() {
+        return rows;
+    }
+
+    public void setRows(Long rows) {
+        this.rows = rows;
+    }
+
+    public boolean isRowsExact() {
+        return rowsExact;
+    }
+
+    public void setRowsExact(boolean rowsExact) {
+        this.rowsExact = rowsExact;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.springbootcrudapi.entity;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * مولد معرفات من Sequence يحجز كتلة من القيم في كل استدعاء (pooled-lo)
+ * حجم الكتلة يُقرأ من الإعدادات ويجب أن يساوي INCREMENT BY للـ Sequence في قاعدة البيانات
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    /**
+     * اسم إعداد Hibernate الذي يحمل حجم الكتلة (يتم تعيينه من id.allocation.block-size)
+     */
+    public static final String BLOCK_SIZE_SETTING = "app.id.block-size";
+
+    public static final int DEFAULT_BLOCK_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        int blockSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(BLOCK_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_BLOCK_SIZE);
+        if (blockSize < 1) {
+            throw new MappingException("حجم كتلة المعرفات يجب أن يكون 1 أو أكثر: " + blockSize);
+        }
+
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(blockSize));
+        parameters.putIfAbsent(INITIAL_PARAM, "1");
+        // pooled-lo: قيمة الـ Sequence هي أول معرف في الكتلة، لذلك يبقى التوافق مع أي عملية
+        // إدخال خارجية تستخدم nextval مباشرة
+        parameters.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
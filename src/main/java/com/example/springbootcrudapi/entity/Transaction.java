@@ -1,6 +1,13 @@
 package com.example.springbootcrudapi.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -9,15 +16,41 @@ import java.time.LocalDateTime;
  * يحتوي على تفاصيل المعاملات المالية
  */
 @Entity
-@Table(name = "MD_TRANSACTION_CURRENT")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Transaction.CACHE_REGION)
+@NaturalIdCache(region = Transaction.NATURAL_ID_CACHE_REGION)
+@Table(name = "MD_TRANSACTION_CURRENT", uniqueConstraints = {
+        // رقم المعاملة فريد: يعتمد عليه الإدخال المتكرر الآمن (MERGE) ويُستخدم فهرسه للبحث بـ transId
+        @UniqueConstraint(name = "UK_TXN_TRANS_ID", columnNames = "TRANS_ID")
+}, indexes = {
+        // الترتيب والترقيم بالمؤشر والاستعلامات بالفترة الزمنية والإحصائيات اليومية
+        @Index(name = "IDX_TXN_DATE_ID", columnList = "TRANSACTION_DATE, ID"),
+        @Index(name = "IDX_TXN_TERMINAL_ID", columnList = "TERMINAL_ID"),
+        @Index(name = "IDX_TXN_AUTH_NUMBER", columnList = "AUTHORIZATION_NUMBER"),
+        @Index(name = "IDX_TXN_MERCHANT_ACCOUNT", columnList = "MERCHANT_ACCOUNT_NUMBER"),
+        @Index(name = "IDX_TXN_OUTLET_CODE", columnList = "OUTLET_CODE")
+})
 public class Transaction {
 
+    /**
+     * منطقة الـ Second-level cache للمعاملات بالـ ID
+     */
+    public static final String CACHE_REGION = "transactions";
+
+    /**
+     * منطقة cache لتحويل رقم المعاملة (transId) إلى ID
+     */
+    public static final String NATURAL_ID_CACHE_REGION = "transactions-by-trans-id";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
-    @SequenceGenerator(name = "transaction_seq", sequenceName = "TRANSACTION_SEQ", initialValue = 1, allocationSize = 1)
+    @GeneratedValue(generator = "transaction_seq")
+    @GenericGenerator(name = "transaction_seq", type = PooledSequenceGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "TRANSACTION_SEQ")
+    })
     @Column(name = "ID")
     private Long id;
 
+    @NaturalId
     @Column(name = "TRANS_ID", length = 50)
     private String transId;
 
@@ -0,0 +1,135 @@
+package com.example.springbootcrudapi.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Daily Rollup Entity لإحصائيات المعاملات اليومية
+ * صف لكل (يوم، طرفية، حساب تاجر) يتم تحديثه مع كل إنشاء/تعديل/حذف معاملة
+ */
+@Entity
+@IdClass(TransactionDailyRollup.Key.class)
+@Table(name = "MD_TRANSACTION_DAILY")
+public class TransactionDailyRollup {
+
+    /**
+     * قيمة تستخدم بدلاً من null في أعمدة المفتاح
+     */
+    public static final String UNKNOWN = "-";
+
+    @Id
+    @Column(name = "TXN_DAY")
+    private LocalDate day;
+
+    @Id
+    @Column(name = "TERMINAL_ID", length = 20)
+    private String terminalId;
+
+    @Id
+    @Column(name = "MERCHANT_ACCOUNT_NUMBER", length = 30)
+    private String merchantAccountNumber;
+
+    @Column(name = "TRANSACTION_COUNT", nullable = false)
+    private Long transactionCount = 0L;
+
+    @Column(name = "TOTAL_AMOUNT", precision = 19, scale = 2, nullable = false)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "TOTAL_COMMISSION", precision = 19, scale = 2, nullable = false)
+    private BigDecimal totalCommission = BigDecimal.ZERO;
+
+    // Default constructor
+    public TransactionDailyRollup() {
+    }
+
+    // Getters and Setters
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public String getTerminalId() {
+        return terminalId;
+    }
+
+    public void setTerminalId(String terminalId) {
+        this.terminalId = terminalId;
+    }
+
+    public String getMerchantAccountNumber() {
+        return merchantAccountNumber;
+    }
+
+    public void setMerchantAccountNumber(String merchantAccountNumber) {
+        this.merchantAccountNumber = merchantAccountNumber;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public BigDecimal getTotalCommission() {
+        return totalCommission;
+    }
+
+    public void setTotalCommission(BigDecimal totalCommission) {
+        this.totalCommission = totalCommission;
+    }
+
+    /**
+     * المفتاح المركب (TXN_DAY, TERMINAL_ID, MERCHANT_ACCOUNT_NUMBER)
+     */
+    public static class Key implements Serializable {
+
+        private LocalDate day;
+        private String terminalId;
+        private String merchantAccountNumber;
+
+        public Key() {
+        }
+
+        public Key(LocalDate day, String terminalId, String merchantAccountNumber) {
+            this.day = day;
+            this.terminalId = terminalId;
+            this.merchantAccountNumber = merchantAccountNumber;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(day, key.day)
+                    && Objects.equals(terminalId, key.terminalId)
+                    && Objects.equals(merchantAccountNumber, key.merchantAccountNumber);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, terminalId, merchantAccountNumber);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.springbootcrudapi.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Transaction History Entity لجدول المعاملات المؤرشفة
+ * نفس أعمدة MD_TRANSACTION_CURRENT مع تاريخ الأرشفة، والصفوف تُنقل إليه بـ INSERT-SELECT ولا يتم تعديلها
+ */
+@Entity
+@Table(name = "MD_TRANSACTION_HISTORY", uniqueConstraints = {
+        // رقم المعاملة يبقى فريداً بعد الأرشفة (الإدخال الجديد يتحقق من الجدولين)
+        @UniqueConstraint(name = "UK_TXN_HIST_TRANS_ID", columnNames = "TRANS_ID")
+}, indexes = {
+        @Index(name = "IDX_TXN_HIST_DATE_ID", columnList = "TRANSACTION_DATE, ID")
+})
+public class TransactionHistory {
+
+    @Id
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "TRANS_ID", length = 50)
+    private String transId;
+
+    @Column(name = "TERMINAL_ID", length = 20)
+    private String terminalId;
+
+    @Column(name = "MERCHANT_NAME", length = 100)
+    private String merchantName;
+
+    @Column(name = "SOURCE_AMOUNT", precision = 15, scale = 2)
+    private BigDecimal sourceAmount;
+
+    @Column(name = "MERCHANT_COMMISSION", precision = 15, scale = 2)
+    private BigDecimal merchantCommission;
+
+    @Column(name = "TRANSACTION_DATE")
+    private LocalDateTime transactionDate;
+
+    @Column(name = "PROCESSING_DATE")
+    private LocalDateTime processingDate;
+
+    @Column(name = "MASK_PAN", length = 20)
+    private String maskPan;
+
+    @Column(name = "AUTHORIZATION_NUMBER", length = 20)
+    private String authorizationNumber;
+
+    @Column(name = "MERCHANT_ACCOUNT_NUMBER", length = 30)
+    private String merchantAccountNumber;
+
+    @Column(name = "OUTLET_CODE", length = 20)
+    private String outletCode;
+
+    @Column(name = "ARCHIVED_AT")
+    private LocalDateTime archivedAt;
+
+    // Default constructor
+    public TransactionHistory() {
+    }
+
+    /**
+     * نسخة Transaction غير مرتبطة بالـ Persistence Context لإرجاعها من نفس الـ API
+     */
+    public Transaction toTransaction() {
+        Transaction transaction = new Transaction(transId, terminalId, merchantName, sourceAmount, transactionDate);
+        transaction.setId(id);
+        transaction.setMerchantCommission(merchantCommission);
+        transaction.setProcessingDate(processingDate);
+        transaction.setMaskPan(maskPan);
+        transaction.setAuthorizationNumber(authorizationNumber);
+        transaction.setMerchantAccountNumber(merchantAccountNumber);
+        transaction.setOutletCode(outletCode);
+        return transaction;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTransId() {
+        return transId;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.springbootcrudapi.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Trigram Entity للفهرس المقلوب (Inverted Index) المستخدم في البحث الشامل
+ * كل صف يربط مقطعاً ثلاثياً (trigram) بمعرف معاملة تحتوي عليه
+ */
+@Entity
+@IdClass(TransactionTrigram.Key.class)
+@Table(name = "MD_TRANSACTION_TRIGRAM", indexes = {
+        @Index(name = "IDX_TRIGRAM_TRANSACTION_ID", columnList = "TRANSACTION_ID")
+})
+public class TransactionTrigram implements Persistable<TransactionTrigram.Key> {
+
+    @Id
+    @Column(name = "GRAM", length = 12)
+    private String gram;
+
+    @Id
+    @Column(name = "TRANSACTION_ID")
+    private Long transactionId;
+
+    // Default constructor
+    public TransactionTrigram() {
+    }
+
+    // Constructor
+    public TransactionTrigram(String gram, Long transactionId) {
+        this.gram = gram;
+        this.transactionId = transactionId;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(gram, transactionId);
+    }
+
+    /**
+     * الصفوف تُضاف فقط ولا يتم تعديلها، لذلك نتجنب SELECT قبل الإدخال
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    // Getters and Setters
+    public String getGram() {
+        return gram;
+    }
+
+    public void setGram(String gram) {
+        this.gram = gram;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    /**
+     * المفتاح المركب (GRAM, TRANSACTION_ID)
+     */
+    public static class Key implements Serializable {
+
+        private String gram;
+        private Long transactionId;
+
+        public Key() {
+        }
+
+        public Key(String gram, Long transactionId) {
+            this.gram = gram;
+            this.transactionId = transactionId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(gram, key.gram) && Objects.equals(transactionId, key.transactionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(gram, transactionId);
+        }
+    }
+}
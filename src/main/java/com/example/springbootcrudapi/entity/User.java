@@ -1,6 +1,9 @@
 package com.example.springbootcrudapi.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,8 +23,10 @@ import java.util.Collections;
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
-    @SequenceGenerator(name = "user_seq", sequenceName = "USER_SEQ", initialValue = 1, allocationSize = 1)
+    @GeneratedValue(generator = "user_seq")
+    @GenericGenerator(name = "user_seq", type = PooledSequenceGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "USER_SEQ")
+    })
     @Column(name = "ID")
     private Long id;
 
@@ -53,6 +58,13 @@ public class User implements UserDetails {
     @Column(name = "CREDENTIALS_NON_EXPIRED")
     private boolean credentialsNonExpired = true;
 
+    /**
+     * رقم إصدار الـ tokens: يزيد عند تغيير الدور أو الحالة أو كلمة المرور فتُرفض الـ tokens الأقدم
+     * (nullable حتى يضيفه ddl-auto=update للجداول الموجودة، و null يعامل كـ 0)
+     */
+    @Column(name = "TOKEN_VERSION")
+    private Long tokenVersion = 0L;
+
     // Default constructor
     public User() {
     }
@@ -158,6 +170,21 @@ public class User implements UserDetails {
         this.credentialsNonExpired = credentialsNonExpired;
     }
 
+    public long getTokenVersion() {
+        return tokenVersion != null ? tokenVersion : 0L;
+    }
+
+    public void setTokenVersion(long tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
+    /**
+     * إبطال كل الـ tokens الصادرة قبل هذا التغيير
+     */
+    public void incrementTokenVersion() {
+        this.tokenVersion = getTokenVersion() + 1;
+    }
+
     @Override
     public String toString() {
         return "User{" +
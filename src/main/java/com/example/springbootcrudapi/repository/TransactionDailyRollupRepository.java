@@ -0,0 +1,67 @@
+package com.example.springbootcrudapi.repository;
+
+import com.example.springbootcrudapi.dto.DailyTransactionStats;
+import com.example.springbootcrudapi.entity.TransactionDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+/**
+ * Repository لجدول الإحصائيات اليومية MD_TRANSACTION_DAILY
+ * تطبيق الفروق (MERGE) يتم في TransactionDailyRollupService عبر JDBC حتى يمكن إعادة المحاولة داخل نفس الـ Transaction
+ * أوامر SQL الأصلية تحدد الجدول المتأثر (HINT_NATIVE_SPACES) حتى لا يقوم Hibernate بمسح كامل الـ Second-level cache
+ */
+@Repository
+public interface TransactionDailyRollupRepository
+        extends JpaRepository<TransactionDailyRollup, TransactionDailyRollup.Key> {
+
+    /**
+     * إجمالي المبلغ وعدد المعاملات ليوم معين من جدول الإحصائيات
+     */
+    @Query("SELECT new com.example.springbootcrudapi.dto.DailyTransactionStats(" +
+            "SUM(d.totalAmount), SUM(d.transactionCount)) " +
+            "FROM TransactionDailyRollup d WHERE d.day = :day")
+    DailyTransactionStats findStatsByDay(@Param("day") LocalDate day);
+
+    /**
+     * حذف صفوف الإحصائيات في فترة (قبل إعادة حسابها)
+     */
+    @Modifying
+    @Query("DELETE FROM TransactionDailyRollup d WHERE d.day >= :from AND d.day < :to")
+    int deleteByDayRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * أقدم يوم في جدول الإحصائيات
+     */
+    @Query("SELECT MIN(d.day) FROM TransactionDailyRollup d")
+    LocalDate findEarliestDay();
+
+    /**
+     * إعادة حساب الإحصائيات لفترة [from, to) من المعاملات الحالية والمؤرشفة معاً
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "MD_TRANSACTION_DAILY"))
+    @Query(nativeQuery = true, value = "INSERT INTO MD_TRANSACTION_DAILY " +
+            "(TXN_DAY, TERMINAL_ID, MERCHANT_ACCOUNT_NUMBER, TRANSACTION_COUNT, TOTAL_AMOUNT, TOTAL_COMMISSION) " +
+            "SELECT TRUNC(t.TRANSACTION_DATE), COALESCE(t.TERMINAL_ID, '-'), COALESCE(t.MERCHANT_ACCOUNT_NUMBER, '-'), " +
+            "COUNT(*), COALESCE(SUM(t.SOURCE_AMOUNT), 0), COALESCE(SUM(t.MERCHANT_COMMISSION), 0) " +
+            "FROM (SELECT c.TRANSACTION_DATE, c.TERMINAL_ID, c.MERCHANT_ACCOUNT_NUMBER, c.SOURCE_AMOUNT, " +
+            "c.MERCHANT_COMMISSION FROM MD_TRANSACTION_CURRENT c " +
+            "WHERE c.TRANSACTION_DATE >= :from AND c.TRANSACTION_DATE < :to " +
+            "UNION ALL " +
+            "SELECT h.TRANSACTION_DATE, h.TERMINAL_ID, h.MERCHANT_ACCOUNT_NUMBER, h.SOURCE_AMOUNT, " +
+            "h.MERCHANT_COMMISSION FROM MD_TRANSACTION_HISTORY h " +
+            "WHERE h.TRANSACTION_DATE >= :from AND h.TRANSACTION_DATE < :to) t " +
+            "GROUP BY TRUNC(t.TRANSACTION_DATE), COALESCE(t.TERMINAL_ID, '-'), COALESCE(t.MERCHANT_ACCOUNT_NUMBER, '-')")
+    int rebuildFromTransactions(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
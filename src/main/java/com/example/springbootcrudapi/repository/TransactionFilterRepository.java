@@ -0,0 +1,24 @@
+package com.example.springbootcrudapi.repository;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Repository fragment لتنفيذ Specifications مع حد أقصى للصفوف بدون COUNT
+ */
+public interface TransactionFilterRepository {
+
+    /**
+     * جلب أول {@code limit} صف مطابق مرتب بـ (TRANSACTION_DATE, ID) تنازلياً
+     */
+    List<Transaction> findSlice(Specification<Transaction> specification, int limit);
+
+    /**
+     * قراءة كل الصفوف المطابقة كـ Stream عبر JDBC cursor مرتبة بـ (TRANSACTION_DATE, ID) تصاعدياً (للتصدير)
+     * يجب استهلاك الـ Stream داخل Transaction وإغلاقه بعد الانتهاء
+     */
+    Stream<Transaction> stream(Specification<Transaction> specification);
+}
@@ -0,0 +1,68 @@
+package com.example.springbootcrudapi.repository;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_CACHE_STORE_MODE;
+
+/**
+ * تنفيذ TransactionFilterRepository باستخدام Criteria API
+ */
+public class TransactionFilterRepositoryImpl implements TransactionFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Transaction> findSlice(Specification<Transaction> specification, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transaction> query = cb.createQuery(Transaction.class);
+        Root<Transaction> root = query.from(Transaction.class);
+
+        where(query, root, cb, specification);
+        query.orderBy(cb.desc(root.get("transactionDate")), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<Transaction> stream(Specification<Transaction> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transaction> query = cb.createQuery(Transaction.class);
+        Root<Transaction> root = query.from(Transaction.class);
+
+        where(query, root, cb, specification);
+        query.orderBy(cb.asc(root.get("transactionDate")), cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HINT_FETCH_SIZE, 1000)
+                .setHint(HINT_READ_ONLY, true)
+                // التصدير لا يملأ الـ Second-level cache (مع CacheMode.IGNORE في TransactionExportService)
+                .setHint(HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS)
+                .getResultStream();
+    }
+
+    private static void where(CriteriaQuery<Transaction> query, Root<Transaction> root, CriteriaBuilder cb,
+            Specification<Transaction> specification) {
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+    }
+}
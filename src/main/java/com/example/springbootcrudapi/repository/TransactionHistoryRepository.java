@@ -0,0 +1,105 @@
+package com.example.springbootcrudapi.repository;
+
+import com.example.springbootcrudapi.dto.DailyTransactionStats;
+import com.example.springbootcrudapi.entity.TransactionHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Repository للمعاملات المؤرشفة ونقل المعاملات القديمة من MD_TRANSACTION_CURRENT
+ * أوامر النقل تعلن MD_TRANSACTION_HISTORY فقط كـ query space حتى لا يفرغ Hibernate كامل cache المعاملات،
+ * والمعاملات المنقولة تُحذف من الـ cache بالـ ID بعد الـ commit
+ */
+@Repository
+public interface TransactionHistoryRepository extends JpaRepository<TransactionHistory, Long> {
+
+    /**
+     * البحث عن معاملة مؤرشفة برقم المعاملة
+     */
+    Optional<TransactionHistory> findByTransId(String transId);
+
+    /**
+     * أرقام المعاملات المؤرشفة من القائمة المحددة
+     */
+    @Query("SELECT h.transId FROM TransactionHistory h WHERE h.transId IN :transIds")
+    List<String> findExistingTransIds(@Param("transIds") Collection<String> transIds);
+
+    /**
+     * إجمالي المبلغ وعدد المعاملات المؤرشفة في فترة [from, to)
+     */
+    @Query("SELECT new com.example.springbootcrudapi.dto.DailyTransactionStats(SUM(h.sourceAmount), COUNT(h)) " +
+            "FROM TransactionHistory h WHERE h.transactionDate >= :from AND h.transactionDate < :to")
+    DailyTransactionStats sumAndCountBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * أقدم تاريخ معاملة في الأرشيف
+     */
+    @Query("SELECT MIN(h.transactionDate) FROM TransactionHistory h")
+    LocalDateTime findEarliestTransactionDate();
+
+    /**
+     * أحدث تاريخ معاملة في الأرشيف
+     */
+    @Query("SELECT MAX(h.transactionDate) FROM TransactionHistory h")
+    LocalDateTime findLatestTransactionDate();
+
+    /**
+     * قراءة أرقام المعاملات المؤرشفة كـ Stream (لبناء فلتر أرقام المعاملات)
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT h.transId FROM TransactionHistory h WHERE h.transId IS NOT NULL")
+    Stream<String> streamAllTransIds();
+
+    /**
+     * حجز دفعة من المعاملات الأقدم من cutoff، والصفوف المحجوزة من عمليات أخرى يتم تخطيها
+     * (lock timeout = -2 يصبح FOR UPDATE SKIP LOCKED في Oracle)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT t.id FROM Transaction t WHERE t.transactionDate < :cutoff")
+    List<Long> lockArchivable(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * نسخ المعاملات المحجوزة إلى جدول الأرشيف
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "MD_TRANSACTION_HISTORY"))
+    @Query(value = "INSERT INTO MD_TRANSACTION_HISTORY (ID, TRANS_ID, TERMINAL_ID, MERCHANT_NAME, SOURCE_AMOUNT, " +
+            "MERCHANT_COMMISSION, TRANSACTION_DATE, PROCESSING_DATE, MASK_PAN, AUTHORIZATION_NUMBER, " +
+            "MERCHANT_ACCOUNT_NUMBER, OUTLET_CODE, ARCHIVED_AT) " +
+            "SELECT ID, TRANS_ID, TERMINAL_ID, MERCHANT_NAME, SOURCE_AMOUNT, MERCHANT_COMMISSION, TRANSACTION_DATE, " +
+            "PROCESSING_DATE, MASK_PAN, AUTHORIZATION_NUMBER, MERCHANT_ACCOUNT_NUMBER, OUTLET_CODE, :archivedAt " +
+            "FROM MD_TRANSACTION_CURRENT WHERE ID IN (:ids)", nativeQuery = true)
+    int copyToHistory(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    /**
+     * حذف المعاملات المنسوخة من الجدول الحالي
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "MD_TRANSACTION_HISTORY"))
+    @Query(value = "DELETE FROM MD_TRANSACTION_CURRENT WHERE ID IN (:ids)", nativeQuery = true)
+    int deleteFromCurrent(@Param("ids") Collection<Long> ids);
+}
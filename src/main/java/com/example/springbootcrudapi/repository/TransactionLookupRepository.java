@@ -0,0 +1,16 @@
+package com.example.springbootcrudapi.repository;
+
+import com.example.springbootcrudapi.entity.Transaction;
+
+import java.util.Optional;
+
+/**
+ * Repository fragment للبحث برقم المعاملة عبر الـ Natural-id cache
+ */
+public interface TransactionLookupRepository {
+
+    /**
+     * البحث برقم المعاملة مع استخدام الـ Natural-id cache و Second-level cache قبل قاعدة البيانات
+     */
+    Optional<Transaction> findCachedByTransId(String transId);
+}
@@ -0,0 +1,24 @@
+package com.example.springbootcrudapi.repository;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+/**
+ * تنفيذ TransactionLookupRepository باستخدام Session.bySimpleNaturalId
+ */
+public class TransactionLookupRepositoryImpl implements TransactionLookupRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Transaction> findCachedByTransId(String transId) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Transaction.class)
+                .loadOptional(transId);
+    }
+}
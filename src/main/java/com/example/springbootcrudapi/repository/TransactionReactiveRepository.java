@@ -0,0 +1,146 @@
+package com.example.springbootcrudapi.repository;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * قراءة المعاملات عبر R2DBC بدون حجز thread أثناء انتظار قاعدة البيانات
+ * الشروط والترتيب مطابقة لاستعلامات TransactionRepository و TransactionSpecifications،
+ * والصفوف تُقرأ على دفعات (fetch size) حسب طلب المستهلك (backpressure)
+ */
+@Repository
+@ConditionalOnProperty(name = "reactive.server.enabled", havingValue = "true")
+public class TransactionReactiveRepository {
+
+    private static final String SELECT = "SELECT ID, TRANS_ID, TERMINAL_ID, MERCHANT_NAME, SOURCE_AMOUNT, " +
+            "MERCHANT_COMMISSION, TRANSACTION_DATE, PROCESSING_DATE, MASK_PAN, AUTHORIZATION_NUMBER, " +
+            "MERCHANT_ACCOUNT_NUMBER, OUTLET_CODE FROM MD_TRANSACTION_CURRENT";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Value("${reactive.r2dbc.fetch-size:500}")
+    private int fetchSize;
+
+    /**
+     * مثل TransactionRepository.findByTerminalId
+     */
+    public Flux<Transaction> findByTerminalId(String terminalId) {
+        return query(SELECT + " WHERE TERMINAL_ID = :terminalId", Map.of("terminalId", terminalId));
+    }
+
+    /**
+     * مثل TransactionRepository.findByMerchantNameContainingIgnoreCase
+     */
+    public Flux<Transaction> findByMerchantNameContainingIgnoreCase(String merchantName) {
+        StringBuilder sql = new StringBuilder(SELECT).append(" WHERE ");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        // % و _ في النص المدخل تُبحث كحروف عادية وليست wildcards
+        containsIgnoreCase(sql, parameters, "MERCHANT_NAME", "merchantName", merchantName);
+        sql.append("MERCHANT_NAME IS NOT NULL");
+        return query(sql.toString(), parameters);
+    }
+
+    /**
+     * مثل TransactionRepository.findByTransactionDateBetween
+     */
+    public Flux<Transaction> findByTransactionDateBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return query(SELECT + " WHERE TRANSACTION_DATE BETWEEN :startDate AND :endDate ORDER BY TRANSACTION_DATE DESC",
+                Map.of("startDate", startDate, "endDate", endDate));
+    }
+
+    /**
+     * نفس شروط البحث في TransactionService.searchByMultipleCriteria مرتبة بـ (TRANSACTION_DATE, ID) تنازلياً
+     * بعد المؤشر (lastDate, lastId) إذا تم تمريره، و limit اختياري (null = كل النتائج)
+     */
+    public Flux<Transaction> filter(String transId, String terminalId, String merchantName, String maskPan,
+            String authorizationNumber, String merchantAccountNumber, String outletCode,
+            BigDecimal minAmount, BigDecimal maxAmount, LocalDateTime lastDate, Long lastId, Integer limit) {
+
+        StringBuilder sql = new StringBuilder(SELECT).append(" WHERE ");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        equalTo(sql, parameters, "TRANS_ID", "transId", transId);
+        equalTo(sql, parameters, "TERMINAL_ID", "terminalId", terminalId);
+        equalTo(sql, parameters, "AUTHORIZATION_NUMBER", "authorizationNumber", authorizationNumber);
+        equalTo(sql, parameters, "MERCHANT_ACCOUNT_NUMBER", "merchantAccountNumber", merchantAccountNumber);
+        equalTo(sql, parameters, "OUTLET_CODE", "outletCode", outletCode);
+        containsIgnoreCase(sql, parameters, "MERCHANT_NAME", "merchantName", merchantName);
+        containsIgnoreCase(sql, parameters, "MASK_PAN", "maskPan", maskPan);
+        if (minAmount != null) {
+            sql.append("SOURCE_AMOUNT >= :minAmount AND ");
+            parameters.put("minAmount", minAmount);
+        }
+        if (maxAmount != null) {
+            sql.append("SOURCE_AMOUNT <= :maxAmount AND ");
+            parameters.put("maxAmount", maxAmount);
+        }
+        if (lastDate == null || lastId == null) {
+            sql.append("TRANSACTION_DATE IS NOT NULL");
+        } else {
+            sql.append("TRANSACTION_DATE <= :lastDate AND (TRANSACTION_DATE < :lastDate OR ID < :lastId)");
+            parameters.put("lastDate", lastDate);
+            parameters.put("lastId", lastId);
+        }
+        sql.append(" ORDER BY TRANSACTION_DATE DESC, ID DESC");
+        if (limit != null) {
+            sql.append(" FETCH FIRST :limit ROWS ONLY");
+            parameters.put("limit", limit);
+        }
+        return query(sql.toString(), parameters);
+    }
+
+    private static void equalTo(StringBuilder sql, Map<String, Object> parameters, String column, String name,
+            String value) {
+        if (StringUtils.hasText(value)) {
+            sql.append(column).append(" = :").append(name).append(" AND ");
+            parameters.put(name, value.trim());
+        }
+    }
+
+    private static void containsIgnoreCase(StringBuilder sql, Map<String, Object> parameters, String column,
+            String name, String value) {
+        if (StringUtils.hasText(value)) {
+            sql.append("LOWER(").append(column).append(") LIKE :").append(name)
+                    .append(" ESCAPE '").append(TransactionSpecifications.LIKE_ESCAPE).append("' AND ");
+            parameters.put(name, TransactionSpecifications.containsPattern(value));
+        }
+    }
+
+    private Flux<Transaction> query(String sql, Map<String, Object> parameters) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+                .filter(statement -> statement.fetchSize(fetchSize));
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec.map(TransactionReactiveRepository::toTransaction).all();
+    }
+
+    private static Transaction toTransaction(Readable row) {
+        Transaction transaction = new Transaction();
+        transaction.setId(row.get("ID", Long.class));
+        transaction.setTransId(row.get("TRANS_ID", String.class));
+        transaction.setTerminalId(row.get("TERMINAL_ID", String.class));
+        transaction.setMerchantName(row.get("MERCHANT_NAME", String.class));
+        transaction.setSourceAmount(row.get("SOURCE_AMOUNT", BigDecimal.class));
+        transaction.setMerchantCommission(row.get("MERCHANT_COMMISSION", BigDecimal.class));
+        transaction.setTransactionDate(row.get("TRANSACTION_DATE", LocalDateTime.class));
+        transaction.setProcessingDate(row.get("PROCESSING_DATE", LocalDateTime.class));
+        transaction.setMaskPan(row.get("MASK_PAN", String.class));
+        transaction.setAuthorizationNumber(row.get("AUTHORIZATION_NUMBER", String.class));
+        transaction.setMerchantAccountNumber(row.get("MERCHANT_ACCOUNT_NUMBER", String.class));
+        transaction.setOutletCode(row.get("OUTLET_CODE", String.class));
+        return transaction;
+    }
+}
@@ -1,27 +1,68 @@
 package com.example.springbootcrudapi.repository;
 
+import com.example.springbootcrudapi.dto.DailyTransactionStats;
 import com.example.springbootcrudapi.entity.Transaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_CACHE_STORE_MODE;
 
 /**
  * Repository للتعامل مع بيانات المعاملات
  */
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionFilterRepository,
+        TransactionUpsertRepository, TransactionLookupRepository {
+
+    /**
+     * الصفحة الأولى من المعاملات مرتبة بالمفتاح (TRANSACTION_DATE, ID) تنازلياً
+     * تُستخدم أيضاً لآخر N معاملة: الحد يتحول إلى FETCH FIRST n ROWS ONLY
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.transactionDate IS NOT NULL " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findFirstPage(Pageable pageable);
+
+    /**
+     * الصفحة التالية بعد المؤشر (Keyset / Seek) بدون OFFSET
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.transactionDate <= :lastDate AND " +
+            "(t.transactionDate < :lastDate OR t.id < :lastId) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findPageAfter(@Param("lastDate") LocalDateTime lastDate,
+            @Param("lastId") Long lastId,
+            Pageable pageable);
+
+    /**
+     * قراءة المعاملات على دفعات حسب ID (لإعادة بناء الفهارس)
+     */
+    List<Transaction> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 
     /**
      * البحث عن معاملة بواسطة رقم المعاملة
      */
     Optional<Transaction> findByTransId(String transId);
 
+    /**
+     * أرقام المعاملات الموجودة من القائمة المحددة (للتحقق من التكرار في الدفعات)
+     */
+    @Query("SELECT t.transId FROM Transaction t WHERE t.transId IN :transIds")
+    List<String> findExistingTransIds(@Param("transIds") Collection<String> transIds);
+
     /**
      * البحث عن المعاملات بواسطة رقم الطرفية
      */
@@ -30,8 +71,15 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     /**
      * البحث عن المعاملات بواسطة اسم التاجر
      */
-    @Query("SELECT t FROM Transaction t WHERE LOWER(t.merchantName) LIKE LOWER(CONCAT('%', :merchantName, '%'))")
-    List<Transaction> findByMerchantNameContainingIgnoreCase(@Param("merchantName") String merchantName);
+    default List<Transaction> findByMerchantNameContainingIgnoreCase(String merchantName) {
+        return findByMerchantNameLike(TransactionSpecifications.containsPattern(merchantName));
+    }
+
+    /**
+     * البحث بنمط LIKE جاهز (بحروف صغيرة و ! كحرف هروب)
+     */
+    @Query("SELECT t FROM Transaction t WHERE LOWER(t.merchantName) LIKE :pattern ESCAPE '!'")
+    List<Transaction> findByMerchantNameLike(@Param("pattern") String pattern);
 
     /**
      * البحث عن المعاملات في فترة زمنية محددة
@@ -40,6 +88,31 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<Transaction> findByTransactionDateBetween(@Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
 
+    /**
+     * قراءة متدفقة لجميع أرقام المعاملات (لبناء فلتر أرقام المعاملات عند بدء التطبيق)
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t.transId FROM Transaction t WHERE t.transId IS NOT NULL")
+    Stream<String> streamAllTransIds();
+
+    /**
+     * قراءة المعاملات في فترة زمنية كـ Stream عبر JDBC cursor (للتصدير)
+     * يجب استهلاك الـ Stream داخل Transaction وإغلاقه بعد الانتهاء
+     * الـ hint (BYPASS) يغطي تنفيذ الاستعلام فقط، لذلك يضبط المستدعي CacheMode.IGNORE للـ Session أثناء قراءة الـ Stream
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.transactionDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY t.transactionDate, t.id")
+    Stream<Transaction> streamByTransactionDateBetween(@Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
     /**
      * البحث عن المعاملات بمبلغ أكبر من قيمة معينة
      */
@@ -73,59 +146,22 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<Transaction> findByOutletCode(String outletCode);
 
     /**
-     * حساب إجمالي المبلغ للمعاملات في تاريخ معين
+     * إجمالي المبلغ وعدد المعاملات في الفترة [from, to) باستعلام واحد
+     * المقارنة على العمود مباشرة حتى يمكن استخدام الفهرس على TRANSACTION_DATE
      */
-    @Query("SELECT SUM(t.sourceAmount) FROM Transaction t WHERE DATE(t.transactionDate) = DATE(:date)")
-    BigDecimal sumAmountByDate(@Param("date") LocalDateTime date);
+    @Query("SELECT new com.example.springbootcrudapi.dto.DailyTransactionStats(SUM(t.sourceAmount), COUNT(t)) " +
+            "FROM Transaction t WHERE t.transactionDate >= :from AND t.transactionDate < :to")
+    DailyTransactionStats sumAndCountBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
     /**
-     * عدد المعاملات في تاريخ معين
+     * أقدم تاريخ معاملة في الجدول
      */
-    @Query("SELECT COUNT(t) FROM Transaction t WHERE DATE(t.transactionDate) = DATE(:date)")
-    Long countTransactionsByDate(@Param("date") LocalDateTime date);
+    @Query("SELECT MIN(t.transactionDate) FROM Transaction t")
+    LocalDateTime findEarliestTransactionDate();
 
     /**
-     * البحث عن آخر المعاملات
+     * أحدث تاريخ معاملة في الجدول
      */
-    @Query("SELECT t FROM Transaction t ORDER BY t.transactionDate DESC")
-    List<Transaction> findLatestTransactions();
-
-    /**
-     * البحث الشامل في جميع حقول المعاملة
-     */
-    @Query("SELECT t FROM Transaction t WHERE " +
-            "LOWER(t.transId) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(t.terminalId) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(t.merchantName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(t.maskPan) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(t.authorizationNumber) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(t.merchantAccountNumber) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(t.outletCode) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "CAST(t.sourceAmount AS string) LIKE CONCAT('%', :query, '%') OR " +
-            "CAST(t.merchantCommission AS string) LIKE CONCAT('%', :query, '%')")
-    List<Transaction> searchAllFields(@Param("query") String query);
-
-    /**
-     * البحث بمعايير متعددة باستخدام query parameters منفصلة
-     */
-    @Query("SELECT t FROM Transaction t WHERE " +
-            "(:transId IS NULL OR LOWER(t.transId) LIKE LOWER(CONCAT('%', :transId, '%'))) AND " +
-            "(:terminalId IS NULL OR LOWER(t.terminalId) LIKE LOWER(CONCAT('%', :terminalId, '%'))) AND " +
-            "(:merchantName IS NULL OR LOWER(t.merchantName) LIKE LOWER(CONCAT('%', :merchantName, '%'))) AND " +
-            "(:maskPan IS NULL OR LOWER(t.maskPan) LIKE LOWER(CONCAT('%', :maskPan, '%'))) AND " +
-            "(:authorizationNumber IS NULL OR LOWER(t.authorizationNumber) LIKE LOWER(CONCAT('%', :authorizationNumber, '%'))) AND " +
-            "(:merchantAccountNumber IS NULL OR LOWER(t.merchantAccountNumber) LIKE LOWER(CONCAT('%', :merchantAccountNumber, '%'))) AND " +
-            "(:outletCode IS NULL OR LOWER(t.outletCode) LIKE LOWER(CONCAT('%', :outletCode, '%'))) AND " +
-            "(:minAmount IS NULL OR t.sourceAmount >= :minAmount) AND " +
-            "(:maxAmount IS NULL OR t.sourceAmount <= :maxAmount)")
-    List<Transaction> searchByMultipleCriteria(
-            @Param("transId") String transId,
-            @Param("terminalId") String terminalId,
-            @Param("merchantName") String merchantName,
-            @Param("maskPan") String maskPan,
-            @Param("authorizationNumber") String authorizationNumber,
-            @Param("merchantAccountNumber") String merchantAccountNumber,
-            @Param("outletCode") String outletCode,
-            @Param("minAmount") BigDecimal minAmount,
-            @Param("maxAmount") BigDecimal maxAmount);
+    @Query("SELECT MAX(t.transactionDate) FROM Transaction t")
+    LocalDateTime findLatestTransactionDate();
 }
@@ -0,0 +1,95 @@
+package com.example.springbootcrudapi.repository;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Specifications لبناء شروط البحث ديناميكياً
+ * كل دالة ترجع null إذا لم يتم تمرير القيمة، فلا يضاف الشرط للاستعلام
+ */
+public final class TransactionSpecifications {
+
+    static final char LIKE_ESCAPE = '!';
+
+    private TransactionSpecifications() {
+    }
+
+    /**
+     * مطابقة تامة (تستفيد من الفهرس على العمود)
+     */
+    public static Specification<Transaction> equalTo(String attribute, String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return (root, query, cb) -> cb.equal(root.get(attribute), trimmed);
+    }
+
+    /**
+     * بحث جزئي بدون حساسية لحالة الأحرف
+     */
+    public static Specification<Transaction> containsIgnoreCase(String attribute, String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        String pattern = containsPattern(value);
+        return (root, query, cb) -> cb.like(cb.lower(root.get(attribute)), pattern, LIKE_ESCAPE);
+    }
+
+    /**
+     * المبلغ أكبر من أو يساوي قيمة معينة
+     */
+    public static Specification<Transaction> amountAtLeast(BigDecimal minAmount) {
+        if (minAmount == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("sourceAmount"), minAmount);
+    }
+
+    /**
+     * المبلغ أقل من أو يساوي قيمة معينة
+     */
+    public static Specification<Transaction> amountAtMost(BigDecimal maxAmount) {
+        if (maxAmount == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("sourceAmount"), maxAmount);
+    }
+
+    /**
+     * تاريخ المعاملة داخل فترة زمنية (شاملة الطرفين)
+     */
+    public static Specification<Transaction> dateBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return (root, query, cb) -> cb.between(root.get("transactionDate"), startDate, endDate);
+    }
+
+    /**
+     * الصفوف التي تأتي بعد المؤشر بالترتيب (TRANSACTION_DATE, ID) التنازلي
+     */
+    public static Specification<Transaction> after(LocalDateTime lastDate, Long lastId) {
+        if (lastDate == null || lastId == null) {
+            return (root, query, cb) -> cb.isNotNull(root.get("transactionDate"));
+        }
+        // الشرط الأول (<=) يعطي نطاق بحث على الفهرس والثاني يستبعد الصفوف السابقة
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("transactionDate"), lastDate),
+                cb.or(cb.lessThan(root.get("transactionDate"), lastDate),
+                        cb.lessThan(root.get("id"), lastId)));
+    }
+
+    /**
+     * نمط LIKE للبحث الجزئي (أحرف صغيرة مع تهريب % و _ بالحرف LIKE_ESCAPE)
+     */
+    static String containsPattern(String value) {
+        return "%" + escapeLike(value.trim().toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.springbootcrudapi.repository;
+
+import com.example.springbootcrudapi.entity.TransactionTrigram;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository للفهرس المقلوب (trigrams) الخاص بالبحث الشامل
+ */
+@Repository
+public interface TransactionTrigramRepository extends JpaRepository<TransactionTrigram, TransactionTrigram.Key> {
+
+    /**
+     * المعاملات التي تحتوي على جميع المقاطع الثلاثية المطلوبة، بمعرف أقل من beforeId (صفحات تنازلية)
+     */
+    @Query("SELECT g.transactionId FROM TransactionTrigram g WHERE g.gram IN :grams " +
+            "AND g.transactionId < :beforeId " +
+            "GROUP BY g.transactionId HAVING COUNT(g.gram) = :gramCount " +
+            "ORDER BY g.transactionId DESC")
+    List<Long> findCandidateIds(@Param("grams") Collection<String> grams,
+            @Param("gramCount") long gramCount,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable);
+
+    /**
+     * المعاملات التي لديها مقطع يبدأ بالنص المطلوب (للبحث بأقل من 3 أحرف)، بمعرف أقل من beforeId
+     */
+    @Query("SELECT DISTINCT g.transactionId FROM TransactionTrigram g " +
+            "WHERE g.gram LIKE :pattern ESCAPE '!' AND g.transactionId < :beforeId " +
+            "ORDER BY g.transactionId DESC")
+    List<Long> findCandidateIdsByPrefix(@Param("pattern") String pattern,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable);
+
+    /**
+     * حذف جميع المقاطع الخاصة بمعاملة
+     */
+    @Modifying
+    @Query("DELETE FROM TransactionTrigram g WHERE g.transactionId = :transactionId")
+    int deleteByTransactionId(@Param("transactionId") Long transactionId);
+
+    /**
+     * حذف المقاطع الخاصة بمجموعة معاملات (بعد أرشفتها)
+     */
+    @Modifying
+    @Query("DELETE FROM TransactionTrigram g WHERE g.transactionId IN :transactionIds")
+    int deleteByTransactionIdIn(@Param("transactionIds") Collection<Long> transactionIds);
+}
@@ -0,0 +1,19 @@
+package com.example.springbootcrudapi.repository;
+
+import com.example.springbootcrudapi.entity.Transaction;
+
+import java.util.List;
+
+/**
+ * Repository fragment للإدخال المتكرر الآمن (idempotent) بالاعتماد على المفتاح الفريد TRANS_ID
+ */
+public interface TransactionUpsertRepository {
+
+    /**
+     * إدخال المعاملات غير الموجودة بأمر MERGE واحد (JDBC batch) للقائمة كاملة
+     * يتم تعيين ID لكل معاملة من TRANSACTION_SEQ قبل التنفيذ
+     *
+     * @return لكل معاملة: true إذا تم إدخالها، false إذا كان رقم المعاملة موجوداً مسبقاً
+     */
+    boolean[] insertMissing(List<Transaction> transactions);
+}
@@ -0,0 +1,139 @@
+package com.example.springbootcrudapi.repository;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * تنفيذ TransactionUpsertRepository بأمر MERGE ... WHEN NOT MATCHED THEN INSERT (Oracle و H2)
+ * إعادة إرسال نفس المعاملات لا تنفذ أي إدخال، والمفتاح الفريد UK_TXN_TRANS_ID يمنع التكرار عند التزامن
+ */
+public class TransactionUpsertRepositoryImpl implements TransactionUpsertRepository {
+
+    private static final String MERGE_SQL = "MERGE INTO MD_TRANSACTION_CURRENT t " +
+            "USING (SELECT CAST(? AS NUMBER(19)) AS ID, " +
+            "CAST(? AS VARCHAR2(50)) AS TRANS_ID, " +
+            "CAST(? AS VARCHAR2(20)) AS TERMINAL_ID, " +
+            "CAST(? AS VARCHAR2(100)) AS MERCHANT_NAME, " +
+            "CAST(? AS NUMBER(15,2)) AS SOURCE_AMOUNT, " +
+            "CAST(? AS NUMBER(15,2)) AS MERCHANT_COMMISSION, " +
+            "CAST(? AS TIMESTAMP) AS TRANSACTION_DATE, " +
+            "CAST(? AS TIMESTAMP) AS PROCESSING_DATE, " +
+            "CAST(? AS VARCHAR2(20)) AS MASK_PAN, " +
+            "CAST(? AS VARCHAR2(20)) AS AUTHORIZATION_NUMBER, " +
+            "CAST(? AS VARCHAR2(30)) AS MERCHANT_ACCOUNT_NUMBER, " +
+            "CAST(? AS VARCHAR2(20)) AS OUTLET_CODE FROM DUAL " +
+            "WHERE NOT EXISTS (SELECT 1 FROM MD_TRANSACTION_HISTORY h WHERE h.TRANS_ID = CAST(? AS VARCHAR2(50)))) s " +
+            "ON (t.TRANS_ID = s.TRANS_ID) " +
+            "WHEN NOT MATCHED THEN INSERT " +
+            "(ID, TRANS_ID, TERMINAL_ID, MERCHANT_NAME, SOURCE_AMOUNT, MERCHANT_COMMISSION, TRANSACTION_DATE, " +
+            "PROCESSING_DATE, MASK_PAN, AUTHORIZATION_NUMBER, MERCHANT_ACCOUNT_NUMBER, OUTLET_CODE) " +
+            "VALUES (s.ID, s.TRANS_ID, s.TERMINAL_ID, s.MERCHANT_NAME, s.SOURCE_AMOUNT, s.MERCHANT_COMMISSION, " +
+            "s.TRANSACTION_DATE, s.PROCESSING_DATE, s.MASK_PAN, s.AUTHORIZATION_NUMBER, " +
+            "s.MERCHANT_ACCOUNT_NUMBER, s.OUTLET_CODE)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public boolean[] insertMissing(List<Transaction> transactions) {
+        boolean[] inserted = new boolean[transactions.size()];
+        if (transactions.isEmpty()) {
+            return inserted;
+        }
+
+        // المعرفات من نفس مولد الـ Entity (pooled-lo) حتى لا تتعارض مع الإدخال عبر JPA
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Transaction.class).getGenerator();
+        for (Transaction transaction : transactions) {
+            transaction.setId((Long) generator.generate(session, transaction, null, EventType.INSERT));
+        }
+
+        int[] counts = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(MERGE_SQL)) {
+                for (Transaction transaction : transactions) {
+                    bind(statement, transaction);
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+
+        boolean countsKnown = true;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                countsKnown = false;
+                break;
+            }
+            inserted[i] = counts[i] > 0;
+        }
+        if (!countsKnown) {
+            // بعض الـ Drivers لا ترجع عدد الصفوف لكل أمر في الـ batch: المعرفات الجديدة الموجودة هي التي أُدخلت
+            Set<Long> ids = new HashSet<>(entityManager
+                    .createQuery("SELECT t.id FROM Transaction t WHERE t.id IN :ids", Long.class)
+                    .setParameter("ids", transactions.stream().map(Transaction::getId).toList())
+                    .getResultList());
+            for (int i = 0; i < inserted.length; i++) {
+                inserted[i] = ids.contains(transactions.get(i).getId());
+            }
+        }
+        return inserted;
+    }
+
+    private void bind(PreparedStatement statement, Transaction t) throws SQLException {
+        statement.setLong(1, t.getId());
+        setString(statement, 2, t.getTransId());
+        setString(statement, 3, t.getTerminalId());
+        setString(statement, 4, t.getMerchantName());
+        setDecimal(statement, 5, t.getSourceAmount());
+        setDecimal(statement, 6, t.getMerchantCommission());
+        setTimestamp(statement, 7, t.getTransactionDate());
+        setTimestamp(statement, 8, t.getProcessingDate());
+        setString(statement, 9, t.getMaskPan());
+        setString(statement, 10, t.getAuthorizationNumber());
+        setString(statement, 11, t.getMerchantAccountNumber());
+        setString(statement, 12, t.getOutletCode());
+        // رقم معاملة مؤرشفة يعتبر مكرراً أيضاً
+        setString(statement, 13, t.getTransId());
+    }
+
+    private void setString(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+
+    private void setDecimal(PreparedStatement statement, int index, BigDecimal value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.NUMERIC);
+        } else {
+            statement.setBigDecimal(index, value);
+        }
+    }
+
+    private void setTimestamp(PreparedStatement statement, int index, LocalDateTime value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.TIMESTAMP);
+        } else {
+            statement.setTimestamp(index, Timestamp.valueOf(value));
+        }
+    }
+}
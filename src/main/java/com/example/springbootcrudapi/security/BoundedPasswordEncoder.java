@@ -0,0 +1,149 @@
+package com.example.springbootcrudapi.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * تنفيذ encode و matches (BCrypt) على pool ثابت بعدد الأنوية بدلاً من threads الطلبات
+ * عدد عمليات BCrypt المتزامنة لا يتجاوز حجم الـ pool مهما زاد عدد طلبات الدخول، فتبقى بقية الـ endpoints سريعة
+ * عند امتلاء الطابور يتم رفض العملية مباشرة بـ PasswordHashingRejectedException (429)
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final String THREAD_PREFIX = "password-hash-";
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final int threads;
+
+    private final int queueCapacity;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity) {
+        this.delegate = delegate;
+        this.threads = Math.max(1, threads);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, THREAD_PREFIX + counter.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> task) {
+        // استدعاء من داخل الـ pool نفسه ينفذ مباشرة حتى لا ينتظر مكاناً في الطابور
+        if (Thread.currentThread().getName().startsWith(THREAD_PREFIX)) {
+            return call(task);
+        }
+
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitNanos.add(System.nanoTime() - submitted);
+                return call(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException(retryAfterSeconds());
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("تمت مقاطعة انتظار التحقق من كلمة المرور", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private <T> T call(Callable<T> task) {
+        long start = System.nanoTime();
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            hashNanos.add(System.nanoTime() - start);
+            completed.increment();
+        }
+    }
+
+    /**
+     * تقدير الوقت حتى يفرغ الطابور الحالي (بمتوسط زمن العملية)، ثانية واحدة على الأقل
+     */
+    private long retryAfterSeconds() {
+        long done = completed.sum();
+        double averageMillis = done > 0 ? hashNanos.sum() / 1e6 / done : 250;
+        double drainMillis = (executor.getQueue().size() / (double) threads + 1) * averageMillis;
+        return Math.max(1, (long) Math.ceil(drainMillis / 1000));
+    }
+
+    /**
+     * حجم الـ pool والطابور وعدد العمليات المرفوضة ومتوسط الانتظار والتنفيذ
+     */
+    public Map<String, Object> getStats() {
+        long done = completed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", threads);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("completed", done);
+        stats.put("rejected", rejected.sum());
+        stats.put("averageWaitMillis", done > 0 ? waitNanos.sum() / 1e6 / done : 0.0);
+        stats.put("averageHashMillis", done > 0 ? hashNanos.sum() / 1e6 / done : 0.0);
+        return stats;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.springbootcrudapi.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,7 +12,6 @@ import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -28,10 +28,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private JwtVerifier jwtVerifier;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private JwtPrincipalResolver jwtPrincipalResolver;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -42,15 +42,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // استخراج JWT Token من الطلب
             String jwt = parseJwt(request);
 
-            if (jwt != null && jwtUtil.validateToken(jwt)) {
+            // التحقق من التوقيع والصلاحية مرة واحدة (أو من الـ cache)
+            Claims claims = jwt != null ? jwtVerifier.verify(jwt) : null;
+
+            if (claims != null && claims.getSubject() != null) {
                 // استخراج اسم المستخدم من Token
-                String username = jwtUtil.extractUsername(jwt);
+                String username = claims.getSubject();
 
-                // تحميل تفاصيل المستخدم
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // المستخدم من الـ claims (stateless) أو من قاعدة البيانات، و null إذا تم إبطال Token
+                UserDetails userDetails = jwtPrincipalResolver.resolve(claims);
 
-                // التحقق من صحة Token مع تفاصيل المستخدم
-                if (jwtUtil.validateToken(jwt, userDetails)) {
+                if (userDetails != null) {
                     // إنشاء Authentication object
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
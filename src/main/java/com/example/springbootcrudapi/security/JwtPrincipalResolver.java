@@ -0,0 +1,65 @@
+package com.example.springbootcrudapi.security;
+
+import com.example.springbootcrudapi.entity.User;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+/**
+ * بناء المستخدم المصادق عليه من JWT Token تم التحقق منه
+ * في الوضع stateless يُبنى من الـ claims مباشرة بعد مقارنة رقم الإصدار في TokenVersionRegistry،
+ * وإلا (أو للـ tokens القديمة بدون رقم إصدار) يُحمّل من قاعدة البيانات كما كان
+ */
+@Component
+public class JwtPrincipalResolver {
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Value("${jwt.stateless.enabled:false}")
+    private boolean stateless;
+
+    /**
+     * المستخدم صاحب الـ token، أو null إذا تم إبطال الـ token أو كان المستخدم غير مفعل
+     */
+    public UserDetails resolve(Claims claims) {
+        String username = claims.getSubject();
+        if (username == null) {
+            return null;
+        }
+
+        Number version = claims.get(TokenVersionRegistry.VERSION_CLAIM, Number.class);
+        String role = claims.get("role", String.class);
+        if (stateless && version != null && role != null) {
+            return tokenVersionRegistry.isCurrent(username, version.longValue()) ? fromClaims(claims) : null;
+        }
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (!username.equals(userDetails.getUsername()) || !userDetails.isEnabled()) {
+            return null;
+        }
+        if (version != null && userDetails instanceof User user && user.getTokenVersion() != version.longValue()) {
+            return null;
+        }
+        return userDetails;
+    }
+
+    /**
+     * User غير مرتبط بـ JPA وبدون كلمة مرور، بنفس الحقول التي يستخدمها AuthController و JwtUtil
+     */
+    private static User fromClaims(Claims claims) {
+        User user = new User(claims.getSubject(), claims.get("email", String.class), "",
+                claims.get("fullName", String.class));
+        Number id = claims.get("id", Number.class);
+        user.setId(id != null ? id.longValue() : null);
+        user.setRole(User.Role.valueOf(claims.get("role", String.class)));
+        user.setTokenVersion(claims.get(TokenVersionRegistry.VERSION_CLAIM, Number.class).longValue());
+        return user;
+    }
+}
@@ -4,6 +4,7 @@ import com.example.springbootcrudapi.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -30,12 +31,19 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
+    private Key signingKey;
+
+    private JwtParser parser;
+
     /**
-     * إنشاء مفتاح التوقيع من السر
+     * إنشاء مفتاح التوقيع والـ parser مرة واحدة (الـ parser لا يتغير بعد build ويمكن مشاركته بين الـ threads)
      */
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     /**
@@ -51,6 +59,7 @@ public class JwtUtil {
             claims.put("email", user.getEmail());
             claims.put("fullName", user.getFullName());
             claims.put("role", user.getRole().name());
+            claims.put(TokenVersionRegistry.VERSION_CLAIM, user.getTokenVersion());
         }
 
         return createToken(claims, userDetails.getUsername());
@@ -65,7 +74,7 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -92,15 +101,11 @@ public class JwtUtil {
     }
 
     /**
-     * استخراج جميع المطالبات من Token
+     * استخراج جميع المطالبات من Token بعد التحقق من التوقيع وتاريخ الانتهاء
      */
-    private Claims extractAllClaims(String token) {
+    Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (ExpiredJwtException e) {
             logger.error("JWT token expired: {}", e.getMessage());
             throw e;
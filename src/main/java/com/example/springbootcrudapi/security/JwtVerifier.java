@@ -0,0 +1,125 @@
+package com.example.springbootcrudapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * التحقق من JWT Token مرة واحدة لكل طلب، مع cache محدود للـ tokens التي تم التحقق منها
+ * المفتاح SHA-256 للـ token (لا يتم حفظ الـ token نفسه)، وكل عنصر ينتهي عند exp الخاص به
+ */
+@Component
+public class JwtVerifier {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${jwt.cache.max-entries:10000}")
+    private long maxEntries;
+
+    private Cache<String, Claims> verified;
+
+    @PostConstruct
+    public void init() {
+        if (maxEntries <= 0) {
+            return;
+        }
+        verified = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * المطالبات إذا كان التوقيع صحيحاً والصلاحية لم تنته، أو null إذا كان الـ token غير صالح
+     */
+    public Claims verify(String token) {
+        if (verified == null) {
+            return parse(token);
+        }
+        String key = digest(token);
+        Claims claims = verified.getIfPresent(key);
+        if (claims != null) {
+            return claims;
+        }
+        claims = parse(token);
+        if (claims != null && claims.getExpiration() != null) {
+            verified.put(key, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * حجم الـ cache ونسبة الطلبات التي لم تحتج التحقق من التوقيع
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("maxEntries", maxEntries);
+        if (verified == null) {
+            return result;
+        }
+        CacheStats stats = verified.stats();
+        result.put("size", verified.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    private Claims parse(String token) {
+        try {
+            return jwtUtil.extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            // السبب تم تسجيله في JwtUtil
+            return null;
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 غير متاح", e);
+        }
+    }
+
+    /**
+     * مدة بقاء العنصر = الوقت المتبقي حتى exp، والقراءة لا تمدها
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
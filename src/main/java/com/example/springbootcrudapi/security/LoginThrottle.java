@@ -0,0 +1,124 @@
+package com.example.springbootcrudapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * تحديد عدد محاولات الدخول بـ token bucket لكل عنوان IP ولكل اسم مستخدم، قبل أي عملية BCrypt
+ * الـ buckets في cache محدود الحجم ويتم حذف غير المستخدم منها بعد فترة
+ */
+@Component
+public class LoginThrottle {
+
+    @Value("${login.throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${login.throttle.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${login.throttle.ip.refill-per-minute:60}")
+    private double ipRefillPerMinute;
+
+    @Value("${login.throttle.username.capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${login.throttle.username.refill-per-minute:5}")
+    private double usernameRefillPerMinute;
+
+    @Value("${login.throttle.max-keys:100000}")
+    private long maxKeys;
+
+    private Cache<String, TokenBucket> buckets;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMinutes(15))
+                .build();
+    }
+
+    /**
+     * حجز محاولة دخول
+     *
+     * @return 0 إذا سُمح بالمحاولة، وإلا عدد الثواني قبل المحاولة التالية (Retry-After)
+     */
+    public long tryAcquire(String usernameOrEmail, String clientIp) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        long waitNanos = 0;
+        if (clientIp != null) {
+            waitNanos = buckets.get("ip:" + clientIp, key -> new TokenBucket(ipCapacity, ipRefillPerMinute, now))
+                    .tryConsume(now);
+        }
+        if (waitNanos == 0 && usernameOrEmail != null) {
+            String key = "user:" + usernameOrEmail.trim().toLowerCase(Locale.ROOT);
+            waitNanos = buckets.get(key, k -> new TokenBucket(usernameCapacity, usernameRefillPerMinute, now))
+                    .tryConsume(now);
+        }
+        if (waitNanos == 0) {
+            allowed.increment();
+            return 0;
+        }
+        throttled.increment();
+        return Math.max(1, (long) Math.ceil(waitNanos / 1e9));
+    }
+
+    /**
+     * عدد المحاولات المسموحة والمرفوضة والمفاتيح الحالية
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("trackedKeys", buckets.estimatedSize());
+        stats.put("allowed", allowed.sum());
+        stats.put("throttled", throttled.sum());
+        return stats;
+    }
+
+    /**
+     * Token bucket: سعة قصوى ويمتلئ بمعدل ثابت
+     */
+    private static final class TokenBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        private TokenBucket(int capacity, double refillPerMinute, long now) {
+            this.capacity = Math.max(1, capacity);
+            this.tokensPerNano = refillPerMinute / TimeUnit.MINUTES.toNanos(1);
+            this.tokens = this.capacity;
+            this.lastRefill = now;
+        }
+
+        /**
+         * @return 0 إذا تم أخذ token، وإلا الوقت بالـ nanoseconds حتى يتوفر token
+         */
+        private synchronized long tryConsume(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return tokensPerNano > 0 ? (long) Math.ceil((1 - tokens) / tokensPerNano) : Long.MAX_VALUE;
+        }
+    }
+}
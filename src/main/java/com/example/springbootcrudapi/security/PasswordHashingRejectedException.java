@@ -0,0 +1,21 @@
+package com.example.springbootcrudapi.security;
+
+/**
+ * طابور تشفير كلمات المرور ممتلئ: يتم رفض الطلب (429) بدلاً من انتظار غير محدود
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(long retryAfterSeconds) {
+        super("الخادم مشغول بالتحقق من كلمات المرور، حاول مرة أخرى بعد " + retryAfterSeconds + " ثانية");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * الوقت المقترح قبل إعادة المحاولة (قيمة Retry-After)
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.springbootcrudapi.security;
+
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * التحقق من JWT Token لمسارات الواجهة التفاعلية (نفس قواعد JwtAuthenticationFilter و hasAnyRole('USER', 'ADMIN'))
+ * تحميل المستخدم (أو رقم إصداره في الوضع stateless) من قاعدة البيانات يتم على boundedElastic حتى لا يتوقف event loop الخاص بـ Netty
+ */
+@Component
+@ConditionalOnProperty(name = "reactive.server.enabled", havingValue = "true")
+public class ReactiveJwtAuthenticationFilter implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveJwtAuthenticationFilter.class);
+
+    private static final Set<String> ALLOWED_ROLES = Set.of("ROLE_USER", "ROLE_ADMIN");
+
+    @Autowired
+    private JwtVerifier jwtVerifier;
+
+    @Autowired
+    private JwtPrincipalResolver jwtPrincipalResolver;
+
+    @Override
+    @NonNull
+    public Mono<ServerResponse> filter(@NonNull ServerRequest request, @NonNull HandlerFunction<ServerResponse> next) {
+        String jwt = parseJwt(request);
+        Claims claims = jwt != null ? jwtVerifier.verify(jwt) : null;
+        if (claims == null || claims.getSubject() == null) {
+            return unauthorized();
+        }
+
+        Mono<UserDetails> user = Mono.fromCallable(() -> jwtPrincipalResolver.resolve(claims))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnError(e -> logger.error("Cannot set user authentication: {}", e.getMessage()))
+                .onErrorResume(e -> Mono.empty());
+
+        return user.flatMap(userDetails -> {
+                    if (!hasAllowedRole(userDetails)) {
+                        return error(403, "ممنوع الوصول", "ليس لديك صلاحية للوصول لهذا المورد");
+                    }
+                    return next.handle(request);
+                })
+                .switchIfEmpty(Mono.defer(ReactiveJwtAuthenticationFilter::unauthorized));
+    }
+
+    private static boolean hasAllowedRole(UserDetails userDetails) {
+        for (GrantedAuthority authority : userDetails.getAuthorities()) {
+            if (ALLOWED_ROLES.contains(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String parseJwt(ServerRequest request) {
+        String headerAuth = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+            return headerAuth.substring(7);
+        }
+        return null;
+    }
+
+    private static Mono<ServerResponse> unauthorized() {
+        return error(401, "خطأ في المصادقة", "فشل في المصادقة - تحقق من بيانات الدخول");
+    }
+
+    private static Mono<ServerResponse> error(int status, String error, String message) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("error", error);
+        response.put("message", message);
+        response.put("timestamp", System.currentTimeMillis());
+        return ServerResponse.status(status).bodyValue(response);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.springbootcrudapi.security;
+
+import com.example.springbootcrudapi.entity.User;
+import com.example.springbootcrudapi.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * رقم إصدار الـ tokens الحالي لكل مستخدم في الذاكرة، للتحقق من JWT بدون استعلام APP_USERS في كل طلب
+ * يُحمّل من قاعدة البيانات عند أول طلب للمستخدم، ويحدّثه UserService بعد نجاح الـ commit
+ * كل إدخال ينتهي بعد jwt.stateless.version-ttl-seconds ثم يُعاد تحميله، فالإبطال من instance آخر يصل خلال هذه المدة
+ * المستخدم المحذوف أو المعطل أو المقفل يحمل REVOKED فلا يقبل أي token له
+ */
+@Component
+public class TokenVersionRegistry {
+
+    /**
+     * اسم الـ claim الذي يحمل رقم الإصدار في الـ token
+     */
+    public static final String VERSION_CLAIM = "ver";
+
+    static final long REVOKED = -1L;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.stateless.version-ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${jwt.stateless.max-users:100000}")
+    private long maxUsers;
+
+    private ConcurrentMap<String, Long> versions;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        Cache<String, Long> cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        versions = cache.asMap();
+    }
+
+    /**
+     * هل الـ token الذي يحمل هذا الإصدار ما زال صالحاً للمستخدم
+     */
+    public boolean isCurrent(String username, long version) {
+        checks.increment();
+        Long current = versions.get(username);
+        if (current == null) {
+            current = load(username);
+        } else if (version > current) {
+            // token أحدث من المحفوظ (وأي token أحدث من REVOKED): تم التغيير من instance آخر
+            current = reload(username, current);
+        }
+        if (current == REVOKED || current != version) {
+            rejections.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * تسجيل الإصدار الجديد للمستخدم بعد نجاح الـ commit (القيم تؤخذ الآن وليس عند التنفيذ)
+     */
+    public void updateAfterCommit(User user) {
+        String username = user.getUsername();
+        long version = versionOf(user);
+        afterCommit(() -> versions.put(username, version));
+    }
+
+    /**
+     * إبطال كل tokens المستخدم بعد نجاح الـ commit (حذف المستخدم)
+     */
+    public void revokeAfterCommit(String username) {
+        afterCommit(() -> versions.put(username, REVOKED));
+    }
+
+    private long load(String username) {
+        loads.increment();
+        long version = userRepository.findByUsername(username)
+                .map(TokenVersionRegistry::versionOf)
+                .orElse(REVOKED);
+        // إذا سجل UserService إصداراً أثناء التحميل فهو الأحدث
+        Long existing = versions.putIfAbsent(username, version);
+        return existing != null ? existing : version;
+    }
+
+    private long reload(String username, long cached) {
+        loads.increment();
+        long version = userRepository.findByUsername(username)
+                .map(TokenVersionRegistry::versionOf)
+                .orElse(REVOKED);
+        // لا يتم استبدال قيمة سجلها UserService أثناء التحميل
+        versions.replace(username, cached, version);
+        return versions.getOrDefault(username, version);
+    }
+
+    private static long versionOf(User user) {
+        boolean active = user.isEnabled() && user.isAccountNonLocked()
+                && user.isAccountNonExpired() && user.isCredentialsNonExpired();
+        return active ? user.getTokenVersion() : REVOKED;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * إحصائيات التحقق من الإصدارات
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedUsers", versions.size());
+        stats.put("checks", checks.sum());
+        stats.put("loads", loads.sum());
+        stats.put("rejections", rejections.sum());
+        return stats;
+    }
+}
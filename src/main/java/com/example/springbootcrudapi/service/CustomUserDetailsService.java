@@ -2,17 +2,30 @@ package com.example.springbootcrudapi.service;
 
 import com.example.springbootcrudapi.entity.User;
 import com.example.springbootcrudapi.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * User Details Service للتعامل مع تحميل بيانات المستخدم للمصادقة
+ * مع cache محدود الحجم والمدة، المفتاح هو ما تم البحث به (اسم المستخدم أو الإيميل)
+ * ويتم حذف المستخدم من الـ cache بعد commit أي UserChangedEvent
  */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
@@ -22,19 +35,84 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Value("${user.details.cache.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${user.details.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private Cache<String, User> users;
+
+    private final LongAdder invalidations = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        if (maxEntries <= 0) {
+            return;
+        }
+        users = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
+        // المستخدم غير الموجود لا يتم حفظه في الـ cache
+        User user = users != null ? users.get(usernameOrEmail, this::load) : load(usernameOrEmail);
+        if (user == null) {
+            logger.error("User not found with username or email: {}", usernameOrEmail);
+            throw new UsernameNotFoundException("المستخدم غير موجود: " + usernameOrEmail);
+        }
+        return user;
+    }
+
+    /**
+     * حذف المستخدم المتغير من الـ cache بعد نجاح الـ commit (أو مباشرة إذا لم تكن هناك transaction)
+     * التحميل الجاري لنفس المفتاح ينتهي قبل الحذف، فلا تبقى نسخة قديمة بعده
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (users != null) {
+            users.invalidateAll(event.logins());
+            invalidations.increment();
+        }
+        logger.debug("User details evicted for user id: {}", event.userId());
+    }
+
+    /**
+     * نسبة الإصابة وزمن التحميل من قاعدة البيانات لتحديد حجم الـ cache
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("maxEntries", maxEntries);
+        result.put("ttlSeconds", ttlSeconds);
+        if (users == null) {
+            return result;
+        }
+        CacheStats stats = users.stats();
+        result.put("size", users.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("loads", stats.loadCount());
+        result.put("notFound", stats.loadFailureCount());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        result.put("totalLoadMillis", stats.totalLoadTime() / 1_000_000);
+        result.put("evictions", stats.evictionCount());
+        result.put("invalidations", invalidations.sum());
+        return result;
+    }
+
+    private User load(String usernameOrEmail) {
         logger.debug("Loading user by username or email: {}", usernameOrEmail);
 
         // البحث عن المستخدم بواسطة اسم المستخدم أو الإيميل
-        User user = userRepository.findByUsernameOrEmail(usernameOrEmail)
-                .orElseThrow(() -> {
-                    logger.error("User not found with username or email: {}", usernameOrEmail);
-                    return new UsernameNotFoundException("المستخدم غير موجود: " + usernameOrEmail);
-                });
-
-        logger.debug("User found: {}", user.getUsername());
+        User user = userRepository.findByUsernameOrEmail(usernameOrEmail).orElse(null);
+        if (user != null) {
+            logger.debug("User found: {}", user.getUsername());
+        }
         return user;
     }
 }
@@ -0,0 +1,256 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import com.example.springbootcrudapi.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * آخر N معاملة في الذاكرة مرتبة بالمفتاح (TRANSACTION_DATE, ID) تنازلياً
+ * القراءة بدون أقفال من نسخة ثابتة، والإضافة تستبدل النسخة بـ compare-and-set
+ * الترتيب بتاريخ المعاملة وليس بترتيب الإدخال، فالمعاملة المتأخرة بتاريخ قديم لا تُخرج معاملة أحدث منها
+ */
+@Component
+public class LatestTransactionsBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatestTransactionsBuffer.class);
+
+    /**
+     * نفس ترتيب الاستعلام: الأحدث أولاً ثم الـ ID الأكبر
+     */
+    private static final Comparator<Transaction> NEWEST_FIRST = Comparator
+            .comparing(Transaction::getTransactionDate, Comparator.reverseOrder())
+            .thenComparing(Transaction::getId, Comparator.reverseOrder());
+
+    private static final Transaction[] EMPTY = new Transaction[0];
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Value("${transaction.latest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${transaction.latest.size:100}")
+    private int capacity;
+
+    private final AtomicReference<Transaction[]> entries = new AtomicReference<>(EMPTY);
+
+    /**
+     * قبل التحميل الأول تذهب كل القراءات إلى قاعدة البيانات
+     */
+    private volatile boolean ready;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * تحميل آخر N معاملة من قاعدة البيانات بعد بدء التطبيق
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            logger.error("Latest transactions buffer seed failed, reads will use the database: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * إعادة التحميل من قاعدة البيانات (بعد تغييرات لا تمر عبر التطبيق)
+     * المعاملات المضافة أثناء التحميل تُدمج مع النتيجة ولا تضيع
+     */
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        ready = false;
+        Transaction[] before = entries.get();
+        List<Transaction> rows = transactionRepository.findFirstPage(PageRequest.of(0, capacity));
+
+        Transaction[] current;
+        Transaction[] loaded;
+        do {
+            current = entries.get();
+            loaded = EMPTY;
+            for (Transaction row : rows) {
+                loaded = insert(loaded, row);
+            }
+            // ما أضيف بعد بدء الاستعلام قد لا يظهر في نتيجته
+            Set<Transaction> previous = Collections.newSetFromMap(new IdentityHashMap<>());
+            previous.addAll(Arrays.asList(before));
+            for (Transaction transaction : current) {
+                if (!previous.contains(transaction)) {
+                    loaded = insert(loaded, transaction);
+                }
+            }
+        } while (!entries.compareAndSet(current, loaded));
+        ready = true;
+        logger.info("Latest transactions buffer loaded with {} transactions", rows.size());
+    }
+
+    /**
+     * آخر limit معاملة، أو Optional فارغ إذا لم يكن التحميل جاهزاً أو الحد أكبر من السعة
+     */
+    public Optional<List<Transaction>> latest(int limit) {
+        if (!ready || limit > capacity) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        Transaction[] snapshot = entries.get();
+        return Optional.of(List.of(Arrays.copyOf(snapshot, Math.min(limit, snapshot.length))));
+    }
+
+    /**
+     * إضافة معاملات جديدة بعد نجاح الـ commit
+     */
+    public void offerAfterCommit(Collection<Transaction> transactions) {
+        afterCommit(() -> offer(transactions));
+    }
+
+    /**
+     * استبدال معاملة معدلة بعد نجاح الـ commit (قد يتغير ترتيبها أو تخرج من آخر N)
+     */
+    public void replaceAfterCommit(Transaction transaction) {
+        afterCommit(() -> {
+            boolean wasPresent = remove(transaction.getId());
+            offer(List.of(transaction));
+            // معاملة خرجت من القائمة بعد التعديل قد تترك مكاناً لا نعرف من يملؤه بدون استعلام
+            if (wasPresent && !contains(transaction.getId())) {
+                reload();
+            }
+        });
+    }
+
+    /**
+     * حذف معاملة بعد نجاح الـ commit
+     */
+    public void removeAfterCommit(Long id) {
+        afterCommit(() -> {
+            if (remove(id)) {
+                reload();
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void offer(Collection<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            if (transaction.getTransactionDate() == null || transaction.getId() == null) {
+                continue;
+            }
+            Transaction[] current;
+            Transaction[] updated;
+            do {
+                current = entries.get();
+                updated = insert(current, transaction);
+            } while (updated != current && !entries.compareAndSet(current, updated));
+        }
+    }
+
+    /**
+     * نسخة جديدة مرتبة مع المعاملة، أو نفس النسخة إذا كانت المعاملة أقدم من آخر عنصر والقائمة ممتلئة
+     */
+    private Transaction[] insert(Transaction[] current, Transaction transaction) {
+        int position = Arrays.binarySearch(current, transaction, NEWEST_FIRST);
+        if (position >= 0) {
+            return current;
+        }
+        position = -position - 1;
+        if (position >= capacity) {
+            return current;
+        }
+        int length = Math.min(current.length + 1, capacity);
+        Transaction[] updated = new Transaction[length];
+        System.arraycopy(current, 0, updated, 0, position);
+        updated[position] = transaction;
+        System.arraycopy(current, position, updated, position + 1, length - position - 1);
+        return updated;
+    }
+
+    private boolean remove(Long id) {
+        Transaction[] current;
+        Transaction[] updated;
+        do {
+            current = entries.get();
+            int position = indexOf(current, id);
+            if (position < 0) {
+                return false;
+            }
+            updated = new Transaction[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, position);
+            System.arraycopy(current, position + 1, updated, position, updated.length - position);
+        } while (!entries.compareAndSet(current, updated));
+        return true;
+    }
+
+    private boolean contains(Long id) {
+        return indexOf(entries.get(), id) >= 0;
+    }
+
+    private static int indexOf(Transaction[] transactions, Long id) {
+        for (int i = 0; i < transactions.length; i++) {
+            if (transactions[i].getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * إحصائيات الاستخدام
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        stats.put("capacity", capacity);
+        stats.put("size", entries.get().length);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+}
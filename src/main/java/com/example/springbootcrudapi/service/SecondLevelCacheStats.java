@@ -0,0 +1,74 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.config.CacheConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * إحصائيات مناطق الـ Second-level cache (hits / misses / evictions) من JCache statistics
+ */
+@Component
+public class SecondLevelCacheStats {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecondLevelCacheStats.class);
+
+    private static final String[] ATTRIBUTES = {
+            "CacheGets", "CacheHits", "CacheMisses", "CacheHitPercentage", "CachePuts", "CacheRemovals",
+            "CacheEvictions"
+    };
+
+    @Autowired
+    private CacheManager hibernateCacheManager;
+
+    /**
+     * إحصائيات كل منطقة مع العدد التقريبي للعناصر
+     */
+    public Map<String, Object> getStats() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (String region : CacheConfig.REGIONS) {
+            Map<String, Object> regionStats = new LinkedHashMap<>();
+            Cache<Object, Object> cache = hibernateCacheManager.getCache(region);
+            regionStats.put("size", cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class).estimatedSize());
+            try {
+                ObjectName name = statisticsName(server, region);
+                if (name != null) {
+                    for (String attribute : ATTRIBUTES) {
+                        regionStats.put(attribute, server.getAttribute(name, attribute));
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Could not read cache statistics for region {}: {}", region, e.getMessage());
+            }
+            stats.put(region, regionStats);
+        }
+        return stats;
+    }
+
+    private ObjectName statisticsName(MBeanServer server, String region) throws Exception {
+        String manager = sanitize(hibernateCacheManager.getURI().toString());
+        Set<ObjectName> names = server.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null);
+        for (ObjectName name : names) {
+            if (manager.equals(name.getKeyProperty("CacheManager"))
+                    && sanitize(region).equals(name.getKeyProperty("Cache"))) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    private static String sanitize(String value) {
+        return value == null ? "" : value.replaceAll("[,:=\n]", ".");
+    }
+}
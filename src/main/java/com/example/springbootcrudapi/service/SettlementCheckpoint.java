@@ -0,0 +1,144 @@
+package com.example.springbootcrudapi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * نقطة الاستئناف لتحميل ملف تسوية: الأجزاء المكتملة ونطاق أيام المعاملات المحملة
+ * تُحفظ بجانب الملف (file.checkpoint) وتُهمل إذا تغير الملف أو إعدادات التقسيم
+ */
+final class SettlementCheckpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(SettlementCheckpoint.class);
+
+    private static final String SUFFIX = ".checkpoint";
+
+    private final Path path;
+    private final String signature;
+    private final BitSet completed = new BitSet();
+    private LocalDate from;
+    private LocalDate to;
+
+    private SettlementCheckpoint(Path path, String signature) {
+        this.path = path;
+        this.signature = signature;
+    }
+
+    /**
+     * تحميل نقطة الاستئناف إن وجدت وكانت لنفس الملف ونفس التقسيم
+     */
+    static SettlementCheckpoint open(Path file, String signature) {
+        SettlementCheckpoint checkpoint = new SettlementCheckpoint(
+                file.resolveSibling(file.getFileName() + SUFFIX), signature);
+        if (!Files.exists(checkpoint.path)) {
+            return checkpoint;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(checkpoint.path)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (!signature.equals(properties.getProperty("signature"))) {
+            logger.warn("Ignoring checkpoint {} because the file or chunking changed", checkpoint.path);
+            return checkpoint;
+        }
+        String chunks = properties.getProperty("completed", "");
+        if (!chunks.isBlank()) {
+            Arrays.stream(chunks.split(",")).mapToInt(Integer::parseInt).forEach(checkpoint.completed::set);
+        }
+        checkpoint.from = parseDate(properties.getProperty("from"));
+        checkpoint.to = parseDate(properties.getProperty("to"));
+        logger.info("Resuming from checkpoint {} with {} completed chunks", checkpoint.path,
+                checkpoint.completed.cardinality());
+        return checkpoint;
+    }
+
+    synchronized boolean isCompleted(int chunk) {
+        return completed.get(chunk);
+    }
+
+    /**
+     * تسجيل اكتمال جزء ثم الحفظ فوراً
+     */
+    synchronized void markCompleted(int chunk) {
+        completed.set(chunk);
+        save();
+    }
+
+    /**
+     * توسيع نطاق الأيام بعد كل دفعة، حتى لو فشل جزؤها لاحقاً، لأن الدفعات السابقة محفوظة في قاعدة البيانات
+     * يُحفظ فقط عند اتساع النطاق
+     */
+    synchronized void addDays(LocalDate dayFrom, LocalDate dayTo) {
+        boolean widened = false;
+        if (dayFrom != null && (from == null || dayFrom.isBefore(from))) {
+            from = dayFrom;
+            widened = true;
+        }
+        if (dayTo != null && (to == null || dayTo.isAfter(to))) {
+            to = dayTo;
+            widened = true;
+        }
+        if (widened) {
+            save();
+        }
+    }
+
+    synchronized LocalDate getFrom() {
+        return from;
+    }
+
+    synchronized LocalDate getTo() {
+        return to;
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete checkpoint {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void save() {
+        Properties properties = new Properties();
+        properties.setProperty("signature", signature);
+        properties.setProperty("completed", completed.stream().mapToObj(String::valueOf)
+                .collect(Collectors.joining(",")));
+        if (from != null) {
+            properties.setProperty("from", from.toString());
+            properties.setProperty("to", to.toString());
+        }
+
+        // الكتابة لملف مؤقت ثم الاستبدال حتى لا تبقى نقطة استئناف ناقصة عند التوقف المفاجئ
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, null);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        return value != null ? LocalDate.parse(value) : null;
+    }
+}
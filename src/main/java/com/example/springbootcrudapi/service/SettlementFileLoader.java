@@ -0,0 +1,368 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.dto.BatchIngestResponse;
+import com.example.springbootcrudapi.dto.BatchItemResult;
+import com.example.springbootcrudapi.dto.SettlementLoadReport;
+import com.example.springbootcrudapi.entity.Transaction;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * تحميل ملفات التسوية (CSV / Fixed-width) إلى MD_TRANSACTION_CURRENT
+ * الملف يُقسم إلى أجزاء على حدود الأسطر، كل جزء يُقرأ عبر memory mapping ويُحمل بالتوازي
+ * على دفعات JDBC، مع نقطة استئناف بعد كل جزء مكتمل
+ */
+@Service
+public class SettlementFileLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(SettlementFileLoader.class);
+
+    /**
+     * عدد تقارير التحميل المحفوظة للاستعلام عنها من الـ API
+     */
+    private static final int MAX_REPORTS = 50;
+
+    /**
+     * حجم القراءة عند البحث عن نهاية السطر حول حدود الأجزاء
+     */
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    @Autowired
+    private TransactionBatchService batchService;
+
+    @Autowired
+    private TransactionDailyRollupService dailyRollup;
+
+    @Value("${settlement.loader.directory:settlement}")
+    private String directory;
+
+    @Value("${settlement.loader.chunk-bytes:16777216}")
+    private long chunkBytes;
+
+    @Value("${settlement.loader.threads:4}")
+    private int threads;
+
+    @Value("${settlement.loader.batch-size:500}")
+    private int batchSize;
+
+    @Value("${settlement.loader.fixed-width.layout}")
+    private String fixedWidthLayout;
+
+    private final Map<String, SettlementLoadReport> reports = Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, SettlementLoadReport> eldest) {
+                    return size() > MAX_REPORTS;
+                }
+            });
+
+    private final Set<Path> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * تنفيذ طلبات التحميل من الـ API واحداً تلو الآخر
+     */
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor();
+
+    /**
+     * جزء من الملف بين موقعين على حدود الأسطر
+     */
+    private record Chunk(int index, long start, long end) {
+    }
+
+    /**
+     * جدولة تحميل ملف من مجلد ملفات التسوية (للـ API)
+     */
+    public SettlementLoadReport submit(String fileName, SettlementRecordParser.Format format) {
+        Path root = Paths.get(directory).toAbsolutePath().normalize();
+        Path file = root.resolve(fileName).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("ملف التسوية غير موجود: " + fileName);
+        }
+
+        SettlementLoadReport report = newReport(file, format);
+        jobExecutor.submit(() -> {
+            try {
+                load(file, format, report);
+            } catch (RuntimeException e) {
+                logger.error("Settlement load {} failed: {}", report.getJobId(), e.getMessage());
+            }
+        });
+        return report;
+    }
+
+    /**
+     * تحميل ملف بشكل متزامن (لسطر الأوامر)
+     */
+    public SettlementLoadReport load(Path file, SettlementRecordParser.Format format) {
+        Path normalized = file.toAbsolutePath().normalize();
+        SettlementLoadReport report = newReport(normalized, format);
+        load(normalized, format, report);
+        return report;
+    }
+
+    public SettlementLoadReport getReport(String jobId) {
+        return reports.get(jobId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    private SettlementLoadReport newReport(Path file, SettlementRecordParser.Format format) {
+        SettlementLoadReport report = new SettlementLoadReport(UUID.randomUUID().toString(), file.toString(),
+                format.name());
+        reports.put(report.getJobId(), report);
+        return report;
+    }
+
+    private void load(Path file, SettlementRecordParser.Format format, SettlementLoadReport report) {
+        if (!running.add(file)) {
+            report.addError("جاري تحميل الملف بالفعل");
+            report.finish(SettlementLoadReport.Status.FAILED);
+            throw new IllegalStateException("جاري تحميل الملف بالفعل: " + file);
+        }
+
+        ExecutorService workers = null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = 0;
+            SettlementRecordParser parser;
+            String layout;
+            if (format == SettlementRecordParser.Format.CSV) {
+                long headerEnd = nextLineStart(channel, 0, size);
+                layout = readHeader(channel, headerEnd);
+                parser = SettlementRecordParser.csv(layout);
+                dataStart = headerEnd;
+            } else {
+                layout = fixedWidthLayout;
+                parser = SettlementRecordParser.fixedWidth(layout);
+            }
+
+            long effectiveChunkBytes = Math.max(1, Math.min(chunkBytes, Integer.MAX_VALUE / 2));
+            List<Chunk> chunks = split(channel, dataStart, size, effectiveChunkBytes);
+            String signature = size + ":" + Files.getLastModifiedTime(file).toMillis() + ":" + format + ":"
+                    + effectiveChunkBytes + ":" + layout.hashCode();
+            SettlementCheckpoint checkpoint = SettlementCheckpoint.open(file, signature);
+
+            report.start(size - dataStart, chunks.size());
+            logger.info("Loading settlement file {} ({} bytes, {} chunks, {} threads)", file, size, chunks.size(),
+                    threads);
+
+            workers = Executors.newFixedThreadPool(Math.max(1, threads));
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (Chunk chunk : chunks) {
+                if (checkpoint.isCompleted(chunk.index())) {
+                    report.chunkSkipped(chunk.end() - chunk.start());
+                    continue;
+                }
+                futures.add(workers.submit(() -> loadChunk(channel, chunk, parser, checkpoint, report)));
+            }
+
+            boolean success = true;
+            for (Future<Boolean> future : futures) {
+                try {
+                    success &= future.get();
+                } catch (ExecutionException e) {
+                    success = false;
+                    logger.error("Settlement chunk failed: {}", e.getCause().getMessage());
+                    report.addError(e.getCause().getMessage());
+                }
+            }
+
+            // الإحصائيات اليومية تُعاد حسابها مرة واحدة للأيام المحملة بدلاً من MERGE متزامن من كل Thread
+            // النطاق يشمل دفعات الأجزاء التي فشلت بعد حفظ بعض دفعاتها
+            if (checkpoint.getFrom() != null) {
+                dailyRollup.rebuild(checkpoint.getFrom(), checkpoint.getTo());
+            }
+
+            if (success) {
+                checkpoint.delete();
+                report.finish(SettlementLoadReport.Status.COMPLETED);
+            } else {
+                report.finish(SettlementLoadReport.Status.FAILED);
+            }
+            logger.info("Settlement load {} {} - rows: {}, created: {}, duplicates: {}, invalid: {}, failed: {}, "
+                    + "{} rows/s", report.getJobId(), report.getStatus(), report.getRowsRead(), report.getCreated(),
+                    report.getDuplicates(), report.getInvalid(), report.getFailed(), report.getRowsPerSecond());
+        } catch (IOException e) {
+            report.addError(e.getMessage());
+            report.finish(SettlementLoadReport.Status.FAILED);
+            throw new UncheckedIOException("خطأ في قراءة ملف التسوية: " + file, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.addError("تم إيقاف التحميل");
+            report.finish(SettlementLoadReport.Status.FAILED);
+        } catch (RuntimeException e) {
+            report.addError(e.getMessage());
+            report.finish(SettlementLoadReport.Status.FAILED);
+            throw e;
+        } finally {
+            if (workers != null) {
+                workers.shutdownNow();
+            }
+            running.remove(file);
+        }
+    }
+
+    /**
+     * تحميل جزء واحد من الملف
+     *
+     * @return true إذا تم حفظ جميع سجلاته الصحيحة وتسجيله في نقطة الاستئناف
+     */
+    private boolean loadChunk(FileChannel channel, Chunk chunk, SettlementRecordParser parser,
+            SettlementCheckpoint checkpoint, SettlementLoadReport report) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(),
+                chunk.end() - chunk.start());
+        SettlementRecordParser.Scratch scratch = new SettlementRecordParser.Scratch();
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        boolean success = true;
+        long rows = 0;
+
+        int limit = buffer.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd;
+            if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+
+            if (contentEnd > lineStart) {
+                rows++;
+                try {
+                    batch.add(parser.parse(buffer, lineStart, contentEnd, scratch));
+                } catch (RuntimeException e) {
+                    report.addInvalidRecord(chunk.start() + lineStart, e.getMessage());
+                }
+                if (batch.size() >= batchSize) {
+                    success &= flush(batch, checkpoint, report);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        success &= flush(batch, checkpoint, report);
+        report.addRowsRead(rows);
+
+        if (success) {
+            checkpoint.markCompleted(chunk.index());
+        }
+        report.chunkCompleted(chunk.end() - chunk.start());
+        logger.info("Settlement load {}: chunk {}/{} done ({}%, {} rows/s)", report.getJobId(), chunk.index() + 1,
+                report.getTotalChunks(), Math.round(report.getPercentComplete()), report.getRowsPerSecond());
+        return success;
+    }
+
+    /**
+     * حفظ الدفعة الحالية وتحديث نطاق الأيام المحملة
+     *
+     * @return false إذا فشل حفظ بعض السجلات بسبب خطأ في قاعدة البيانات
+     */
+    private boolean flush(List<Transaction> batch, SettlementCheckpoint checkpoint, SettlementLoadReport report) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        LocalDate from = null;
+        LocalDate to = null;
+        for (Transaction transaction : batch) {
+            LocalDateTime date = transaction.getTransactionDate();
+            if (date != null) {
+                LocalDate day = date.toLocalDate();
+                from = from == null || day.isBefore(from) ? day : from;
+                to = to == null || day.isAfter(to) ? day : to;
+            }
+        }
+
+        BatchIngestResponse response;
+        try {
+            response = batchService.ingest(batch, false);
+        } finally {
+            // النطاق يُسجل حتى لو فشلت الدفعة، فإعادة الحساب لأيام إضافية لا تغير نتيجتها
+            checkpoint.addDays(from, to);
+        }
+        report.addBatch(response);
+        for (BatchItemResult result : response.getResults()) {
+            if (result.getStatus() == BatchItemResult.Status.INVALID
+                    || result.getStatus() == BatchItemResult.Status.FAILED) {
+                report.addError(result.getTransId() + ": " + result.getMessage());
+            }
+        }
+        batch.clear();
+        return response.getFailed() == 0;
+    }
+
+    /**
+     * تقسيم الملف إلى أجزاء بحجم تقريبي chunkBytes تنتهي دائماً بنهاية سطر
+     */
+    private List<Chunk> split(FileChannel channel, long dataStart, long size, long chunkBytes) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        long start = dataStart;
+        while (start < size) {
+            long end = start + chunkBytes >= size ? size : nextLineStart(channel, start + chunkBytes, size);
+            chunks.add(new Chunk(chunks.size(), start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * موقع بداية السطر التالي بعد position (أو نهاية الملف)
+     */
+    private long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long pos = position;
+        while (pos < size) {
+            buffer.clear();
+            int read = channel.read(buffer, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    private String readHeader(FileChannel channel, long headerEnd) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) headerEnd);
+        channel.read(buffer, 0);
+        return new String(buffer.array(), 0, (int) headerEnd, StandardCharsets.UTF_8).strip();
+    }
+}
@@ -0,0 +1,427 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * تحليل سجلات ملفات التسوية (CSV أو Fixed-width) مباشرة من الـ bytes
+ * المبالغ والتواريخ تُحلل بدون إنشاء String، والحقول النصية فقط تتحول إلى String
+ */
+public class SettlementRecordParser {
+
+    /**
+     * صيغ ملفات التسوية المدعومة
+     */
+    public enum Format {
+        CSV, FIXED;
+
+        public static Format from(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("صيغة ملف التسوية غير مدعومة: " + value);
+        }
+    }
+
+    /**
+     * أعمدة المعاملة التي يمكن تحميلها من الملف (بنفس أسماء خصائص Transaction وعناوين تصدير CSV)
+     */
+    enum Field {
+        TRANS_ID("transId"),
+        TERMINAL_ID("terminalId"),
+        MERCHANT_NAME("merchantName"),
+        SOURCE_AMOUNT("sourceAmount"),
+        MERCHANT_COMMISSION("merchantCommission"),
+        TRANSACTION_DATE("transactionDate"),
+        PROCESSING_DATE("processingDate"),
+        MASK_PAN("maskPan"),
+        AUTHORIZATION_NUMBER("authorizationNumber"),
+        MERCHANT_ACCOUNT_NUMBER("merchantAccountNumber"),
+        OUTLET_CODE("outletCode");
+
+        private final String columnName;
+
+        Field(String columnName) {
+            this.columnName = columnName;
+        }
+
+        static Field byName(String name) {
+            for (Field field : values()) {
+                if (field.columnName.equalsIgnoreCase(name)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * اسم الحقل الذي يتم تجاهله في تخطيط Fixed-width
+     */
+    private static final String FILLER = "filler";
+
+    /**
+     * أكبر عدد أرقام يمكن جمعه في long قبل التحويل إلى BigDecimal
+     */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /**
+     * ذاكرة مؤقتة لكل Thread يعاد استخدامها بين السجلات
+     */
+    public static final class Scratch {
+        private byte[] bytes = new byte[256];
+        private int[] starts = new int[32];
+        private int[] ends = new int[32];
+        private boolean[] quoted = new boolean[32];
+
+        private void ensureFields(int count) {
+            if (count >= starts.length) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+                ends = Arrays.copyOf(ends, ends.length * 2);
+                quoted = Arrays.copyOf(quoted, quoted.length * 2);
+            }
+        }
+
+        private byte[] bytes(int length) {
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            return bytes;
+        }
+    }
+
+    private final Format format;
+    private final Field[] fields;
+    private final int[] offsets;
+    private final int[] widths;
+
+    private SettlementRecordParser(Format format, Field[] fields, int[] offsets, int[] widths) {
+        this.format = format;
+        this.fields = fields;
+        this.offsets = offsets;
+        this.widths = widths;
+    }
+
+    /**
+     * إنشاء محلل CSV من سطر العناوين، الأعمدة غير المعروفة (مثل id) يتم تجاهلها
+     */
+    public static SettlementRecordParser csv(String headerLine) {
+        String header = headerLine.startsWith("﻿") ? headerLine.substring(1) : headerLine;
+        String[] names = header.split(",", -1);
+        Field[] fields = new Field[names.length];
+        for (int i = 0; i < names.length; i++) {
+            fields[i] = Field.byName(names[i].trim().replace("\"", ""));
+        }
+        requireColumns(fields);
+        return new SettlementRecordParser(Format.CSV, fields, null, null);
+    }
+
+    /**
+     * إنشاء محلل Fixed-width من تخطيط بالشكل name:width,name:width (العرض بالـ bytes)
+     */
+    public static SettlementRecordParser fixedWidth(String layout) {
+        List<Field> fields = new ArrayList<>();
+        List<Integer> widths = new ArrayList<>();
+        for (String slot : layout.split(",")) {
+            String[] parts = slot.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("تخطيط Fixed-width غير صحيح: " + slot);
+            }
+            String name = parts[0].trim();
+            Field field = Field.byName(name);
+            if (field == null && !FILLER.equalsIgnoreCase(name)) {
+                throw new IllegalArgumentException("حقل غير معروف في تخطيط Fixed-width: " + name);
+            }
+            fields.add(field);
+            widths.add(Integer.parseInt(parts[1].trim()));
+        }
+
+        Field[] fieldArray = fields.toArray(new Field[0]);
+        requireColumns(fieldArray);
+        int[] offsetArray = new int[widths.size()];
+        int[] widthArray = new int[widths.size()];
+        int offset = 0;
+        for (int i = 0; i < widths.size(); i++) {
+            offsetArray[i] = offset;
+            widthArray[i] = widths.get(i);
+            offset += widths.get(i);
+        }
+        return new SettlementRecordParser(Format.FIXED, fieldArray, offsetArray, widthArray);
+    }
+
+    private static void requireColumns(Field[] fields) {
+        List<Field> present = Arrays.asList(fields);
+        for (Field required : new Field[] { Field.TRANS_ID, Field.SOURCE_AMOUNT }) {
+            if (!present.contains(required)) {
+                throw new IllegalArgumentException("ملف التسوية لا يحتوي على العمود المطلوب: " + required.columnName);
+            }
+        }
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * تحليل سجل واحد بين الموقعين [start, end) في الـ buffer
+     */
+    public Transaction parse(ByteBuffer buffer, int start, int end, Scratch scratch) {
+        Transaction transaction = new Transaction();
+        if (format == Format.FIXED) {
+            for (int i = 0; i < fields.length; i++) {
+                int fieldStart = start + offsets[i];
+                if (fields[i] == null || fieldStart >= end) {
+                    continue;
+                }
+                apply(transaction, fields[i], buffer, fieldStart, Math.min(fieldStart + widths[i], end), false, scratch);
+            }
+            return transaction;
+        }
+
+        int count = splitCsv(buffer, start, end, scratch);
+        for (int i = 0; i < Math.min(count, fields.length); i++) {
+            if (fields[i] != null) {
+                apply(transaction, fields[i], buffer, scratch.starts[i], scratch.ends[i], scratch.quoted[i], scratch);
+            }
+        }
+        return transaction;
+    }
+
+    /**
+     * تحديد حدود حقول سطر CSV (RFC 4180 بدون أسطر جديدة داخل الحقول)
+     */
+    private int splitCsv(ByteBuffer buffer, int start, int end, Scratch scratch) {
+        int count = 0;
+        int pos = start;
+        while (true) {
+            scratch.ensureFields(count);
+            if (pos < end && buffer.get(pos) == '"') {
+                int fieldStart = pos + 1;
+                int p = fieldStart;
+                while (p < end) {
+                    if (buffer.get(p) == '"') {
+                        if (p + 1 < end && buffer.get(p + 1) == '"') {
+                            p += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    p++;
+                }
+                if (p >= end) {
+                    throw new IllegalArgumentException("علامة اقتباس غير مغلقة في الحقل رقم " + (count + 1));
+                }
+                scratch.starts[count] = fieldStart;
+                scratch.ends[count] = p;
+                scratch.quoted[count] = true;
+                pos = p + 1;
+                if (pos < end && buffer.get(pos) != ',') {
+                    throw new IllegalArgumentException("محتوى بعد علامة الاقتباس في الحقل رقم " + (count + 1));
+                }
+            } else {
+                int fieldStart = pos;
+                while (pos < end && buffer.get(pos) != ',') {
+                    pos++;
+                }
+                scratch.starts[count] = fieldStart;
+                scratch.ends[count] = pos;
+                scratch.quoted[count] = false;
+            }
+            count++;
+            if (pos >= end) {
+                return count;
+            }
+            pos++;
+        }
+    }
+
+    private void apply(Transaction t, Field field, ByteBuffer buffer, int start, int end, boolean quoted,
+            Scratch scratch) {
+        switch (field) {
+            case TRANS_ID -> t.setTransId(text(buffer, start, end, quoted, scratch));
+            case TERMINAL_ID -> t.setTerminalId(text(buffer, start, end, quoted, scratch));
+            case MERCHANT_NAME -> t.setMerchantName(text(buffer, start, end, quoted, scratch));
+            case SOURCE_AMOUNT -> t.setSourceAmount(decimal(buffer, start, end, field));
+            case MERCHANT_COMMISSION -> t.setMerchantCommission(decimal(buffer, start, end, field));
+            case TRANSACTION_DATE -> t.setTransactionDate(dateTime(buffer, start, end, field));
+            case PROCESSING_DATE -> t.setProcessingDate(dateTime(buffer, start, end, field));
+            case MASK_PAN -> t.setMaskPan(text(buffer, start, end, quoted, scratch));
+            case AUTHORIZATION_NUMBER -> t.setAuthorizationNumber(text(buffer, start, end, quoted, scratch));
+            case MERCHANT_ACCOUNT_NUMBER -> t.setMerchantAccountNumber(text(buffer, start, end, quoted, scratch));
+            case OUTLET_CODE -> t.setOutletCode(text(buffer, start, end, quoted, scratch));
+        }
+    }
+
+    private static String text(ByteBuffer buffer, int start, int end, boolean quoted, Scratch scratch) {
+        if (!quoted) {
+            while (start < end && buffer.get(start) == ' ') {
+                start++;
+            }
+            while (end > start && buffer.get(end - 1) == ' ') {
+                end--;
+            }
+        }
+        if (start == end) {
+            return null;
+        }
+
+        byte[] bytes = scratch.bytes(end - start);
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            bytes[length++] = b;
+            // "" داخل الحقل المقتبس تمثل علامة اقتباس واحدة
+            if (quoted && b == '"') {
+                i++;
+            }
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static BigDecimal decimal(ByteBuffer buffer, int start, int end, Field field) {
+        while (start < end && buffer.get(start) == ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+
+        int pos = start;
+        boolean negative = false;
+        if (buffer.get(pos) == '-' || buffer.get(pos) == '+') {
+            negative = buffer.get(pos) == '-';
+            pos++;
+        }
+
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; pos < end; pos++) {
+            byte b = buffer.get(pos);
+            if (b == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            if (b < '0' || b > '9') {
+                throw new IllegalArgumentException("قيمة رقمية غير صحيحة في الحقل " + field.columnName);
+            }
+            if (++digits > MAX_LONG_DIGITS) {
+                return new BigDecimal(ascii(buffer, start, end));
+            }
+            unscaled = unscaled * 10 + (b - '0');
+            if (scale >= 0) {
+                scale++;
+            }
+        }
+        if (digits == 0) {
+            throw new IllegalArgumentException("قيمة رقمية غير صحيحة في الحقل " + field.columnName);
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    /**
+     * التواريخ المقبولة: yyyy-MM-dd['T'| ]HH:mm[:ss[.fraction]] أو yyyy-MM-dd أو yyyyMMddHHmmss أو yyyyMMdd
+     */
+    private static LocalDateTime dateTime(ByteBuffer buffer, int start, int end, Field field) {
+        while (start < end && buffer.get(start) == ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        int length = end - start;
+        if (length == 0) {
+            return null;
+        }
+
+        try {
+            if (length == 8 || length == 14) {
+                int year = digits(buffer, start, 4);
+                int month = digits(buffer, start + 4, 2);
+                int day = digits(buffer, start + 6, 2);
+                if (length == 8) {
+                    return LocalDateTime.of(year, month, day, 0, 0);
+                }
+                return LocalDateTime.of(year, month, day, digits(buffer, start + 8, 2),
+                        digits(buffer, start + 10, 2), digits(buffer, start + 12, 2));
+            }
+
+            expect(buffer, start + 4, '-');
+            expect(buffer, start + 7, '-');
+            int year = digits(buffer, start, 4);
+            int month = digits(buffer, start + 5, 2);
+            int day = digits(buffer, start + 8, 2);
+            if (length == 10) {
+                return LocalDateTime.of(year, month, day, 0, 0);
+            }
+
+            byte separator = buffer.get(start + 10);
+            if (length < 16 || (separator != 'T' && separator != ' ')) {
+                throw new IllegalArgumentException();
+            }
+            expect(buffer, start + 13, ':');
+            int hour = digits(buffer, start + 11, 2);
+            int minute = digits(buffer, start + 14, 2);
+            int second = 0;
+            int nanos = 0;
+            if (length > 16) {
+                if (length < 19) {
+                    throw new IllegalArgumentException();
+                }
+                expect(buffer, start + 16, ':');
+                second = digits(buffer, start + 17, 2);
+            }
+            if (length > 19) {
+                expect(buffer, start + 19, '.');
+                int fractionDigits = length - 20;
+                if (fractionDigits < 1 || fractionDigits > 9) {
+                    throw new IllegalArgumentException();
+                }
+                nanos = digits(buffer, start + 20, fractionDigits);
+                for (int i = fractionDigits; i < 9; i++) {
+                    nanos *= 10;
+                }
+            }
+            return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("تاريخ غير صحيح في الحقل " + field.columnName + ": "
+                    + ascii(buffer, start, end));
+        }
+    }
+
+    private static int digits(ByteBuffer buffer, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                throw new IllegalArgumentException();
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static void expect(ByteBuffer buffer, int position, char expected) {
+        if (buffer.get(position) != expected) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private static String ascii(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
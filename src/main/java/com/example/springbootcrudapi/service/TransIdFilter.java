@@ -0,0 +1,320 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.repository.TransactionHistoryRepository;
+import com.example.springbootcrudapi.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Counting Bloom filter على أرقام المعاملات (TRANS_ID) محفوظ خارج الـ Heap، أمام التحقق من التكرار عند الإدخال
+ * الإجابة "غير موجود" تذهب مباشرة إلى MERGE، و"ربما موجود" فقط يتم التحقق منها بالاستعلام
+ * المفتاح الفريد و MERGE يبقيان الضمان الوحيد، والقراءة برقم المعاملة لا تعتمد على الفلتر
+ * العدادات بعرض 4 bits تسمح بالحذف، والعداد المشبع (15) لا يتم إنقاصه
+ */
+@Component
+public class TransIdFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransIdFilter.class);
+
+    private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(int[].class,
+            ByteOrder.nativeOrder());
+
+    private static final int COUNTERS_PER_WORD = 8;
+    private static final int COUNTER_MAX = 0xF;
+
+    /**
+     * أكبر عدد عدادات يمكن حفظه في ByteBuffer واحد
+     */
+    private static final long MAX_COUNTERS = (Integer.MAX_VALUE / Integer.BYTES) * (long) COUNTERS_PER_WORD;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionHistoryRepository historyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${transaction.trans-id-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${transaction.trans-id-filter.expected-insertions:5000000}")
+    private long expectedInsertions;
+
+    @Value("${transaction.trans-id-filter.fpp:0.01}")
+    private double targetFpp;
+
+    private ByteBuffer counters;
+    private long counterCount;
+    private int hashFunctions;
+
+    /**
+     * قبل اكتمال البناء كل الإجابات "ربما موجود" حتى لا تضيع معاملات لم تتم قراءتها بعد
+     */
+    private volatile boolean ready;
+
+    private final AtomicLong elements = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong definitelyAbsent = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private volatile long buildMillis;
+
+    @PostConstruct
+    void allocate() {
+        if (!enabled) {
+            return;
+        }
+        double bitsPerElement = -Math.log(targetFpp) / (Math.log(2) * Math.log(2));
+        long requested = (long) Math.ceil(Math.max(1, expectedInsertions) * bitsPerElement);
+        counterCount = Math.min(Math.max(requested, COUNTERS_PER_WORD), MAX_COUNTERS);
+        hashFunctions = Math.max(1, (int) Math.round(bitsPerElement * Math.log(2)));
+
+        long words = (counterCount + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD;
+        counters = ByteBuffer.allocateDirect((int) (words * Integer.BYTES));
+        logger.info("TransId filter allocated: {} counters, {} hash functions, {} bytes off-heap",
+                counterCount, hashFunctions, counters.capacity());
+    }
+
+    /**
+     * بناء الفلتر بقراءة متدفقة لجميع أرقام المعاملات بعد بدء التطبيق
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread builder = new Thread(this::build, "trans-id-filter-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        try {
+            long loaded = new TransactionTemplate(transactionManager).execute(status -> {
+                // المعاملات المؤرشفة جزء من البحث برقم المعاملة
+                return addAll(transactionRepository.streamAllTransIds())
+                        + addAll(historyRepository.streamAllTransIds());
+            });
+            buildMillis = System.currentTimeMillis() - start;
+            ready = true;
+            logger.info("TransId filter built from {} transactions in {} ms", loaded, buildMillis);
+        } catch (RuntimeException e) {
+            logger.error("TransId filter build failed, lookups will keep using the database: {}", e.getMessage());
+        }
+    }
+
+    private long addAll(Stream<String> transIds) {
+        long count = 0;
+        try (transIds) {
+            for (String transId : (Iterable<String>) transIds::iterator) {
+                add(transId);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * false تعني أن رقم المعاملة غير موجود بالتأكيد
+     */
+    public boolean mightContain(String transId) {
+        if (!enabled || !ready || transId == null) {
+            return true;
+        }
+        lookups.incrementAndGet();
+        long[] hashes = hash(transId);
+        for (int i = 0; i < hashFunctions; i++) {
+            if (counter(index(hashes, i)) == 0) {
+                definitelyAbsent.incrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * أرقام المعاملات الموجودة مسبقاً (في الجدول الحالي أو الأرشيف) من القائمة المحددة
+     * يتم الاستعلام فقط عن الأرقام التي أجاب عنها الفلتر بـ "ربما موجود"
+     */
+    public Set<String> findExisting(Collection<String> transIds) {
+        List<String> candidates = transIds.stream()
+                .filter(transId -> transId != null && mightContain(transId))
+                .distinct()
+                .toList();
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> existing = new HashSet<>(transactionRepository.findExistingTransIds(candidates));
+        if (existing.size() < candidates.size()) {
+            existing.addAll(historyRepository.findExistingTransIds(candidates));
+        }
+        if (ready) {
+            falsePositives.addAndGet(candidates.size() - existing.size());
+        }
+        return existing;
+    }
+
+    /**
+     * إضافة رقم معاملة (يتم استدعاؤها قبل الـ commit حتى لا يظهر الصف في قاعدة البيانات قبل الفلتر)
+     */
+    public void add(String transId) {
+        if (!enabled || transId == null) {
+            return;
+        }
+        long[] hashes = hash(transId);
+        for (int i = 0; i < hashFunctions; i++) {
+            increment(index(hashes, i));
+        }
+        elements.incrementAndGet();
+    }
+
+    /**
+     * حذف رقم معاملة بعد نجاح الـ commit فقط، حتى لا يعطي الفلتر "غير موجود" لصف ما زال موجوداً
+     */
+    public void removeAfterCommit(String transId) {
+        if (!enabled || transId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(transId);
+                }
+            });
+        } else {
+            remove(transId);
+        }
+    }
+
+    private void remove(String transId) {
+        // أثناء البناء قد لا يكون الصف المحذوف قد أُضيف بعد، لذلك يُتجاهل الحذف (زيادة طفيفة في الإيجابيات الكاذبة)
+        if (!ready) {
+            return;
+        }
+        long[] hashes = hash(transId);
+        for (int i = 0; i < hashFunctions; i++) {
+            decrement(index(hashes, i));
+        }
+        elements.decrementAndGet();
+    }
+
+    /**
+     * إحصائيات الفلتر: الحجم ونسبة الإيجابيات الكاذبة المتوقعة والفعلية
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        if (!enabled) {
+            return stats;
+        }
+        long n = Math.max(0, elements.get());
+        long absent = definitelyAbsent.get();
+        long fp = falsePositives.get();
+        stats.put("expectedInsertions", expectedInsertions);
+        stats.put("targetFpp", targetFpp);
+        stats.put("counters", counterCount);
+        stats.put("hashFunctions", hashFunctions);
+        stats.put("offHeapBytes", counters.capacity());
+        stats.put("approximateElements", n);
+        stats.put("estimatedFpp", Math.pow(1 - Math.exp(-(double) hashFunctions * n / counterCount), hashFunctions));
+        stats.put("lookups", lookups.get());
+        stats.put("definitelyAbsent", absent);
+        stats.put("falsePositives", fp);
+        stats.put("observedFpp", absent + fp == 0 ? 0.0 : (double) fp / (absent + fp));
+        stats.put("buildMillis", buildMillis);
+        return stats;
+    }
+
+    private long index(long[] hashes, int i) {
+        return Math.floorMod(hashes[0] + i * hashes[1], counterCount);
+    }
+
+    private int counter(long index) {
+        int word = (int) WORDS.getVolatile(counters, offset(index));
+        return (word >>> shift(index)) & COUNTER_MAX;
+    }
+
+    private void increment(long index) {
+        int offset = offset(index);
+        int shift = shift(index);
+        while (true) {
+            int word = (int) WORDS.getVolatile(counters, offset);
+            if (((word >>> shift) & COUNTER_MAX) == COUNTER_MAX) {
+                return;
+            }
+            if (WORDS.compareAndSet(counters, offset, word, word + (1 << shift))) {
+                return;
+            }
+        }
+    }
+
+    private void decrement(long index) {
+        int offset = offset(index);
+        int shift = shift(index);
+        while (true) {
+            int word = (int) WORDS.getVolatile(counters, offset);
+            int value = (word >>> shift) & COUNTER_MAX;
+            if (value == 0 || value == COUNTER_MAX) {
+                return;
+            }
+            if (WORDS.compareAndSet(counters, offset, word, word - (1 << shift))) {
+                return;
+            }
+        }
+    }
+
+    private static int offset(long index) {
+        return (int) (index / COUNTERS_PER_WORD) * Integer.BYTES;
+    }
+
+    private static int shift(long index) {
+        return (int) (index % COUNTERS_PER_WORD) * 4;
+    }
+
+    /**
+     * قيمتان مستقلتان لحساب k موقعاً بطريقة double hashing
+     */
+    private static long[] hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        long h1 = mix(h);
+        long h2 = mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+        return new long[] { h1, h2 };
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb93fe53ba4cdL;
+        return z ^ (z >>> 33);
+    }
+}
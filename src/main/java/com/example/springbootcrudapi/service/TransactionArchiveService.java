@@ -0,0 +1,202 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import com.example.springbootcrudapi.repository.TransactionHistoryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * أرشفة المعاملات القديمة من MD_TRANSACTION_CURRENT إلى MD_TRANSACTION_HISTORY على دفعات
+ * كل دفعة (حجز، INSERT-SELECT، DELETE) في transaction مستقل، لذلك التوقف في أي لحظة لا يترك صفاً مكرراً أو مفقوداً،
+ * والتشغيل التالي يكمل من الصفوف المتبقية بنفس الشرط بدون حفظ أي حالة
+ */
+@Service
+public class TransactionArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiveService.class);
+
+    /**
+     * الحد الأقصى لعناصر IN-list في Oracle
+     */
+    private static final int MAX_IN_LIST = 1000;
+
+    @Autowired
+    private TransactionHistoryRepository historyRepository;
+
+    @Autowired
+    private TransactionSearchIndex searchIndex;
+
+    @Autowired
+    private LatestTransactionsBuffer latestTransactions;
+
+    @Autowired
+    private TransactionChangeTracker changeTracker;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${transaction.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${transaction.archive.age-days:365}")
+    private int ageDays;
+
+    @Value("${transaction.archive.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${transaction.archive.pause-millis:200}")
+    private long pauseMillis;
+
+    @Value("${transaction.archive.max-duration-minutes:60}")
+    private long maxDurationMinutes;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    /**
+     * التشغيل المجدول (يومياً في وقت قليل الحركة بشكل افتراضي)
+     */
+    @Scheduled(cron = "${transaction.archive.cron:0 30 2 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        archive(LocalDate.now().minusDays(ageDays));
+    }
+
+    /**
+     * أرشفة كل المعاملات التي تاريخها قبل before
+     *
+     * @return عدد المعاملات المؤرشفة، أو -1 إذا كانت هناك أرشفة أخرى قيد التشغيل
+     */
+    public long archive(LocalDate before) {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Transaction archival already running, skipping");
+            return -1;
+        }
+
+        LocalDateTime cutoff = before.atStartOfDay();
+        int limit = Math.min(Math.max(chunkSize, 1), MAX_IN_LIST);
+        long deadline = System.currentTimeMillis() + maxDurationMinutes * 60_000;
+        long start = System.currentTimeMillis();
+        long archived = 0;
+        int chunks = 0;
+        boolean complete = false;
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        logger.info("Archiving transactions before {} in chunks of {}", cutoff, limit);
+
+        try {
+            while (true) {
+                LocalDateTime archivedAt = LocalDateTime.now();
+                List<Long> ids = template.execute(status -> archiveChunk(cutoff, limit, archivedAt));
+                if (ids.isEmpty()) {
+                    complete = true;
+                    break;
+                }
+                evict(ids);
+                changeTracker.recordBulkChange();
+                archived += ids.size();
+                chunks++;
+
+                // دفعة أصغر من الحد قد تعني صفوفاً محجوزة تم تخطيها، لذلك التوقف فقط عند دفعة فارغة
+                if (System.currentTimeMillis() > deadline) {
+                    logger.info("Transaction archival stopped after {} minutes, the next run continues",
+                            maxDurationMinutes);
+                    break;
+                }
+                // مهلة بين الدفعات حتى لا تستحوذ الأرشفة على الـ I/O وقفل الصفوف
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Transaction archival interrupted after {} transactions", archived);
+        } catch (RuntimeException e) {
+            logger.error("Transaction archival failed after {} transactions: {}", archived, e.getMessage());
+            throw e;
+        } finally {
+            if (archived > 0) {
+                latestTransactions.reload();
+            }
+            Map<String, Object> run = new LinkedHashMap<>();
+            run.put("before", before);
+            run.put("archived", archived);
+            run.put("chunks", chunks);
+            run.put("complete", complete);
+            run.put("elapsedMillis", System.currentTimeMillis() - start);
+            run.put("finishedAt", LocalDateTime.now());
+            lastRun = run;
+            running.set(false);
+        }
+
+        logger.info("Archived {} transactions before {} in {} chunks ({} ms)", archived, cutoff, chunks,
+                System.currentTimeMillis() - start);
+        return archived;
+    }
+
+    /**
+     * دفعة واحدة: حجز الصفوف (SKIP LOCKED)، نسخها للأرشيف، ثم حذفها من الجدول الحالي
+     * الإحصائيات اليومية لا تتغير لأنها تمثل المعاملات الحالية والمؤرشفة معاً
+     */
+    private List<Long> archiveChunk(LocalDateTime cutoff, int limit, LocalDateTime archivedAt) {
+        List<Long> ids = historyRepository.lockArchivable(cutoff, PageRequest.of(0, limit));
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        int copied = historyRepository.copyToHistory(ids, archivedAt);
+        if (copied != ids.size()) {
+            throw new IllegalStateException("Archived " + copied + " of " + ids.size() + " locked transactions");
+        }
+        searchIndex.removeAll(ids);
+        historyRepository.deleteFromCurrent(ids);
+        return ids;
+    }
+
+    /**
+     * حذف المعاملات المؤرشفة من الـ Second-level cache بعد الـ commit
+     * ربط رقم المعاملة بالـ ID في الـ natural-id cache يبقى حتى انتهاء صلاحيته ولا يؤثر لأن تحميل الـ ID يفشل
+     * ويتم البحث في الأرشيف
+     */
+    private void evict(List<Long> ids) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        for (Long id : ids) {
+            cache.evictEntityData(Transaction.class, id);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * نتيجة آخر تشغيل
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ageDays", ageDays);
+        stats.put("running", running.get());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+}
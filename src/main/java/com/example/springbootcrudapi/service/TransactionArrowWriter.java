@@ -0,0 +1,131 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * كتابة المعاملات بصيغة Arrow IPC stream على دفعات (record batches) بعدد صفوف ثابت
+ * الذاكرة المستخدمة بحجم دفعة واحدة فقط مهما كان عدد الصفوف
+ */
+public final class TransactionArrowWriter {
+
+    private static final ArrowType INT64 = new ArrowType.Int(64, true);
+    private static final ArrowType TIMESTAMP = new ArrowType.Timestamp(TimeUnit.MICROSECOND, null);
+
+    static final Schema SCHEMA = new Schema(List.of(
+            new Field("id", FieldType.notNullable(INT64), null),
+            text("transId"),
+            text("terminalId"),
+            text("merchantName"),
+            amount("sourceAmount"),
+            amount("merchantCommission"),
+            new Field("transactionDate", FieldType.nullable(TIMESTAMP), null),
+            new Field("processingDate", FieldType.nullable(TIMESTAMP), null),
+            text("maskPan"),
+            text("authorizationNumber"),
+            text("merchantAccountNumber"),
+            text("outletCode")));
+
+    private TransactionArrowWriter() {
+    }
+
+    /**
+     * @return عدد الصفوف المكتوبة
+     */
+    public static long write(Iterator<Transaction> iterator, OutputStream out, int batchRows) throws IOException {
+        long rows = 0;
+        try (BufferAllocator allocator = new RootAllocator();
+             VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+            ArrowStreamWriter writer = new ArrowStreamWriter(root, null, out);
+            writer.start();
+            while (iterator.hasNext()) {
+                root.allocateNew();
+                int count = 0;
+                while (count < batchRows && iterator.hasNext()) {
+                    setRow(root, count++, iterator.next());
+                }
+                root.setRowCount(count);
+                writer.writeBatch();
+                rows += count;
+            }
+            // بدون close() حتى لا يتم إغلاق الـ OutputStream الخاص بالاستجابة
+            writer.end();
+        }
+        out.flush();
+        return rows;
+    }
+
+    private static void setRow(VectorSchemaRoot root, int row, Transaction t) {
+        ((BigIntVector) root.getVector(0)).setSafe(row, t.getId());
+        setText(root, 1, row, t.getTransId());
+        setText(root, 2, row, t.getTerminalId());
+        setText(root, 3, row, t.getMerchantName());
+        setAmount(root, 4, row, t.getSourceAmount());
+        setAmount(root, 5, row, t.getMerchantCommission());
+        setTimestamp(root, 6, row, t.getTransactionDate());
+        setTimestamp(root, 7, row, t.getProcessingDate());
+        setText(root, 8, row, t.getMaskPan());
+        setText(root, 9, row, t.getAuthorizationNumber());
+        setText(root, 10, row, t.getMerchantAccountNumber());
+        setText(root, 11, row, t.getOutletCode());
+    }
+
+    private static void setText(VectorSchemaRoot root, int column, int row, String value) {
+        VarCharVector vector = (VarCharVector) root.getVector(column);
+        if (value == null) {
+            vector.setNull(row);
+        } else {
+            vector.setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void setAmount(VectorSchemaRoot root, int column, int row, BigDecimal value) {
+        BigIntVector vector = (BigIntVector) root.getVector(column);
+        if (value == null) {
+            vector.setNull(row);
+        } else {
+            vector.setSafe(row, TransactionExportService.scaledAmount(value));
+        }
+    }
+
+    private static void setTimestamp(VectorSchemaRoot root, int column, int row, LocalDateTime value) {
+        TimeStampMicroVector vector = (TimeStampMicroVector) root.getVector(column);
+        if (value == null) {
+            vector.setNull(row);
+        } else {
+            vector.setSafe(row, TransactionExportService.epochMicros(value));
+        }
+    }
+
+    private static Field text(String name) {
+        return new Field(name, FieldType.nullable(ArrowType.Utf8.INSTANCE), null);
+    }
+
+    /**
+     * المبلغ كـ int64 بوحدة 10^-scale، والـ scale محفوظ في metadata الحقل
+     */
+    private static Field amount(String name) {
+        return new Field(name, new FieldType(true, INT64, null,
+                Map.of("scale", String.valueOf(TransactionExportService.AMOUNT_SCALE))), null);
+    }
+}
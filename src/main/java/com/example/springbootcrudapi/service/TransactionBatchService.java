@@ -0,0 +1,289 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.dto.BatchIngestResponse;
+import com.example.springbootcrudapi.dto.BatchItemResult;
+import com.example.springbootcrudapi.entity.Transaction;
+import com.example.springbootcrudapi.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Batch Service للإدخال الجماعي للمعاملات
+ * يتم الحفظ على دفعات (chunks) كل دفعة في Transaction مستقلة بأمر MERGE واحد (JDBC batch)
+ * يتجاهل أرقام المعاملات الموجودة مسبقاً
+ */
+@Service
+public class TransactionBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionBatchService.class);
+
+    /**
+     * الحد الأقصى لعناصر IN-list في Oracle
+     */
+    private static final int MAX_IN_LIST = 1000;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionSearchIndex searchIndex;
+
+    @Autowired
+    private TransactionDailyRollupService dailyRollup;
+
+    @Autowired
+    private TransIdFilter transIdFilter;
+
+    @Autowired
+    private LatestTransactionsBuffer latestTransactions;
+
+    @Autowired
+    private TransactionChangeTracker changeTracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${transaction.batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${transaction.batch.max-items:10000}")
+    private int maxItems;
+
+    /**
+     * عنصر في الطلب مع ترتيبه الأصلي
+     */
+    private record Item(int index, Transaction transaction) {
+    }
+
+    /**
+     * إدخال المعاملات القادمة من الطلب دفعة بدفعة
+     */
+    public BatchIngestResponse ingest(Iterator<Transaction> items) {
+        return ingest(items, maxItems, true);
+    }
+
+    /**
+     * إدخال قائمة معاملات جاهزة (مثل ملفات التسوية)
+     * عند updateRollup=false لا يتم تحديث الإحصائيات اليومية ويجب على المستدعي إعادة بنائها
+     */
+    public BatchIngestResponse ingest(List<Transaction> transactions, boolean updateRollup) {
+        return ingest(transactions.iterator(), Integer.MAX_VALUE, updateRollup);
+    }
+
+    private BatchIngestResponse ingest(Iterator<Transaction> items, int limit, boolean updateRollup) {
+        BatchIngestResponse response = new BatchIngestResponse();
+        int size = Math.max(1, Math.min(chunkSize, MAX_IN_LIST));
+        List<Item> chunk = new ArrayList<>(size);
+        int index = 0;
+
+        try {
+            while (items.hasNext()) {
+                if (index >= limit) {
+                    response.setError("تم تجاوز الحد الأقصى لعدد العناصر في الطلب: " + limit);
+                    break;
+                }
+                Transaction transaction = items.next();
+                chunk.add(new Item(index++, transaction));
+                if (chunk.size() == size) {
+                    processChunk(chunk, response, updateRollup);
+                    chunk.clear();
+                }
+            }
+        } catch (RuntimeException e) {
+            // خطأ في قراءة العنصر التالي من الطلب (JSON غير صحيح)
+            logger.error("Error reading batch item {}: {}", index, e.getMessage());
+            response.setError("خطأ في قراءة العنصر رقم " + index + ": " + e.getMessage());
+        }
+
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, response, updateRollup);
+        }
+
+        logger.debug("Batch ingest finished - total: {}, created: {}, duplicates: {}, invalid: {}, failed: {}",
+                response.getTotal(), response.getCreated(), response.getDuplicates(),
+                response.getInvalid(), response.getFailed());
+        return response;
+    }
+
+    /**
+     * معالجة دفعة واحدة في Transaction مستقلة
+     */
+    private void processChunk(List<Item> chunk, BatchIngestResponse response, boolean updateRollup) {
+        BatchItemResult[] results = new BatchItemResult[chunk.size()];
+        List<Integer> candidates = new ArrayList<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            Item item = chunk.get(i);
+            String error = validate(item.transaction());
+            if (error != null) {
+                results[i] = result(item, BatchItemResult.Status.INVALID, error);
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        if (!candidates.isEmpty()) {
+            saveCandidates(chunk, candidates, results, updateRollup);
+        }
+
+        for (BatchItemResult result : results) {
+            response.addResult(result);
+        }
+    }
+
+    /**
+     * حفظ العناصر الصحيحة في Transaction مستقلة
+     * عند تعارض المفتاح الفريد مع إدخال متزامن تعاد المحاولة مرة واحدة فيظهر العنصر كمكرر
+     */
+    private void saveCandidates(List<Item> chunk, List<Integer> candidates, BatchItemResult[] results,
+            boolean updateRollup) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                template.executeWithoutResult(status -> mergeCandidates(chunk, candidates, results, updateRollup));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt < 2) {
+                    logger.debug("Concurrent insert in batch chunk starting at item {}, retrying",
+                            chunk.get(0).index());
+                    continue;
+                }
+                markFailed(chunk, candidates, results, e);
+                return;
+            } catch (RuntimeException e) {
+                markFailed(chunk, candidates, results, e);
+                return;
+            }
+        }
+    }
+
+    private void markFailed(List<Item> chunk, List<Integer> candidates, BatchItemResult[] results,
+            RuntimeException e) {
+        logger.error("Batch chunk starting at item {} failed: {}", chunk.get(0).index(), e.getMessage());
+        for (int i : candidates) {
+            results[i] = result(chunk.get(i), BatchItemResult.Status.FAILED, "فشل حفظ الدفعة: " + e.getMessage());
+        }
+    }
+
+    /**
+     * إدخال المعاملات غير الموجودة بأمر MERGE واحد للدفعة، ما يطابق TRANS_ID موجود يعتبر مكرراً
+     */
+    private void mergeCandidates(List<Item> chunk, List<Integer> candidates, BatchItemResult[] results,
+            boolean updateRollup) {
+        // الاستعلام فقط عن أرقام المعاملات التي أجاب عنها الفلتر بـ "ربما موجود"
+        Set<String> existing = transIdFilter.findExisting(candidates.stream()
+                .map(i -> chunk.get(i).transaction().getTransId())
+                .toList());
+        Set<String> seen = new HashSet<>();
+        List<Integer> merged = new ArrayList<>();
+        List<Transaction> toMerge = new ArrayList<>();
+        for (int i : candidates) {
+            Transaction transaction = chunk.get(i).transaction();
+            if (existing.contains(transaction.getTransId()) || !seen.add(transaction.getTransId())) {
+                results[i] = duplicate(chunk.get(i));
+                continue;
+            }
+            TransactionService.applyDefaults(transaction);
+            toMerge.add(transaction);
+            merged.add(i);
+        }
+
+        boolean[] inserted = transactionRepository.insertMissing(toMerge);
+
+        List<Transaction> created = new ArrayList<>();
+        for (int k = 0; k < inserted.length; k++) {
+            Item item = chunk.get(merged.get(k));
+            if (inserted[k]) {
+                created.add(item.transaction());
+                transIdFilter.add(item.transaction().getTransId());
+                results[merged.get(k)] = new BatchItemResult(item.index(), item.transaction().getTransId(),
+                        BatchItemResult.Status.CREATED, item.transaction().getId(), null);
+            } else {
+                results[merged.get(k)] = duplicate(item);
+            }
+        }
+
+        if (created.isEmpty()) {
+            return;
+        }
+        searchIndex.indexAll(created);
+        latestTransactions.offerAfterCommit(created);
+        changeTracker.recordChangesAfterCommit(created);
+        if (updateRollup) {
+            dailyRollup.addAll(created);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * التحقق من صحة عنصر قبل الحفظ
+     *
+     * @return رسالة الخطأ أو null إذا كان العنصر صحيحاً
+     */
+    private String validate(Transaction transaction) {
+        if (transaction == null) {
+            return "العنصر فارغ";
+        }
+        if (transaction.getTransId() == null || transaction.getTransId().isBlank()) {
+            return "رقم المعاملة مطلوب";
+        }
+        if (transaction.getSourceAmount() == null) {
+            return "مبلغ المعاملة مطلوب";
+        }
+        String lengthError = checkLength("transId", transaction.getTransId(), 50);
+        if (lengthError == null) {
+            lengthError = checkLength("terminalId", transaction.getTerminalId(), 20);
+        }
+        if (lengthError == null) {
+            lengthError = checkLength("merchantName", transaction.getMerchantName(), 100);
+        }
+        if (lengthError == null) {
+            lengthError = checkLength("maskPan", transaction.getMaskPan(), 20);
+        }
+        if (lengthError == null) {
+            lengthError = checkLength("authorizationNumber", transaction.getAuthorizationNumber(), 20);
+        }
+        if (lengthError == null) {
+            lengthError = checkLength("merchantAccountNumber", transaction.getMerchantAccountNumber(), 30);
+        }
+        if (lengthError == null) {
+            lengthError = checkLength("outletCode", transaction.getOutletCode(), 20);
+        }
+        return lengthError;
+    }
+
+    private String checkLength(String field, String value, int maxLength) {
+        if (value != null && value.length() > maxLength) {
+            return "طول الحقل " + field + " يتجاوز " + maxLength + " حرف";
+        }
+        return null;
+    }
+
+    private BatchItemResult duplicate(Item item) {
+        return result(item, BatchItemResult.Status.DUPLICATE,
+                "رقم المعاملة موجود بالفعل: " + item.transaction().getTransId());
+    }
+
+    private BatchItemResult result(Item item, BatchItemResult.Status status, String message) {
+        String transId = item.transaction() != null ? item.transaction().getTransId() : null;
+        return new BatchItemResult(item.index(), transId, status, null, message);
+    }
+}
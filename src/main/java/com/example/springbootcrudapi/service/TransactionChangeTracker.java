@@ -0,0 +1,118 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * أرقام إصدار للمعاملات تتغير بعد كل commit يعدلها، وتُستخدم كـ ETag بدلاً من hash للنتيجة
+ * رقم عام لكل التغييرات ورقم لكل طرفية، والتغييرات الجماعية (أرشفة، حذف partition، إعادة بناء الإحصائيات)
+ * تغير أرقام كل الطرفيات. الأرقام في الذاكرة وتبدأ ببادئة وقت التشغيل حتى لا تتكرر بعد إعادة التشغيل
+ * التغييرات من instance آخر لا تصل إلى هذه الأرقام، لذلك تصلح لـ instance واحد فقط (transaction.etag.enabled)
+ */
+@Component
+public class TransactionChangeTracker {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final Map<String, Long> terminalVersions = new ConcurrentHashMap<>();
+
+    /**
+     * رقم آخر تغيير جماعي، وهو الحد الأدنى لرقم أي طرفية
+     */
+    private final AtomicLong bulkVersion = new AtomicLong();
+
+    /**
+     * إصدار كل المعاملات (أي تغيير)
+     */
+    public String getVersion() {
+        return epoch + "-" + version.get();
+    }
+
+    /**
+     * إصدار معاملات طرفية واحدة
+     */
+    public String getTerminalVersion(String terminalId) {
+        long terminal = terminalId != null ? terminalVersions.getOrDefault(terminalId, 0L) : 0L;
+        return epoch + "-" + Math.max(terminal, bulkVersion.get());
+    }
+
+    /**
+     * تسجيل تغيير معاملات طرفية بعد نجاح الـ commit
+     */
+    public void recordChangeAfterCommit(String terminalId) {
+        afterCommit(() -> record(next(), terminalId));
+    }
+
+    /**
+     * تسجيل تغيير لا يمس قوائم الطرفيات (مثل إعادة حساب الإحصائيات اليومية)
+     */
+    public void recordChangeAfterCommit() {
+        afterCommit(this::next);
+    }
+
+    /**
+     * تسجيل تغيير مجموعة معاملات بعد نجاح الـ commit (رقم إصدار واحد للمجموعة)
+     */
+    public void recordChangesAfterCommit(Collection<Transaction> transactions) {
+        afterCommit(() -> {
+            long current = next();
+            for (Transaction transaction : transactions) {
+                record(current, transaction.getTerminalId());
+            }
+        });
+    }
+
+    /**
+     * تسجيل تغيير قد يمس أي طرفية
+     */
+    public void recordBulkChange() {
+        afterCommit(() -> {
+            long current = next();
+            bulkVersion.accumulateAndGet(current, Math::max);
+        });
+    }
+
+    private void record(long current, String terminalId) {
+        if (terminalId != null) {
+            terminalVersions.merge(terminalId, current, Math::max);
+        }
+    }
+
+    private long next() {
+        return version.incrementAndGet();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * إحصائيات الإصدارات
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("version", getVersion());
+        stats.put("bulkVersion", bulkVersion.get());
+        stats.put("trackedTerminals", terminalVersions.size());
+        return stats;
+    }
+}
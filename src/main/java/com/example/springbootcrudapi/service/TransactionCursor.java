@@ -0,0 +1,67 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.entity.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * مؤشر الصفحة (Keyset Cursor) على المفتاح (TRANSACTION_DATE, ID)
+ * يتم تمريره للعميل كنص مشفر Base64 ولا يجب أن يعتمد العميل على محتواه
+ */
+public final class TransactionCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime transactionDate;
+    private final Long id;
+
+    public TransactionCursor(LocalDateTime transactionDate, Long id) {
+        this.transactionDate = transactionDate;
+        this.id = id;
+    }
+
+    /**
+     * إنشاء مؤشر من آخر معاملة في الصفحة
+     */
+    public static TransactionCursor of(Transaction transaction) {
+        return new TransactionCursor(transaction.getTransactionDate(), transaction.getId());
+    }
+
+    /**
+     * تحويل المؤشر إلى نص مشفر
+     */
+    public String encode() {
+        String raw = transactionDate.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * فك تشفير المؤشر القادم من العميل
+     */
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+            if (separatorIndex <= 0) {
+                throw new IllegalArgumentException("مؤشر الصفحة غير صحيح: " + cursor);
+            }
+            LocalDateTime transactionDate = LocalDateTime.parse(raw.substring(0, separatorIndex));
+            Long id = Long.valueOf(raw.substring(separatorIndex + 1));
+            return new TransactionCursor(transactionDate, id);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("مؤشر الصفحة غير صحيح: " + cursor);
+        }
+    }
+
+    public LocalDateTime getTransactionDate() {
+        return transactionDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
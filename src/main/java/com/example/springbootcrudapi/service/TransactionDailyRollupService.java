@@ -0,0 +1,232 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.dto.DailyTransactionStats;
+import com.example.springbootcrudapi.entity.Transaction;
+import com.example.springbootcrudapi.entity.TransactionDailyRollup;
+import com.example.springbootcrudapi.repository.TransactionDailyRollupRepository;
+import com.example.springbootcrudapi.repository.TransactionHistoryRepository;
+import com.example.springbootcrudapi.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily Rollup Service لتحديث جدول الإحصائيات اليومية MD_TRANSACTION_DAILY
+ * يتم استدعاؤه من TransactionService داخل نفس الـ Transaction
+ * الإحصائيات تمثل كل المعاملات المحفوظة: الحالية والمؤرشفة (الأرشفة لا تغيرها، وحذف الأقسام يعيد حسابها)
+ */
+@Service
+@Transactional
+public class TransactionDailyRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionDailyRollupService.class);
+
+    /**
+     * إضافة فرق (موجب أو سالب) لصف اليوم/الطرفية/التاجر أو إنشاؤه إذا لم يكن موجوداً
+     */
+    private static final String APPLY_DELTA_SQL = "MERGE INTO MD_TRANSACTION_DAILY d " +
+            "USING (SELECT CAST(? AS DATE) AS TXN_DAY, " +
+            "CAST(? AS VARCHAR2(20)) AS TERMINAL_ID, " +
+            "CAST(? AS VARCHAR2(30)) AS MERCHANT_ACCOUNT_NUMBER FROM DUAL) s " +
+            "ON (d.TXN_DAY = s.TXN_DAY AND d.TERMINAL_ID = s.TERMINAL_ID " +
+            "AND d.MERCHANT_ACCOUNT_NUMBER = s.MERCHANT_ACCOUNT_NUMBER) " +
+            "WHEN MATCHED THEN UPDATE SET " +
+            "d.TRANSACTION_COUNT = d.TRANSACTION_COUNT + ?, " +
+            "d.TOTAL_AMOUNT = d.TOTAL_AMOUNT + ?, " +
+            "d.TOTAL_COMMISSION = d.TOTAL_COMMISSION + ? " +
+            "WHEN NOT MATCHED THEN INSERT " +
+            "(TXN_DAY, TERMINAL_ID, MERCHANT_ACCOUNT_NUMBER, TRANSACTION_COUNT, TOTAL_AMOUNT, TOTAL_COMMISSION) " +
+            "VALUES (s.TXN_DAY, s.TERMINAL_ID, s.MERCHANT_ACCOUNT_NUMBER, ?, ?, ?)";
+
+    @Autowired
+    private TransactionDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionHistoryRepository historyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionChangeTracker changeTracker;
+
+    /**
+     * إضافة معاملة للإحصائيات
+     */
+    public void add(Transaction transaction) {
+        apply(transaction, 1);
+    }
+
+    /**
+     * طرح معاملة من الإحصائيات (قبل التعديل أو عند الحذف)
+     */
+    public void subtract(Transaction transaction) {
+        apply(transaction, -1);
+    }
+
+    /**
+     * إضافة مجموعة معاملات مع تجميعها أولاً بالمفتاح، فيتم تنفيذ MERGE واحد لكل (يوم، طرفية، تاجر)
+     */
+    public void addAll(List<Transaction> transactions) {
+        Map<TransactionDailyRollup.Key, TransactionDailyRollup> groups = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getTransactionDate() == null) {
+                continue;
+            }
+            LocalDate day = transaction.getTransactionDate().toLocalDate();
+            String terminalId = keyOf(transaction.getTerminalId());
+            String merchantAccountNumber = keyOf(transaction.getMerchantAccountNumber());
+
+            TransactionDailyRollup group = groups.computeIfAbsent(
+                    new TransactionDailyRollup.Key(day, terminalId, merchantAccountNumber), key -> {
+                        TransactionDailyRollup row = new TransactionDailyRollup();
+                        row.setDay(day);
+                        row.setTerminalId(terminalId);
+                        row.setMerchantAccountNumber(merchantAccountNumber);
+                        return row;
+                    });
+            group.setTransactionCount(group.getTransactionCount() + 1);
+            group.setTotalAmount(group.getTotalAmount().add(valueOrZero(transaction.getSourceAmount())));
+            group.setTotalCommission(group.getTotalCommission().add(valueOrZero(transaction.getMerchantCommission())));
+        }
+
+        for (TransactionDailyRollup group : groups.values()) {
+            applyDelta(group.getDay(), group.getTerminalId(), group.getMerchantAccountNumber(),
+                    group.getTransactionCount(), group.getTotalAmount(), group.getTotalCommission());
+        }
+        logger.debug("Applied {} transactions to {} daily rollup rows", transactions.size(), groups.size());
+    }
+
+    private void apply(Transaction transaction, int sign) {
+        if (transaction.getTransactionDate() == null) {
+            return;
+        }
+        BigDecimal amount = valueOrZero(transaction.getSourceAmount());
+        BigDecimal commission = valueOrZero(transaction.getMerchantCommission());
+
+        applyDelta(
+                transaction.getTransactionDate().toLocalDate(),
+                keyOf(transaction.getTerminalId()),
+                keyOf(transaction.getMerchantAccountNumber()),
+                sign,
+                sign < 0 ? amount.negate() : amount,
+                sign < 0 ? commission.negate() : commission);
+    }
+
+    /**
+     * تنفيذ MERGE لصف واحد، مع إعادة المحاولة مرة واحدة إذا أدخل طلب متزامن نفس المفتاح أولاً (ORA-00001)
+     * المحاولة الثانية تجد الصف فتنفذ UPDATE. التنفيذ عبر JdbcTemplate على اتصال نفس الـ Transaction:
+     * فشل الأمر يلغي الأمر فقط ولا يجعل الـ Transaction كاملة rollback-only كما يحدث عبر الـ Repository
+     */
+    private void applyDelta(LocalDate day, String terminalId, String merchantAccountNumber,
+            long countDelta, BigDecimal amountDelta, BigDecimal commissionDelta) {
+        Object[] args = {Date.valueOf(day), terminalId, merchantAccountNumber,
+                countDelta, amountDelta, commissionDelta, countDelta, amountDelta, commissionDelta};
+        try {
+            jdbcTemplate.update(APPLY_DELTA_SQL, args);
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Concurrent insert of daily rollup row {}/{}/{}, retrying", day, terminalId,
+                    merchantAccountNumber);
+            jdbcTemplate.update(APPLY_DELTA_SQL, args);
+        }
+    }
+
+    /**
+     * إجمالي المبلغ وعدد المعاملات ليوم معين
+     */
+    @Transactional(readOnly = true)
+    public DailyTransactionStats getDailyStats(LocalDate day) {
+        logger.debug("Reading daily stats rollup for: {}", day);
+        return rollupRepository.findStatsByDay(day);
+    }
+
+    /**
+     * إعادة حساب الإحصائيات من المعاملات الحالية والمؤرشفة يوماً بيوم في الفترة [from, to]
+     * إذا لم تحدد الفترة يتم إعادة حساب كامل الجدول
+     *
+     * @return عدد الأيام التي تمت إعادة حسابها
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long rebuild(LocalDate from, LocalDate to) {
+        LocalDate first = from;
+        LocalDate last = to;
+        if (first == null) {
+            first = earlier(transactionRepository.findEarliestTransactionDate(),
+                    historyRepository.findEarliestTransactionDate());
+        }
+        if (last == null) {
+            LocalDate current = toDate(transactionRepository.findLatestTransactionDate());
+            LocalDate archived = toDate(historyRepository.findLatestTransactionDate());
+            last = current == null || (archived != null && archived.isAfter(current)) ? archived : current;
+        }
+        if (first == null || last == null || first.isAfter(last)) {
+            logger.info("No transactions to rebuild daily rollup for");
+            return 0;
+        }
+
+        logger.info("Rebuilding daily rollup from {} to {}", first, last);
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        long days = 0;
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            final LocalDate current = day;
+            Integer rows = template.execute(status -> {
+                rollupRepository.deleteByDayRange(current, current.plusDays(1));
+                return rollupRepository.rebuildFromTransactions(
+                        current.atStartOfDay(), current.plusDays(1).atStartOfDay());
+            });
+            logger.debug("Rebuilt daily rollup for {} ({} rows)", current, rows);
+            days++;
+        }
+
+        changeTracker.recordChangeAfterCommit();
+        logger.info("Daily rollup rebuilt for {} days", days);
+        return days;
+    }
+
+    /**
+     * أقدم يوم في الإحصائيات (لإعادة حساب الأيام التي حُذفت معاملاتها بالكامل)
+     */
+    @Transactional(readOnly = true)
+    public LocalDate getEarliestDay() {
+        return rollupRepository.findEarliestDay();
+    }
+
+    private static LocalDate earlier(LocalDateTime a, LocalDateTime b) {
+        LocalDate first = toDate(a);
+        LocalDate second = toDate(b);
+        return first == null || (second != null && second.isBefore(first)) ? second : first;
+    }
+
+    private static LocalDate toDate(LocalDateTime value) {
+        return value != null ? value.toLocalDate() : null;
+    }
+
+    private static String keyOf(String value) {
+        return value == null || value.isEmpty() ? TransactionDailyRollup.UNKNOWN : value;
+    }
+
+    private static BigDecimal valueOrZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
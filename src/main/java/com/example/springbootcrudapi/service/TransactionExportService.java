@@ -0,0 +1,303 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import com.example.springbootcrudapi.repository.TransactionRepository;
+import com.example.springbootcrudapi.repository.TransactionSpecifications;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Export Service لتصدير المعاملات بشكل متدفق (NDJSON / CSV / Arrow / Parquet)
+ * يقرأ الصفوف من JDBC cursor ويكتبها مباشرة للاستجابة بدون تجميعها في الذاكرة
+ */
+@Service
+public class TransactionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportService.class);
+
+    /**
+     * عدد الصفوف التي يتم بعدها تفريغ الـ buffer وفصلها عن الـ Persistence Context
+     */
+    private static final int FLUSH_INTERVAL = 1000;
+
+    /**
+     * عدد الخانات العشرية للمبالغ (scale العمود) في الصيغ العمودية التي تكتبها كأرقام صحيحة
+     */
+    static final int AMOUNT_SCALE = 2;
+
+    private static final String[] CSV_HEADER = {
+            "id", "transId", "terminalId", "merchantName", "sourceAmount", "merchantCommission",
+            "transactionDate", "processingDate", "maskPan", "authorizationNumber",
+            "merchantAccountNumber", "outletCode"
+    };
+
+    /**
+     * صيغ التصدير المدعومة
+     */
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson", true),
+        CSV("text/csv", "csv", true),
+        ARROW("application/vnd.apache.arrow.stream", "arrow", false),
+        PARQUET("application/vnd.apache.parquet", "parquet", false);
+
+        private final String contentType;
+        private final String extension;
+        private final boolean text;
+
+        ExportFormat(String contentType, String extension, boolean text) {
+            this.contentType = contentType;
+            this.extension = extension;
+            this.text = text;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public boolean isText() {
+            return text;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static ExportFormat from(String value) {
+            for (ExportFormat format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("صيغة التصدير غير مدعومة: " + value);
+        }
+    }
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${transaction.export.arrow.batch-rows:8192}")
+    private int arrowBatchRows;
+
+    @Value("${transaction.export.parquet.row-group-size:32MB}")
+    private DataSize parquetRowGroupSize;
+
+    @Value("${transaction.export.parquet.compression:snappy}")
+    private String parquetCompression;
+
+    /**
+     * تصدير المعاملات في فترة زمنية إلى OutputStream مع فلتر اختياري لرقم الجهاز واسم التاجر (بحث جزئي)
+     *
+     * @return عدد الصفوف المكتوبة
+     */
+    @Transactional(readOnly = true)
+    public long exportByDateRange(LocalDateTime startDate, LocalDateTime endDate, String terminalId,
+            String merchantName, ExportFormat format, OutputStream out) throws IOException {
+        logger.debug("Exporting transactions between {} and {} (terminal {}, merchant {}) as {}",
+                startDate, endDate, terminalId, merchantName, format);
+
+        // hint الاستعلام (BYPASS) يُطبق أثناء تنفيذه فقط، وقراءة الـ Stream تتم بعد ذلك،
+        // لذلك يتم إيقاف الـ Second-level cache للـ Session طوال التصدير
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        long rows;
+        try (Stream<Transaction> stream = stream(startDate, endDate, terminalId, merchantName)) {
+            Iterator<Transaction> iterator = stream.iterator();
+            rows = switch (format) {
+                case NDJSON -> writeNdjson(iterator, out);
+                case CSV -> writeCsv(iterator, out);
+                case ARROW -> TransactionArrowWriter.write(detaching(iterator), out, arrowBatchRows);
+                case PARQUET -> TransactionParquetWriter.write(detaching(iterator), out,
+                        parquetRowGroupSize.toBytes(), parquetCodec());
+            };
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+
+        logger.debug("Exported {} transactions between {} and {}", rows, startDate, endDate);
+        return rows;
+    }
+
+    private Stream<Transaction> stream(LocalDateTime startDate, LocalDateTime endDate, String terminalId,
+            String merchantName) {
+        if (!StringUtils.hasText(terminalId) && !StringUtils.hasText(merchantName)) {
+            return transactionRepository.streamByTransactionDateBetween(startDate, endDate);
+        }
+        return transactionRepository.stream(Specification
+                .where(TransactionSpecifications.dateBetween(startDate, endDate))
+                .and(TransactionSpecifications.equalTo("terminalId", terminalId))
+                .and(TransactionSpecifications.containsIgnoreCase("merchantName", merchantName)));
+    }
+
+    /**
+     * فصل كل معاملة عن الـ Persistence Context بمجرد قراءتها (الصيغ العمودية تستهلكها بنفسها)
+     */
+    private Iterator<Transaction> detaching(Iterator<Transaction> iterator) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Transaction next() {
+                Transaction transaction = iterator.next();
+                entityManager.detach(transaction);
+                return transaction;
+            }
+        };
+    }
+
+    private CompressionCodecName parquetCodec() {
+        try {
+            return CompressionCodecName.valueOf(parquetCompression.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("ضغط Parquet غير مدعوم: " + parquetCompression);
+        }
+    }
+
+    /**
+     * المبلغ كرقم صحيح بوحدة 10^-AMOUNT_SCALE (مثلاً 125.50 تصبح 12550)
+     */
+    static long scaledAmount(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * التاريخ كميكروثانية منذ 1970-01-01T00:00 بدون تحويل منطقة زمنية (نفس قيمة LocalDateTime)
+     */
+    static long epochMicros(LocalDateTime value) {
+        return Math.addExact(Math.multiplyExact(value.toEpochSecond(ZoneOffset.UTC), 1_000_000L),
+                value.getNano() / 1_000);
+    }
+
+    /**
+     * كتابة كل معاملة كسطر JSON مستقل
+     */
+    private long writeNdjson(Iterator<Transaction> iterator, OutputStream out) throws IOException {
+        long rows = 0;
+        ObjectWriter writer = objectMapper.writerFor(Transaction.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            while (iterator.hasNext()) {
+                Transaction transaction = iterator.next();
+                writer.writeValue(generator, transaction);
+                generator.writeRaw('\n');
+                entityManager.detach(transaction);
+
+                if (++rows % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+        return rows;
+    }
+
+    /**
+     * كتابة المعاملات بصيغة CSV مع سطر العناوين
+     */
+    private long writeCsv(Iterator<Transaction> iterator, OutputStream out) throws IOException {
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", CSV_HEADER));
+        writer.write('\n');
+
+        while (iterator.hasNext()) {
+            Transaction transaction = iterator.next();
+            writeCsvRow(writer, transaction);
+            entityManager.detach(transaction);
+
+            if (++rows % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private void writeCsvRow(Writer writer, Transaction t) throws IOException {
+        writeCsvField(writer, t.getId());
+        writer.write(',');
+        writeCsvField(writer, t.getTransId());
+        writer.write(',');
+        writeCsvField(writer, t.getTerminalId());
+        writer.write(',');
+        writeCsvField(writer, t.getMerchantName());
+        writer.write(',');
+        writeCsvField(writer, t.getSourceAmount() != null ? t.getSourceAmount().toPlainString() : null);
+        writer.write(',');
+        writeCsvField(writer, t.getMerchantCommission() != null ? t.getMerchantCommission().toPlainString() : null);
+        writer.write(',');
+        writeCsvField(writer, t.getTransactionDate());
+        writer.write(',');
+        writeCsvField(writer, t.getProcessingDate());
+        writer.write(',');
+        writeCsvField(writer, t.getMaskPan());
+        writer.write(',');
+        writeCsvField(writer, t.getAuthorizationNumber());
+        writer.write(',');
+        writeCsvField(writer, t.getMerchantAccountNumber());
+        writer.write(',');
+        writeCsvField(writer, t.getOutletCode());
+        writer.write('\n');
+    }
+
+    /**
+     * كتابة حقل CSV مع الـ quoting عند الحاجة (RFC 4180)
+     */
+    private void writeCsvField(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean needsQuoting = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (!needsQuoting) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Types;
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+
+/**
+ * كتابة المعاملات بصيغة Parquet مباشرة إلى OutputStream، مع row group جديد كلما وصل حجمه للحد المحدد
+ * لا يحتاج Hadoop وقت التشغيل: الإعدادات PlainParquetConfiguration وضغط Snappy بـ snappy-java
+ */
+public final class TransactionParquetWriter {
+
+    private static final LogicalTypeAnnotation AMOUNT =
+            LogicalTypeAnnotation.decimalType(TransactionExportService.AMOUNT_SCALE, 15);
+    private static final LogicalTypeAnnotation TIMESTAMP =
+            LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MICROS);
+
+    static final MessageType SCHEMA = Types.buildMessage()
+            .required(INT64).named("id")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("transId")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("terminalId")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("merchantName")
+            .optional(INT64).as(AMOUNT).named("sourceAmount")
+            .optional(INT64).as(AMOUNT).named("merchantCommission")
+            .optional(INT64).as(TIMESTAMP).named("transactionDate")
+            .optional(INT64).as(TIMESTAMP).named("processingDate")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("maskPan")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("authorizationNumber")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("merchantAccountNumber")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("outletCode")
+            .named("transaction");
+
+    private TransactionParquetWriter() {
+    }
+
+    /**
+     * @return عدد الصفوف المكتوبة
+     */
+    public static long write(Iterator<Transaction> iterator, OutputStream out, long rowGroupBytes,
+            CompressionCodecName codec) throws IOException {
+        long rows = 0;
+        try (ParquetWriter<Transaction> writer = new Builder(new StreamOutputFile(out))
+                .withConf(new PlainParquetConfiguration())
+                .withCodecFactory(SnappyCodecFactory.INSTANCE)
+                .withCompressionCodec(codec)
+                .withRowGroupSize(rowGroupBytes)
+                .build()) {
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static final class Builder extends ParquetWriter.Builder<Transaction, Builder> {
+
+        private Builder(OutputFile file) {
+            super(file);
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<Transaction> getWriteSupport(Configuration conf) {
+            return new TransactionWriteSupport();
+        }
+
+        @Override
+        protected WriteSupport<Transaction> getWriteSupport(ParquetConfiguration conf) {
+            return new TransactionWriteSupport();
+        }
+    }
+
+    private static final class TransactionWriteSupport extends WriteSupport<Transaction> {
+
+        private RecordConsumer consumer;
+
+        @Override
+        public WriteContext init(Configuration configuration) {
+            return new WriteContext(SCHEMA, Map.of());
+        }
+
+        @Override
+        public WriteContext init(ParquetConfiguration configuration) {
+            return new WriteContext(SCHEMA, Map.of());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(Transaction t) {
+            consumer.startMessage();
+            writeLong(0, "id", t.getId());
+            writeText(1, "transId", t.getTransId());
+            writeText(2, "terminalId", t.getTerminalId());
+            writeText(3, "merchantName", t.getMerchantName());
+            writeAmount(4, "sourceAmount", t.getSourceAmount());
+            writeAmount(5, "merchantCommission", t.getMerchantCommission());
+            writeTimestamp(6, "transactionDate", t.getTransactionDate());
+            writeTimestamp(7, "processingDate", t.getProcessingDate());
+            writeText(8, "maskPan", t.getMaskPan());
+            writeText(9, "authorizationNumber", t.getAuthorizationNumber());
+            writeText(10, "merchantAccountNumber", t.getMerchantAccountNumber());
+            writeText(11, "outletCode", t.getOutletCode());
+            consumer.endMessage();
+        }
+
+        private void writeLong(int index, String name, Long value) {
+            if (value != null) {
+                consumer.startField(name, index);
+                consumer.addLong(value);
+                consumer.endField(name, index);
+            }
+        }
+
+        private void writeText(int index, String name, String value) {
+            if (value != null) {
+                consumer.startField(name, index);
+                consumer.addBinary(Binary.fromString(value));
+                consumer.endField(name, index);
+            }
+        }
+
+        private void writeAmount(int index, String name, BigDecimal value) {
+            writeLong(index, name, value != null ? TransactionExportService.scaledAmount(value) : null);
+        }
+
+        private void writeTimestamp(int index, String name, LocalDateTime value) {
+            writeLong(index, name, value != null ? TransactionExportService.epochMicros(value) : null);
+        }
+    }
+
+    /**
+     * OutputFile فوق OutputStream موجود (الاستجابة)؛ Parquet يكتب الملف من البداية للنهاية فلا يحتاج seek
+     */
+    private static final class StreamOutputFile implements OutputFile {
+
+        private final OutputStream out;
+
+        private StreamOutputFile(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) {
+            return new PositionOutputStream() {
+                private long position;
+
+                @Override
+                public long getPos() {
+                    return position;
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    position++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    position += len;
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    // إغلاق الـ OutputStream مسؤولية من أنشأه
+                    out.flush();
+                }
+            };
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+            return create(blockSizeHint);
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return 0;
+        }
+    }
+
+    /**
+     * CodecFactory الافتراضي في parquet-hadoop يستخدم codecs من Hadoop، وهنا Snappy مباشرة بـ snappy-java
+     */
+    static final class SnappyCodecFactory implements CompressionCodecFactory {
+
+        static final SnappyCodecFactory INSTANCE = new SnappyCodecFactory();
+
+        @Override
+        public BytesInputCompressor getCompressor(CompressionCodecName codecName) {
+            CompressionCodecName codec = supported(codecName);
+            return new BytesInputCompressor() {
+                @Override
+                public BytesInput compress(BytesInput bytes) throws IOException {
+                    if (codec == CompressionCodecName.UNCOMPRESSED) {
+                        return bytes;
+                    }
+                    return BytesInput.from(Snappy.compress(bytes.toByteArray()));
+                }
+
+                @Override
+                public CompressionCodecName getCodecName() {
+                    return codec;
+                }
+
+                @Override
+                public void release() {
+                }
+            };
+        }
+
+        @Override
+        public BytesInputDecompressor getDecompressor(CompressionCodecName codecName) {
+            CompressionCodecName codec = supported(codecName);
+            return new BytesInputDecompressor() {
+                @Override
+                public BytesInput decompress(BytesInput bytes, int uncompressedSize) throws IOException {
+                    if (codec == CompressionCodecName.UNCOMPRESSED) {
+                        return bytes;
+                    }
+                    return BytesInput.from(Snappy.uncompress(bytes.toByteArray()));
+                }
+
+                @Override
+                public void decompress(ByteBuffer input, int compressedSize, ByteBuffer output, int uncompressedSize)
+                        throws IOException {
+                    byte[] compressed = new byte[compressedSize];
+                    input.get(compressed);
+                    output.put(codec == CompressionCodecName.UNCOMPRESSED ? compressed : Snappy.uncompress(compressed));
+                }
+
+                @Override
+                public void release() {
+                }
+            };
+        }
+
+        @Override
+        public void release() {
+        }
+
+        private static CompressionCodecName supported(CompressionCodecName codecName) {
+            if (codecName != CompressionCodecName.SNAPPY && codecName != CompressionCodecName.UNCOMPRESSED) {
+                throw new IllegalArgumentException("ضغط Parquet غير مدعوم: " + codecName);
+            }
+            return codecName;
+        }
+    }
+}
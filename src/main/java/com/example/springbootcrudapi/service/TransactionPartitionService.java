@@ -0,0 +1,300 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.dto.TransactionPartitionInfo;
+import com.example.springbootcrudapi.entity.Transaction;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * تقسيم جدول المعاملات (Interval Range Partitioning) على TRANSACTION_DATE في Oracle
+ * الفهارس العادية محلية (LOCAL) لكل partition، والمفتاح الأساسي و UK_TXN_TRANS_ID يبقيان عامين (GLOBAL)
+ * لأنهما لا يحتويان على عمود التقسيم
+ * حذف البيانات القديمة يتم بحذف أو تفريغ partition كامل (عملية على الـ metadata) بدلاً من DELETE صفاً بصف
+ */
+@Service
+public class TransactionPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPartitionService.class);
+
+    private static final String TABLE = Transaction.class.getAnnotation(Table.class).name();
+
+    /**
+     * الـ partition الأول (غير الـ interval) الذي يبدأ منه إنشاء الـ partitions تلقائياً
+     */
+    private static final String INITIAL_PARTITION = "P_INITIAL";
+
+    private static final Pattern HIGH_VALUE = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})(?: (\\d{2}:\\d{2}:\\d{2}))?");
+
+    /**
+     * حجم الـ partition الواحد
+     */
+    public enum Interval {
+        DAY("NUMTODSINTERVAL(1, 'DAY')"),
+        MONTH("NUMTOYMINTERVAL(1, 'MONTH')");
+
+        private final String sql;
+
+        Interval(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    /**
+     * طريقة التخلص من الـ partitions المنتهية
+     */
+    public enum ExpireMode {
+        DROP, TRUNCATE;
+
+        public static ExpireMode from(String value) {
+            for (ExpireMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(value)) {
+                    return mode;
+                }
+            }
+            throw new IllegalArgumentException("طريقة غير مدعومة: " + value + " (drop أو truncate)");
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LatestTransactionsBuffer latestTransactions;
+
+    @Autowired
+    private TransactionChangeTracker changeTracker;
+
+    @Autowired
+    private TransactionDailyRollupService dailyRollup;
+
+    @Value("${transaction.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${transaction.partitioning.interval:MONTH}")
+    private Interval interval;
+
+    @Value("${transaction.partitioning.initial-boundary:2000-01-01}")
+    private LocalDate initialBoundary;
+
+    @Value("${transaction.partitioning.min-retention-days:90}")
+    private int minRetentionDays;
+
+    /**
+     * التحويل عند بدء التطبيق فقط إذا تم تفعيله (transaction.partitioning.enabled)، وإلا بأمر الصيانة
+     * --partition-transactions. يتم قبل أوامر الصيانة وقبل تحميل الـ buffers
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void ensurePartitioned() {
+        if (enabled) {
+            partition();
+        }
+    }
+
+    /**
+     * تحويل الجدول إلى جدول مقسم (ALTER TABLE ... MODIFY PARTITION ... ONLINE)، مرة واحدة فقط
+     *
+     * @return true إذا كان الجدول مقسماً بعد التنفيذ
+     */
+    public boolean partition() {
+        if (!isOracle()) {
+            logger.warn("{} can only be partitioned on Oracle", TABLE);
+            return false;
+        }
+        if (isPartitioned()) {
+            return true;
+        }
+
+        // عمود التقسيم في interval partitioning لا يقبل NULL
+        Integer nullDates = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + TABLE + " WHERE TRANSACTION_DATE IS NULL AND ROWNUM = 1", Integer.class);
+        if (nullDates != null && nullDates > 0) {
+            logger.error("{} has rows without TRANSACTION_DATE, table left unpartitioned "
+                    + "(run migrate_backfill_transaction_date.sql)", TABLE);
+            return false;
+        }
+
+        String sql = "ALTER TABLE " + TABLE + " MODIFY PARTITION BY RANGE (TRANSACTION_DATE) " +
+                "INTERVAL (" + interval.sql + ") " +
+                "(PARTITION " + INITIAL_PARTITION + " VALUES LESS THAN (TIMESTAMP '" + initialBoundary + " 00:00:00')) " +
+                "ONLINE UPDATE INDEXES (" + localIndexes() + ")";
+        long start = System.currentTimeMillis();
+        try {
+            jdbcTemplate.execute(sql);
+            logger.info("{} partitioned by TRANSACTION_DATE ({}) in {} ms", TABLE, interval,
+                    System.currentTimeMillis() - start);
+            return true;
+        } catch (DataAccessException e) {
+            // Oracle أقدم من 12.2 لا يدعم التحويل المباشر: انظر migrate_partition_transactions.sql
+            logger.error("Could not partition {}: {}", TABLE, e.getMostSpecificCause().getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * كل فهارس الـ entity غير الفريدة تصبح محلية
+     */
+    private static String localIndexes() {
+        StringJoiner indexes = new StringJoiner(", ");
+        for (Index index : Transaction.class.getAnnotation(Table.class).indexes()) {
+            if (!index.unique()) {
+                indexes.add(index.name() + " LOCAL");
+            }
+        }
+        return indexes.toString();
+    }
+
+    /**
+     * قائمة الـ partitions مرتبة بالتاريخ، مع العد الفعلي للصفوف إذا طُلب (قراءة كل partition)
+     */
+    public List<TransactionPartitionInfo> listPartitions(boolean exactRows) {
+        if (!isOracle()) {
+            return List.of();
+        }
+        List<TransactionPartitionInfo> partitions = jdbcTemplate.query(
+                "SELECT PARTITION_NAME, PARTITION_POSITION, HIGH_VALUE, INTERVAL, NUM_ROWS " +
+                        "FROM USER_TAB_PARTITIONS WHERE TABLE_NAME = ? ORDER BY PARTITION_POSITION",
+                (rs, rowNum) -> {
+                    // HIGH_VALUE من نوع LONG ويجب قراءته بترتيب الأعمدة
+                    String name = rs.getString(1);
+                    int position = rs.getInt(2);
+                    LocalDateTime highValue = parseHighValue(rs.getString(3));
+                    boolean isInterval = "YES".equals(rs.getString(4));
+                    long rows = rs.getLong(5);
+                    return new TransactionPartitionInfo(name, position, highValue, isInterval,
+                            rs.wasNull() ? null : rows);
+                },
+                TABLE);
+
+        if (exactRows) {
+            for (TransactionPartitionInfo partition : partitions) {
+                partition.setRows(jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM " + TABLE + " PARTITION (" + quote(partition.getName()) + ")", Long.class));
+                partition.setRowsExact(true);
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * حذف أو تفريغ كل partition حده الأعلى لا يتجاوز before
+     * الـ partition الأول (P_INITIAL) لا يمكن حذفه في interval partitioning، لذلك يتم تفريغه فقط
+     *
+     * @return الـ partitions التي تم التعامل معها
+     */
+    public List<TransactionPartitionInfo> expirePartitions(LocalDate before, ExpireMode mode) {
+        if (!isOracle() || !isPartitioned()) {
+            throw new RuntimeException("جدول المعاملات غير مقسم");
+        }
+        LocalDate limit = LocalDate.now().minusDays(minRetentionDays);
+        if (before.isAfter(limit)) {
+            throw new IllegalArgumentException("لا يمكن حذف بيانات أحدث من " + minRetentionDays + " يوماً: " + before);
+        }
+
+        LocalDateTime boundary = before.atStartOfDay();
+        List<TransactionPartitionInfo> expired = new ArrayList<>();
+        for (TransactionPartitionInfo partition : listPartitions(false)) {
+            if (partition.getHighValue() == null || partition.getHighValue().isAfter(boundary)) {
+                continue;
+            }
+            boolean drop = mode == ExpireMode.DROP && partition.isInterval();
+            // UPDATE GLOBAL INDEXES يبقي المفتاح الأساسي و UK_TXN_TRANS_ID صالحين (الصيانة مؤجلة في Oracle 12c+)
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + (drop ? " DROP" : " TRUNCATE") +
+                    " PARTITION " + quote(partition.getName()) + " UPDATE GLOBAL INDEXES");
+            logger.info("{} partition {} (< {})", drop ? "Dropped" : "Truncated", partition.getName(),
+                    partition.getHighValue());
+            expired.add(partition);
+        }
+
+        if (!expired.isEmpty()) {
+            evictCaches();
+            rebuildRollup(expired);
+        }
+        return expired;
+    }
+
+    /**
+     * الإحصائيات اليومية تمثل المعاملات المحفوظة (الحالية والمؤرشفة)، فتُعاد حسابها للأيام المحذوفة
+     * إعادة الحساب تشمل الأرشيف، لذلك تبقى المعاملات المؤرشفة لنفس الأيام في الإحصائيات
+     */
+    private void rebuildRollup(List<TransactionPartitionInfo> expired) {
+        LocalDate first = dailyRollup.getEarliestDay();
+        LocalDate last = expired.stream()
+                .map(partition -> partition.getHighValue().toLocalDate().minusDays(1))
+                .max(LocalDate::compareTo)
+                .orElseThrow();
+        if (first != null && !first.isAfter(last)) {
+            dailyRollup.rebuild(first, last);
+        }
+    }
+
+    /**
+     * الحذف لا يمر عبر Hibernate، لذلك تُفرغ مناطق الـ cache الخاصة بالمعاملات
+     * فهرس البحث وفلتر أرقام المعاملات يحتفظان بمدخلات لا تطابق أي صف وتُتجاهل عند القراءة حتى إعادة البناء
+     */
+    private void evictCaches() {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Transaction.class);
+        cache.evictNaturalIdData(Transaction.class);
+        latestTransactions.reload();
+        changeTracker.recordBulkChange();
+    }
+
+    public boolean isPartitioned() {
+        if (!isOracle()) {
+            return false;
+        }
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM USER_PART_TABLES WHERE TABLE_NAME = ?", Integer.class, TABLE);
+        return count != null && count > 0;
+    }
+
+    private boolean isOracle() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return product != null && product.startsWith("Oracle");
+    }
+
+    /**
+     * HIGH_VALUE نص SQL مثل TIMESTAMP' 2024-02-01 00:00:00'
+     */
+    static LocalDateTime parseHighValue(String highValue) {
+        if (highValue == null) {
+            return null;
+        }
+        Matcher matcher = HIGH_VALUE.matcher(highValue);
+        if (!matcher.find()) {
+            return null;
+        }
+        LocalDate date = LocalDate.parse(matcher.group(1));
+        return matcher.group(2) != null ? date.atTime(LocalTime.parse(matcher.group(2))) : date.atStartOfDay();
+    }
+
+    private static String quote(String partitionName) {
+        return "\"" + partitionName.replace("\"", "") + "\"";
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import com.example.springbootcrudapi.entity.TransactionTrigram;
+import com.example.springbootcrudapi.repository.TransactionRepository;
+import com.example.springbootcrudapi.repository.TransactionTrigramRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * فهرس مقلوب من المقاطع الثلاثية (trigrams) للبحث الشامل في المعاملات
+ * البحث يحدد المعرفات المرشحة من الفهرس أولاً ثم يحمّل هذه الصفوف فقط
+ */
+@Service
+@Transactional
+public class TransactionSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionSearchIndex.class);
+
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * حشو نهاية القيمة بحيث يكون كل نص بطول 1-2 حرف بداية لمقطع مفهرس
+     */
+    private static final String PADDING = "  ";
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    @Autowired
+    private TransactionTrigramRepository trigramRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${transaction.search.max-candidates:500}")
+    private int maxCandidates;
+
+    /**
+     * فهرسة معاملة جديدة
+     */
+    public void index(Transaction transaction) {
+        List<TransactionTrigram> rows = trigramsOf(transaction).stream()
+                .map(gram -> new TransactionTrigram(gram, transaction.getId()))
+                .collect(Collectors.toList());
+        trigramRepository.saveAll(rows);
+        logger.debug("Indexed {} trigrams for transaction {}", rows.size(), transaction.getId());
+    }
+
+    /**
+     * فهرسة مجموعة معاملات في عملية حفظ واحدة (للإدخال الجماعي)
+     */
+    public void indexAll(List<Transaction> transactions) {
+        List<TransactionTrigram> rows = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            trigramsOf(transaction).forEach(gram -> rows.add(new TransactionTrigram(gram, transaction.getId())));
+        }
+        trigramRepository.saveAll(rows);
+        logger.debug("Indexed {} trigrams for {} transactions", rows.size(), transactions.size());
+    }
+
+    /**
+     * إعادة فهرسة معاملة بعد تعديلها
+     */
+    public void reindex(Transaction transaction) {
+        remove(transaction.getId());
+        index(transaction);
+    }
+
+    /**
+     * حذف معاملة من الفهرس
+     */
+    public void remove(Long transactionId) {
+        int removed = trigramRepository.deleteByTransactionId(transactionId);
+        logger.debug("Removed {} trigrams for transaction {}", removed, transactionId);
+    }
+
+    /**
+     * حذف مجموعة معاملات من الفهرس
+     */
+    public void removeAll(Collection<Long> transactionIds) {
+        int removed = trigramRepository.deleteByTransactionIdIn(transactionIds);
+        logger.debug("Removed {} trigrams for {} transactions", removed, transactionIds.size());
+    }
+
+    /**
+     * البحث في الحقول النصية المفهرسة، حتى max-candidates نتيجة (الأحدث إدخالاً أولاً)
+     */
+    @Transactional(readOnly = true)
+    public List<Transaction> search(String query) {
+        String needle = query.trim().toLowerCase(Locale.ROOT);
+        Set<String> grams = needle.length() >= GRAM_LENGTH ? gramsOf(needle) : null;
+        PageRequest limit = PageRequest.of(0, maxCandidates);
+
+        // المقاطع قد تأتي من حقول مختلفة، لذلك يتم التحقق من التطابق الفعلي بعد التحميل
+        // والمرشحون يُقرأون على صفحات حتى لا يستهلك المرشحون غير المطابقين الحد ويُسقطوا نتائج صحيحة
+        List<Transaction> results = new ArrayList<>();
+        long candidates = 0;
+        Long beforeId = Long.MAX_VALUE;
+        while (results.size() < maxCandidates) {
+            List<Long> candidateIds = grams != null
+                    ? trigramRepository.findCandidateIds(grams, grams.size(), beforeId, limit)
+                    : trigramRepository.findCandidateIdsByPrefix(escapeLike(needle) + "%", beforeId, limit);
+            candidates += candidateIds.size();
+
+            List<Transaction> matched = new ArrayList<>();
+            for (Transaction transaction : transactionRepository.findAllById(candidateIds)) {
+                if (matches(transaction, needle)) {
+                    matched.add(transaction);
+                } else {
+                    // المرشحون غير المطابقين لا يبقون في الـ Persistence Context أثناء قراءة الصفحات التالية
+                    entityManager.detach(transaction);
+                }
+            }
+            matched.sort(Comparator.comparing(Transaction::getId, Comparator.reverseOrder()));
+            results.addAll(matched.subList(0, Math.min(matched.size(), maxCandidates - results.size())));
+
+            if (candidateIds.size() < maxCandidates) {
+                break;
+            }
+            beforeId = candidateIds.get(candidateIds.size() - 1);
+        }
+        logger.debug("Search index verified {} of {} candidates for query: {}", results.size(), candidates, query);
+
+        results.sort(Comparator.comparing(Transaction::getTransactionDate,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return results;
+    }
+
+    /**
+     * إعادة بناء الفهرس بالكامل من جدول المعاملات على دفعات
+     *
+     * @return عدد المعاملات المفهرسة
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long rebuild() {
+        logger.info("Rebuilding transaction search index");
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.executeWithoutResult(status -> trigramRepository.deleteAllInBatch());
+
+        long indexed = 0;
+        long lastId = 0L;
+        while (true) {
+            final long afterId = lastId;
+            List<Long> batchIds = template.execute(status -> {
+                List<Transaction> batch = transactionRepository.findByIdGreaterThanOrderByIdAsc(
+                        afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                batch.forEach(this::index);
+                entityManager.flush();
+                entityManager.clear();
+                return batch.stream().map(Transaction::getId).collect(Collectors.toList());
+            });
+
+            if (batchIds == null || batchIds.isEmpty()) {
+                break;
+            }
+            indexed += batchIds.size();
+            lastId = batchIds.get(batchIds.size() - 1);
+        }
+
+        logger.info("Transaction search index rebuilt for {} transactions", indexed);
+        return indexed;
+    }
+
+    /**
+     * المقاطع الثلاثية لجميع الحقول النصية المفهرسة
+     */
+    static Set<String> trigramsOf(Transaction transaction) {
+        Set<String> grams = new LinkedHashSet<>();
+        indexedValues(transaction)
+                .map(value -> value.toLowerCase(Locale.ROOT) + PADDING)
+                .forEach(value -> grams.addAll(gramsOf(value)));
+        return grams;
+    }
+
+    private static Set<String> gramsOf(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static Stream<String> indexedValues(Transaction transaction) {
+        return Stream.of(
+                        transaction.getTransId(),
+                        transaction.getTerminalId(),
+                        transaction.getMerchantName(),
+                        transaction.getMaskPan(),
+                        transaction.getAuthorizationNumber(),
+                        transaction.getMerchantAccountNumber(),
+                        transaction.getOutletCode())
+                .filter(value -> value != null && !value.isEmpty());
+    }
+
+    private static boolean matches(Transaction transaction, String needle) {
+        return indexedValues(transaction)
+                .anyMatch(value -> value.toLowerCase(Locale.ROOT).contains(needle));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -1,15 +1,27 @@
 package com.example.springbootcrudapi.service;
 
+import com.example.springbootcrudapi.dto.DailyTransactionStats;
+import com.example.springbootcrudapi.dto.TransactionPageResponse;
 import com.example.springbootcrudapi.entity.Transaction;
+import com.example.springbootcrudapi.entity.TransactionHistory;
+import com.example.springbootcrudapi.repository.TransactionHistoryRepository;
 import com.example.springbootcrudapi.repository.TransactionRepository;
+import com.example.springbootcrudapi.repository.TransactionSpecifications;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,31 +37,105 @@ public class TransactionService {
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private TransactionHistoryRepository historyRepository;
+
+    @Autowired
+    private TransactionSearchIndex searchIndex;
+
+    @Autowired
+    private TransactionDailyRollupService dailyRollup;
+
+    @Autowired
+    private TransIdFilter transIdFilter;
+
+    @Autowired
+    private LatestTransactionsBuffer latestTransactions;
+
+    @Autowired
+    private TransactionChangeTracker changeTracker;
+
+    @Value("${transaction.stats.use-rollup:true}")
+    private boolean statsFromRollup;
+
+    @Value("${transaction.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${transaction.page.max-size:500}")
+    private int maxPageSize;
+
     /**
-     * جلب جميع المعاملات
+     * جلب صفحة من المعاملات باستخدام مؤشر (Keyset Pagination)
      */
     @Transactional(readOnly = true)
-    public List<Transaction> getAllTransactions() {
-        logger.debug("Fetching all transactions");
-        return transactionRepository.findAll();
+    public TransactionPageResponse getTransactionsPage(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        logger.debug("Fetching transactions page - cursor: {}, size: {}", cursor, pageSize);
+
+        // جلب سجل إضافي لمعرفة وجود صفحة تالية بدون COUNT
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Transaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findFirstPage(limit);
+        } else {
+            TransactionCursor after = TransactionCursor.decode(cursor);
+            rows = transactionRepository.findPageAfter(after.getTransactionDate(), after.getId(), limit);
+        }
+
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * تحويل النتائج (pageSize + 1 صف) إلى صفحة مع مؤشر الصفحة التالية
+     */
+    private TransactionPageResponse toPage(List<Transaction> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new TransactionPageResponse(rows, null, pageSize);
+        }
+
+        List<Transaction> page = new ArrayList<>(rows.subList(0, pageSize));
+        String next = TransactionCursor.of(page.get(pageSize - 1)).encode();
+        return new TransactionPageResponse(page, next, pageSize);
+    }
+
+    /**
+     * تحديد حجم الصفحة مع حد أقصى لا يمكن تجاوزه
+     */
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("حجم الصفحة يجب أن يكون أكبر من صفر: " + size);
+        }
+        return Math.min(size, maxPageSize);
     }
 
     /**
-     * جلب معاملة بواسطة ID
+     * جلب معاملة بواسطة ID (من الجدول الحالي ثم من الأرشيف)
      */
     @Transactional(readOnly = true)
     public Optional<Transaction> getTransactionById(Long id) {
         logger.debug("Fetching transaction by id: {}", id);
-        return transactionRepository.findById(id);
+        Optional<Transaction> transaction = transactionRepository.findById(id);
+        if (transaction.isPresent()) {
+            return transaction;
+        }
+        return historyRepository.findById(id).map(TransactionHistory::toTransaction);
     }
 
     /**
-     * جلب معاملة بواسطة رقم المعاملة
+     * جلب معاملة بواسطة رقم المعاملة (من الجدول الحالي ثم من الأرشيف)
      */
     @Transactional(readOnly = true)
     public Optional<Transaction> getTransactionByTransId(String transId) {
         logger.debug("Fetching transaction by transId: {}", transId);
-        return transactionRepository.findByTransId(transId);
+
+        Optional<Transaction> transaction = transactionRepository.findCachedByTransId(transId);
+        if (transaction.isEmpty()) {
+            transaction = historyRepository.findByTransId(transId).map(TransactionHistory::toTransaction);
+        }
+        return transaction;
     }
 
     /**
@@ -58,21 +144,49 @@ public class TransactionService {
     public Transaction createTransaction(Transaction transaction) {
         logger.debug("Creating new transaction: {}", transaction.getTransId());
 
-        // التحقق من عدم وجود معاملة بنفس رقم المعاملة
-        if (transaction.getTransId() != null &&
-                transactionRepository.findByTransId(transaction.getTransId()).isPresent()) {
+        applyDefaults(transaction);
+
+        // الفلتر أمام التحقق من التكرار: رقم معاملة جديد بالتأكيد لا يحتاج استعلاماً قبل الإدخال
+        // المعاملة بدون رقم لا يمكن أن تكون مكررة
+        if (transaction.getTransId() != null
+                && !transIdFilter.findExisting(List.of(transaction.getTransId())).isEmpty()) {
+            throw new RuntimeException("رقم المعاملة موجود بالفعل: " + transaction.getTransId());
+        }
+
+        // إدخال بأمر MERGE واحد: المفتاح الفريد على TRANS_ID يمنع التكرار حتى مع الطلبات المتزامنة
+        boolean inserted;
+        try {
+            inserted = transactionRepository.insertMissing(List.of(transaction))[0];
+        } catch (DataIntegrityViolationException e) {
+            inserted = false;
+        }
+        if (!inserted) {
             throw new RuntimeException("رقم المعاملة موجود بالفعل: " + transaction.getTransId());
         }
 
+        transIdFilter.add(transaction.getTransId());
+        searchIndex.index(transaction);
+        dailyRollup.add(transaction);
+        latestTransactions.offerAfterCommit(List.of(transaction));
+        changeTracker.recordChangeAfterCommit(transaction.getTerminalId());
+        logger.debug("Transaction created successfully with id: {}", transaction.getId());
+
+        return transaction;
+    }
+
+    /**
+     * تعيين القيم الافتراضية لمعاملة جديدة قبل الحفظ
+     */
+    static void applyDefaults(Transaction transaction) {
         // تعيين تاريخ المعالجة إذا لم يكن موجوداً
         if (transaction.getProcessingDate() == null) {
             transaction.setProcessingDate(LocalDateTime.now());
         }
 
-        Transaction savedTransaction = transactionRepository.save(transaction);
-        logger.debug("Transaction created successfully with id: {}", savedTransaction.getId());
-
-        return savedTransaction;
+        // تاريخ المعاملة جزء من مفتاح الترقيم لذلك لا يُترك فارغاً
+        if (transaction.getTransactionDate() == null) {
+            transaction.setTransactionDate(transaction.getProcessingDate());
+        }
     }
 
     /**
@@ -84,6 +198,10 @@ public class TransactionService {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("المعاملة غير موجودة برقم: " + id));
 
+        // طرح القيم القديمة من الإحصائيات اليومية قبل التعديل
+        dailyRollup.subtract(transaction);
+        changeTracker.recordChangeAfterCommit(transaction.getTerminalId());
+
         // تحديث البيانات
         if (transactionDetails.getTerminalId() != null) {
             transaction.setTerminalId(transactionDetails.getTerminalId());
@@ -118,6 +236,10 @@ public class TransactionService {
         }
 
         Transaction updatedTransaction = transactionRepository.save(transaction);
+        searchIndex.reindex(updatedTransaction);
+        dailyRollup.add(updatedTransaction);
+        latestTransactions.replaceAfterCommit(updatedTransaction);
+        changeTracker.recordChangeAfterCommit(updatedTransaction.getTerminalId());
         logger.debug("Transaction updated successfully: {}", updatedTransaction.getId());
 
         return updatedTransaction;
@@ -129,11 +251,15 @@ public class TransactionService {
     public void deleteTransaction(Long id) {
         logger.debug("Deleting transaction with id: {}", id);
 
-        if (!transactionRepository.existsById(id)) {
-            throw new RuntimeException("المعاملة غير موجودة برقم: " + id);
-        }
+        Transaction transaction = transactionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("المعاملة غير موجودة برقم: " + id));
 
-        transactionRepository.deleteById(id);
+        searchIndex.remove(id);
+        dailyRollup.subtract(transaction);
+        transactionRepository.delete(transaction);
+        transIdFilter.removeAfterCommit(transaction.getTransId());
+        latestTransactions.removeAfterCommit(id);
+        changeTracker.recordChangeAfterCommit(transaction.getTerminalId());
         logger.debug("Transaction deleted successfully with id: {}", id);
     }
 
@@ -201,61 +327,114 @@ public class TransactionService {
     }
 
     /**
-     * حساب إجمالي المبلغ للمعاملات في تاريخ معين
+     * إجمالي المبلغ وعدد المعاملات في يوم معين
      */
     @Transactional(readOnly = true)
-    public BigDecimal getTotalAmountByDate(LocalDateTime date) {
-        logger.debug("Calculating total amount for date: {}", date);
-        BigDecimal total = transactionRepository.sumAmountByDate(date);
-        return total != null ? total : BigDecimal.ZERO;
+    public DailyTransactionStats getDailyStats(LocalDateTime date) {
+        logger.debug("Calculating daily stats for date: {}", date);
+        if (statsFromRollup) {
+            DailyTransactionStats stats = dailyRollup.getDailyStats(date.toLocalDate());
+            // يوم بدون صفوف في جدول الإحصائيات قد يكون لم تتم تعبئته بعد (rebuild)، فيُحسب من الجداول
+            if (stats.getTransactionCount() > 0) {
+                return stats;
+            }
+        }
+        return sumAndCountForDay(date.toLocalDate());
     }
 
     /**
-     * عدد المعاملات في تاريخ معين
+     * الحساب من جداول المعاملات (الحالية والمؤرشفة) بنفس معنى جدول الإحصائيات
      */
-    @Transactional(readOnly = true)
-    public Long getTransactionCountByDate(LocalDateTime date) {
-        logger.debug("Counting transactions for date: {}", date);
-        return transactionRepository.countTransactionsByDate(date);
+    private DailyTransactionStats sumAndCountForDay(LocalDate day) {
+        LocalDateTime dayStart = day.atStartOfDay();
+        DailyTransactionStats current = transactionRepository.sumAndCountBetween(dayStart, dayStart.plusDays(1));
+        DailyTransactionStats archived = historyRepository.sumAndCountBetween(dayStart, dayStart.plusDays(1));
+        return new DailyTransactionStats(current.getTotalAmount().add(archived.getTotalAmount()),
+                current.getTransactionCount() + archived.getTransactionCount());
+    }
+
+    /**
+     * إعادة حساب جدول الإحصائيات اليومية من جدول المعاملات
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long rebuildDailyRollup(LocalDate from, LocalDate to) {
+        logger.debug("Rebuilding daily rollup from {} to {}", from, to);
+        return dailyRollup.rebuild(from, to);
     }
 
     /**
-     * جلب آخر المعاملات
+     * جلب آخر limit معاملة، من الذاكرة إذا كان الحد ضمن سعة الـ buffer وإلا بـ FETCH FIRST من قاعدة البيانات
      */
     @Transactional(readOnly = true)
-    public List<Transaction> getLatestTransactions() {
-        logger.debug("Fetching latest transactions");
-        return transactionRepository.findLatestTransactions();
+    public List<Transaction> getLatestTransactions(Integer limit) {
+        int count = limit != null ? limit : latestTransactions.getCapacity();
+        if (count < 1) {
+            throw new IllegalArgumentException("عدد المعاملات يجب أن يكون أكبر من صفر: " + count);
+        }
+        count = Math.min(count, Math.max(maxPageSize, latestTransactions.getCapacity()));
+        logger.debug("Fetching latest {} transactions", count);
+
+        Optional<List<Transaction>> cached = latestTransactions.latest(count);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        return transactionRepository.findFirstPage(PageRequest.of(0, count));
     }
 
     /**
-     * البحث الشامل في جميع حقول المعاملة
+     * البحث الشامل في الحقول النصية للمعاملة عبر فهرس المقاطع الثلاثية
      */
     @Transactional(readOnly = true)
     public List<Transaction> searchAllFields(String query) {
         logger.debug("Searching all transaction fields with query: {}", query);
         if (query == null || query.trim().isEmpty()) {
-            logger.warn("Empty search query provided, returning all transactions");
-            return getAllTransactions();
+            logger.warn("Empty search query provided, returning first page of transactions");
+            return getTransactionsPage(null, null).getTransactions();
         }
-        return transactionRepository.searchAllFields(query.trim());
+        return searchIndex.search(query);
     }
 
     /**
-     * البحث بمعايير متعددة
+     * إعادة بناء فهرس البحث الشامل من جدول المعاملات
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long rebuildSearchIndex() {
+        logger.debug("Rebuilding search index");
+        return searchIndex.rebuild();
+    }
+
+    /**
+     * البحث بمعايير متعددة - يتم إضافة شروط المعايير المرسلة فقط
      */
     @Transactional(readOnly = true)
-    public List<Transaction> searchByMultipleCriteria(
+    public TransactionPageResponse searchByMultipleCriteria(
             String transId, String terminalId, String merchantName,
             String maskPan, String authorizationNumber, String merchantAccountNumber,
-            String outletCode, BigDecimal minAmount, BigDecimal maxAmount) {
-        
-        logger.debug("Searching transactions with multiple criteria - transId: {}, terminalId: {}, merchantName: {}", 
+            String outletCode, BigDecimal minAmount, BigDecimal maxAmount,
+            String cursor, Integer size) {
+
+        logger.debug("Searching transactions with multiple criteria - transId: {}, terminalId: {}, merchantName: {}",
                     transId, terminalId, merchantName);
-        
-        return transactionRepository.searchByMultipleCriteria(
-                transId, terminalId, merchantName, maskPan, 
-                authorizationNumber, merchantAccountNumber, outletCode,
-                minAmount, maxAmount);
+
+        int pageSize = resolvePageSize(size);
+        TransactionCursor after = (cursor == null || cursor.isBlank())
+                ? new TransactionCursor(null, null)
+                : TransactionCursor.decode(cursor);
+
+        // الحقول ذات القيم المحددة تستخدم مطابقة تامة لتستفيد من الفهارس
+        Specification<Transaction> specification = Specification
+                .where(TransactionSpecifications.equalTo("transId", transId))
+                .and(TransactionSpecifications.equalTo("terminalId", terminalId))
+                .and(TransactionSpecifications.equalTo("authorizationNumber", authorizationNumber))
+                .and(TransactionSpecifications.equalTo("merchantAccountNumber", merchantAccountNumber))
+                .and(TransactionSpecifications.equalTo("outletCode", outletCode))
+                .and(TransactionSpecifications.containsIgnoreCase("merchantName", merchantName))
+                .and(TransactionSpecifications.containsIgnoreCase("maskPan", maskPan))
+                .and(TransactionSpecifications.amountAtLeast(minAmount))
+                .and(TransactionSpecifications.amountAtMost(maxAmount))
+                .and(TransactionSpecifications.after(after.getTransactionDate(), after.getId()));
+
+        List<Transaction> rows = transactionRepository.findSlice(specification, pageSize + 1);
+        return toPage(rows, pageSize);
     }
 }
@@ -0,0 +1,10 @@
+package com.example.springbootcrudapi.service;
+
+import java.util.Set;
+
+/**
+ * تغيير في مستخدم (تعديل، كلمة مرور، تفعيل/تعطيل، حذف) ينشره UserService
+ * logins فيها اسم المستخدم والإيميل القديم والجديد، وهي كل المفاتيح التي قد يكون المستخدم محفوظاً بها
+ */
+public record UserChangedEvent(Long userId, Set<String> logins) {
+}
@@ -2,15 +2,19 @@ package com.example.springbootcrudapi.service;
 
 import com.example.springbootcrudapi.entity.User;
 import com.example.springbootcrudapi.repository.UserRepository;
+import com.example.springbootcrudapi.security.TokenVersionRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * User Service للتعامل مع عمليات المستخدمين
@@ -27,6 +31,12 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * جلب جميع المستخدمين
      */
@@ -84,6 +94,8 @@ public class UserService {
 
         // حفظ المستخدم
         User savedUser = userRepository.save(user);
+        // قد يكون لنفس اسم المستخدم إصدار ملغى من مستخدم محذوف سابقاً
+        tokenVersionRegistry.updateAfterCommit(savedUser);
         logger.debug("User created successfully with id: {}", savedUser.getId());
 
         return savedUser;
@@ -97,6 +109,7 @@ public class UserService {
 
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("المستخدم غير موجود برقم: " + id));
+        String previousEmail = user.getEmail();
 
         // تحديث البيانات (عدا كلمة المرور واسم المستخدم)
         if (userDetails.getEmail() != null && !userDetails.getEmail().equals(user.getEmail())) {
@@ -111,15 +124,28 @@ public class UserService {
             user.setFullName(userDetails.getFullName());
         }
 
-        if (userDetails.getRole() != null) {
+        // تغيير الدور أو الحالة يبطل الـ tokens الحالية
+        boolean revokeTokens = false;
+
+        if (userDetails.getRole() != null && userDetails.getRole() != user.getRole()) {
             user.setRole(userDetails.getRole());
+            revokeTokens = true;
         }
 
         if (userDetails.isEnabled() != user.isEnabled()) {
             user.setEnabled(userDetails.isEnabled());
+            revokeTokens = true;
+        }
+
+        if (revokeTokens) {
+            user.incrementTokenVersion();
         }
 
         User updatedUser = userRepository.save(user);
+        if (revokeTokens) {
+            tokenVersionRegistry.updateAfterCommit(updatedUser);
+        }
+        publishChange(updatedUser, previousEmail);
         logger.debug("User updated successfully: {}", updatedUser.getId());
 
         return updatedUser;
@@ -136,7 +162,10 @@ public class UserService {
 
         // تشفير كلمة المرور الجديدة
         user.setPassword(passwordEncoder.encode(newPassword));
+        user.incrementTokenVersion();
         userRepository.save(user);
+        tokenVersionRegistry.updateAfterCommit(user);
+        publishChange(user, user.getEmail());
 
         logger.debug("Password changed successfully for user: {}", user.getUsername());
     }
@@ -147,11 +176,12 @@ public class UserService {
     public void deleteUser(Long id) {
         logger.debug("Deleting user with id: {}", id);
 
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("المستخدم غير موجود برقم: " + id);
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("المستخدم غير موجود برقم: " + id));
 
-        userRepository.deleteById(id);
+        userRepository.delete(user);
+        tokenVersionRegistry.revokeAfterCommit(user.getUsername());
+        publishChange(user, user.getEmail());
         logger.debug("User deleted successfully with id: {}", id);
     }
 
@@ -192,8 +222,24 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("المستخدم غير موجود برقم: " + id));
 
         user.setEnabled(!user.isEnabled());
+        user.incrementTokenVersion();
         userRepository.save(user);
+        tokenVersionRegistry.updateAfterCommit(user);
+        publishChange(user, user.getEmail());
 
         logger.debug("User status toggled for user: {} - enabled: {}", user.getUsername(), user.isEnabled());
     }
+
+    /**
+     * نشر UserChangedEvent بكل المفاتيح التي قد يكون المستخدم محفوظاً بها (المستمعون ينفذون بعد الـ commit)
+     */
+    private void publishChange(User user, String previousEmail) {
+        Set<String> logins = new HashSet<>();
+        logins.add(user.getUsername());
+        logins.add(user.getEmail());
+        if (previousEmail != null) {
+            logins.add(previousEmail);
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), logins));
+    }
 }
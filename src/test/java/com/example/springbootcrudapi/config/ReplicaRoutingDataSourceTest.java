@@ -0,0 +1,203 @@
+package com.example.springbootcrudapi.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * التحقق من توجيه القراءة والكتابة باستخدام قاعدتي H2 مستقلتين (رئيسية ونسخة قراءة)
+ * كل قاعدة تحتوي على جدول بصف واحد يحمل اسمها، لذلك نتيجة الاستعلام تبين أين تم تنفيذه
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.endRequest();
+        new JdbcTemplate(primary).execute("SHUTDOWN");
+        new JdbcTemplate(replica).execute("SHUTDOWN");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        Routing routing = routing(Map.of("replica-1", replica), ReplicaRoutingDataSource.Strategy.ROUND_ROBIN);
+
+        assertThat(routing.read()).isEqualTo("replica");
+        assertThat(routing.write()).isEqualTo("primary");
+        // بدون transaction (مثل JdbcTemplate المباشر وإنشاء الجداول) تذهب للرئيسية
+        assertThat(routing.jdbc.queryForObject("SELECT NAME FROM NODE", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void requestHeaderAndEarlierWriteKeepReadsOnPrimary() {
+        Routing routing = routing(Map.of("replica-1", replica), ReplicaRoutingDataSource.Strategy.ROUND_ROBIN);
+
+        ReplicaRoutingDataSource.beginRequest(true);
+        assertThat(routing.read()).isEqualTo("primary");
+
+        ReplicaRoutingDataSource.beginRequest(false);
+        assertThat(routing.read()).isEqualTo("replica");
+        routing.write();
+        assertThat(routing.read()).isEqualTo("primary");
+
+        ReplicaRoutingDataSource.endRequest();
+        assertThat(routing.read()).isEqualTo("replica");
+    }
+
+    @Test
+    void unreachableReplicaFailsOverToPrimaryUntilHealthy() {
+        DriverManagerDataSource down = new DriverManagerDataSource("jdbc:h2:mem:missing;IFEXISTS=TRUE", "sa", "");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", down);
+        Routing routing = routing(replicas, ReplicaRoutingDataSource.Strategy.ROUND_ROBIN);
+
+        assertThat(routing.read()).isEqualTo("primary");
+        assertThat(routing.read()).isEqualTo("primary");
+        assertThat(routing.dataSource.getStats()).containsEntry("failovers", 2L);
+
+        down.setUrl(url("replica"));
+        routing.dataSource.checkHealth(1);
+        assertThat(routing.read()).isEqualTo("replica");
+    }
+
+    @Test
+    void leastPendingPrefersReplicaWithFewerOpenConnections() throws Exception {
+        DataSource second = database("replica2");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica);
+        replicas.put("replica-2", second);
+        Routing routing = routing(replicas, ReplicaRoutingDataSource.Strategy.LEAST_PENDING);
+
+        try (Connection held = openReadConnection(routing.dataSource)) {
+            String busy = nodeName(held);
+            String other = "replica".equals(busy) ? "replica2" : "replica";
+            for (int i = 0; i < 4; i++) {
+                assertThat(routing.read()).isEqualTo(other);
+            }
+        } finally {
+            new JdbcTemplate(second).execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    void roundRobinAlternatesBetweenReplicas() {
+        DataSource second = database("replica2");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica);
+        replicas.put("replica-2", second);
+        Routing routing = routing(replicas, ReplicaRoutingDataSource.Strategy.ROUND_ROBIN);
+
+        List<String> nodes = List.of(routing.read(), routing.read(), routing.read(), routing.read());
+        assertThat(nodes).containsOnly("replica", "replica2");
+        assertThat(nodes.get(0)).isNotEqualTo(nodes.get(1));
+        new JdbcTemplate(second).execute("SHUTDOWN");
+    }
+
+    @Test
+    void explicitCredentialsAreRoutedLikeDefaultConnections() throws Exception {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica),
+                ReplicaRoutingDataSource.Strategy.ROUND_ROBIN);
+        TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        template.setReadOnly(true);
+
+        String read = template.execute(status -> {
+            try (Connection connection = dataSource.getConnection("sa", "")) {
+                return nodeName(connection);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(read).isEqualTo("replica");
+        try (Connection connection = dataSource.getConnection("sa", "")) {
+            assertThat(nodeName(connection)).isEqualTo("primary");
+        }
+    }
+
+    private Connection openReadConnection(ReplicaRoutingDataSource dataSource) throws Exception {
+        // فتح اتصال قراءة يبقى مفتوحاً خارج الـ transaction لمحاكاة استعلام طويل
+        TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        template.setReadOnly(true);
+        return template.execute(status -> {
+            try {
+                return dataSource.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static String nodeName(Connection connection) throws Exception {
+        var resultSet = connection.createStatement().executeQuery("SELECT NAME FROM NODE");
+        resultSet.next();
+        return resultSet.getString(1);
+    }
+
+    private Routing routing(Map<String, DataSource> replicas, ReplicaRoutingDataSource.Strategy strategy) {
+        return new Routing(new ReplicaRoutingDataSource(primary, replicas, strategy));
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(url(name), "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE NODE (NAME VARCHAR(20))");
+        jdbc.update("INSERT INTO NODE VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static String url(String name) {
+        return "jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * نفس ترتيب الإنتاج: TransactionManager فوق LazyConnectionDataSourceProxy فوق التوجيه
+     */
+    private static final class Routing {
+
+        private final ReplicaRoutingDataSource dataSource;
+        private final JdbcTemplate jdbc;
+        private final TransactionTemplate readOnly;
+        private final TransactionTemplate readWrite;
+
+        private Routing(ReplicaRoutingDataSource dataSource) {
+            this.dataSource = dataSource;
+            DataSource lazy = new LazyConnectionDataSourceProxy(dataSource);
+            this.jdbc = new JdbcTemplate(lazy);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(lazy);
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+            this.readWrite = new TransactionTemplate(transactionManager);
+        }
+
+        private String read() {
+            return readOnly.execute(status -> jdbc.queryForObject("SELECT NAME FROM NODE", String.class));
+        }
+
+        private String write() {
+            return readWrite.execute(status -> {
+                jdbc.update("UPDATE NODE SET NAME = NAME");
+                return jdbc.queryForObject("SELECT NAME FROM NODE", String.class);
+            });
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.springbootcrudapi.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * مقارنة تنفيذ طلبات متزامنة كثيرة على pool ثابت من Platform Threads (مثل Tomcat) وعلى Virtual Threads
+ * نصف الطلبات تنتظر قاعدة البيانات (استعلام يستغرق db-latency-ms)، والنصف الآخر يُخدم من الذاكرة
+ * (cache أو آخر المعاملات)، والمقياس المهم هو زمن طلبات الذاكرة عندما تكون كل الـ threads تنتظر قاعدة البيانات
+ * عميل H2 يقرأ من الـ socket داخل synchronized، لذلك نتيجة Virtual Threads هنا تمثل driver يثبت الـ thread
+ * (انظر pinnedEvents وتحذيرات VirtualThreadPinningMonitor)، وتُقارن بنفس التشغيل على Oracle JDBC 21+
+ *
+ * للمقارنة على JDK 21: mvn test -Dtest=VirtualThreadsBenchmarkTest -Dbenchmark.concurrency=10000 -Dbenchmark.pool-size=50
+ */
+class VirtualThreadsBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsBenchmarkTest.class);
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 1000);
+    private static final int DB_LATENCY_MS = Integer.getInteger("benchmark.db-latency-ms", 20);
+    private static final int POOL_SIZE = Integer.getInteger("benchmark.pool-size", 50);
+    private static final int PLATFORM_THREADS = Integer.getInteger("benchmark.platform-threads", 200);
+
+    private Server server;
+    private HikariDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // H2 كخادم TCP حتى يكون الانتظار على الشبكة كما في Oracle (H2 المدمج ينفذ الاستعلام داخل synchronized)
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:vtbench;MODE=Oracle;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setConnectionTimeout(60_000);
+        dataSource = new HikariDataSource(config);
+        try (Connection connection = dataSource.getConnection()) {
+            // دالة SLEEP_MS في H2 لمحاكاة زمن استعلام Oracle
+            connection.createStatement().execute("CREATE ALIAS IF NOT EXISTS SLEEP_MS FOR \"java.lang.Thread.sleep(long)\"");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+        server.stop();
+    }
+
+    @Test
+    void platformThreadPool() throws Exception {
+        int completed = run(Executors.newFixedThreadPool(PLATFORM_THREADS), "platform(" + PLATFORM_THREADS + ")");
+        assertThat(completed).isEqualTo(CONCURRENCY);
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isSupported(), "virtual threads require Java 21");
+
+        try (VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(1)) {
+            int completed = run(VirtualThreads.newExecutor("bench-vt-"), "virtual");
+            assertThat(completed).isEqualTo(CONCURRENCY);
+
+            // أحداث JFR تصل على دفعات كل ثانية تقريباً
+            Thread.sleep(1500);
+            logger.debug("Thread benchmark virtual pinning: {}", monitor.getStats());
+            // التثبيت داخل عميل H2 يجب أن يظهر في الـ monitor، وهو نفس ما يظهر في الإنتاج مع driver غير مناسب
+            assertThat((Long) monitor.getStats().get("pinnedEvents")).isPositive();
+        }
+    }
+
+    private int run(ExecutorService executor, String mode) throws Exception {
+        List<Future<Long>> database = new ArrayList<>(CONCURRENCY / 2);
+        List<Future<Long>> memory = new ArrayList<>(CONCURRENCY / 2);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                long submitted = System.nanoTime();
+                if (i % 2 == 0) {
+                    database.add(executor.submit(() -> {
+                        queryDatabase();
+                        return System.nanoTime() - submitted;
+                    }));
+                } else {
+                    memory.add(executor.submit(() -> System.nanoTime() - submitted));
+                }
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        logger.debug(String.format(Locale.ROOT, "Thread benchmark %s: requests=%d, pool=%d, dbLatency=%dms, %.0f req/s, "
+                        + "database p99=%dms, memory p50=%dms p99=%dms",
+                mode, CONCURRENCY, POOL_SIZE, DB_LATENCY_MS, CONCURRENCY / (elapsedNanos / 1_000_000_000.0),
+                percentile(database, 0.99), percentile(memory, 0.50), percentile(memory, 0.99)));
+        return database.size() + memory.size();
+    }
+
+    private void queryDatabase() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT SLEEP_MS(?)")) {
+            statement.setInt(1, DB_LATENCY_MS);
+            statement.executeQuery().close();
+        }
+    }
+
+    private static long percentile(List<Future<Long>> latencies, double percentile) throws Exception {
+        long[] values = new long[latencies.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = latencies.get(i).get();
+        }
+        Arrays.sort(values);
+        return values[(int) Math.min(values.length - 1, Math.ceil(percentile * values.length) - 1)] / 1_000_000;
+    }
+}
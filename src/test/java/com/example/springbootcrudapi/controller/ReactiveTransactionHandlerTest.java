@@ -0,0 +1,184 @@
+package com.example.springbootcrudapi.controller;
+
+import com.example.springbootcrudapi.config.ReactiveHttpServer;
+import com.example.springbootcrudapi.dto.TransactionPageResponse;
+import com.example.springbootcrudapi.entity.Transaction;
+import com.example.springbootcrudapi.entity.User;
+import com.example.springbootcrudapi.repository.UserRepository;
+import com.example.springbootcrudapi.security.JwtUtil;
+import com.example.springbootcrudapi.service.TransactionService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * التحقق من أن الواجهة التفاعلية ترجع نفس نتائج TransactionController، ومقارنة سرعة الاثنين
+ * كلاهما يقرأ نفس قاعدة H2 (JDBC في الواجهة العادية و R2DBC في التفاعلية)
+ *
+ * للمقارنة بحمل أكبر: mvn test -Dtest=ReactiveTransactionHandlerTest -Dbenchmark.requests=20000 -Dbenchmark.concurrency=500
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        // سجلات DEBUG لكل طلب واستعلام تطغى على زمن المقارنة
+        "logging.level.com.example.springbootcrudapi=INFO",
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.org.springframework.security=INFO",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "reactive.server.enabled=true",
+        "reactive.server.port=0",
+        "reactive.r2dbc.url=r2dbc:h2:mem:///reactive?options=MODE=Oracle;DB_CLOSE_DELAY=-1"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactiveTransactionHandlerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTransactionHandlerTest.class);
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 500);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 100);
+
+    private static final ParameterizedTypeReference<List<Transaction>> TRANSACTIONS = new ParameterizedTypeReference<>() {
+    };
+
+    @LocalServerPort
+    private int servletPort;
+
+    @Autowired
+    private ReactiveHttpServer reactiveServer;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private WebClient servlet;
+    private WebClient reactive;
+
+    @BeforeAll
+    void setUp() {
+        User user = userRepository.save(new User("reactive", "reactive@example.com", "x", "Reactive Reader"));
+        String token = jwtUtil.generateToken(user);
+        servlet = client(servletPort, token);
+        reactive = client(reactiveServer.getPort(), token);
+
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 8, 0);
+        for (int i = 0; i < 300; i++) {
+            // أسماء تحتوي على % و _ للتحقق من تطابق التهريب في البحث الجزئي
+            String merchant = i % 3 == 0 ? "Cafe 100% Arabica" : i % 3 == 1 ? "Book_Store" : "BookXStore";
+            Transaction transaction = new Transaction("RX" + i, "TERM" + (i % 4), merchant,
+                    BigDecimal.valueOf(10 + i), start.plusHours(i % 50));
+            transaction.setMaskPan("4111****" + (1000 + i));
+            transactionService.createTransaction(transaction);
+        }
+    }
+
+    @Test
+    void returnsSameTransactionsAsServletController() {
+        String dateRange = "/date-range?startDate=2025-03-01T10:00:00&endDate=2025-03-02T02:00:00";
+        assertSameIds("/terminal/TERM1");
+        // _ و % في البحث بالاسم حروف عادية: book_ تطابق Book_Store فقط وليس BookXStore
+        assertSameIds("/search/merchant?merchantName=book_");
+        assertThat(reactiveIds("/search/merchant?merchantName=book_", MediaType.APPLICATION_JSON)).hasSize(100);
+        assertThat(reactiveIds("/search/merchant?merchantName=100%", MediaType.APPLICATION_JSON)).hasSize(100);
+        assertSameIds("/search/merchant?merchantName=ARABICA");
+        assertSameIds(dateRange);
+        assertThat(reactive.get().uri("/api/reactive/transactions" + dateRange).retrieve()
+                .bodyToFlux(Transaction.class).map(Transaction::getTransactionDate).collectList().block())
+                .isSortedAccordingTo(Comparator.reverseOrder());
+
+        for (String filter : List.of("merchantName=100%", "merchantName=book_store", "terminalId=TERM2&minAmount=50",
+                "maskPan=1111&maxAmount=200", "")) {
+            List<Long> page = servlet.get().uri("/api/transactions/filter?size=40&" + filter)
+                    .retrieve().bodyToMono(TransactionPageResponse.class).block()
+                    .getTransactions().stream().map(Transaction::getId).toList();
+            assertThat(reactiveIds("/filter?size=40&" + filter, MediaType.APPLICATION_JSON))
+                    .as(filter).isNotEmpty().containsExactlyElementsOf(page);
+        }
+    }
+
+    @Test
+    void streamsNdjsonAndRejectsInvalidRequests() {
+        assertThat(reactiveIds("/terminal/TERM0", MediaType.APPLICATION_NDJSON)).hasSize(75);
+
+        assertThatThrownBy(() -> reactiveIds("/filter?size=0", MediaType.APPLICATION_JSON))
+                .isInstanceOfSatisfying(WebClientResponseException.class,
+                        e -> assertThat(e.getStatusCode().value()).isEqualTo(400));
+        assertThatThrownBy(() -> WebClient.create("http://localhost:" + reactiveServer.getPort())
+                .get().uri("/api/reactive/transactions/terminal/TERM0").retrieve().toBodilessEntity().block())
+                .isInstanceOfSatisfying(WebClientResponseException.class,
+                        e -> assertThat(e.getStatusCode().value()).isEqualTo(401));
+    }
+
+    @Test
+    void throughputComparedWithServletController() {
+        String uri = "/terminal/TERM3";
+        double servletRate = throughput(servlet, "/api/transactions" + uri);
+        double reactiveRate = throughput(reactive, "/api/reactive/transactions" + uri);
+        logger.debug(String.format(Locale.ROOT, "Read API benchmark: requests=%d, concurrency=%d, servlet %.0f req/s, "
+                + "reactive %.0f req/s", REQUESTS, CONCURRENCY, servletRate, reactiveRate));
+        assertThat(servletRate).isPositive();
+        assertThat(reactiveRate).isPositive();
+    }
+
+    private double throughput(WebClient client, String uri) {
+        long start = System.nanoTime();
+        Long rows = Flux.range(0, REQUESTS)
+                .flatMap(i -> client.get().uri(uri).retrieve().bodyToMono(TRANSACTIONS), CONCURRENCY)
+                .map(List::size)
+                .reduce(0L, Long::sum)
+                .block();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        assertThat(rows).isEqualTo(REQUESTS * 75L);
+        return REQUESTS / seconds;
+    }
+
+    private void assertSameIds(String path) {
+        List<Long> expected = servlet.get().uri("/api/transactions" + path).retrieve()
+                .bodyToMono(TRANSACTIONS).block().stream().map(Transaction::getId).toList();
+        // المعاملات بنفس التاريخ قد تأتي بأي ترتيب في الواجهتين
+        assertThat(reactiveIds(path, MediaType.APPLICATION_JSON)).as(path)
+                .isNotEmpty().containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    private List<Long> reactiveIds(String path, MediaType accept) {
+        return reactive.get().uri("/api/reactive/transactions" + path).accept(accept).retrieve()
+                .bodyToFlux(Transaction.class).map(Transaction::getId).collectList().block();
+    }
+
+    private static WebClient client(int port, String token) {
+        return WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build();
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.springbootcrudapi.controller;
+
+import com.example.springbootcrudapi.config.BinaryFormats;
+import com.example.springbootcrudapi.config.TransactionProtobuf;
+import com.example.springbootcrudapi.dto.BatchIngestResponse;
+import com.example.springbootcrudapi.entity.Transaction;
+import com.example.springbootcrudapi.entity.User;
+import com.example.springbootcrudapi.repository.UserRepository;
+import com.example.springbootcrudapi.security.JwtUtil;
+import com.example.springbootcrudapi.service.TransactionService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * اختيار الصيغة بالـ Accept و Content-Type، وتطابق المعاملات بين JSON و CBOR و Smile و Protobuf
+ * مع مقارنة الحجم وزمن الترميز لكل صيغة:
+ * mvn test -Dtest=TransactionBinaryFormatsTest -Dbenchmark.transactions=50000 -Dbenchmark.iterations=50
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:binary;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransactionBinaryFormatsTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionBinaryFormatsTest.class);
+
+    private static final int TRANSACTIONS = Integer.getInteger("benchmark.transactions", 10_000);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20);
+
+    private static final TypeReference<List<Transaction>> LIST = new TypeReference<>() {
+    };
+
+    private static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR,
+            BinaryFormats.APPLICATION_SMILE, TransactionProtobuf.MEDIA_TYPE);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BinaryFormats binaryFormats;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String token;
+
+    @BeforeAll
+    void setUp() {
+        User user = userRepository.save(new User("binary", "binary@example.com", "x", "Binary Consumer"));
+        token = jwtUtil.generateToken(user);
+        for (int i = 0; i < 30; i++) {
+            transactionService.createTransaction(transaction("BIN" + i, "BIN1", i));
+        }
+    }
+
+    @Test
+    void negotiatesBinaryFormatsWithJsonAsDefault() throws Exception {
+        HttpResponse<byte[]> json = get("/api/transactions/terminal/BIN1", null);
+        assertThat(json.headers().firstValue("Content-Type").orElseThrow()).startsWith("application/json");
+        List<Transaction> expected = objectMapper.readValue(json.body(), LIST);
+        assertThat(expected).hasSize(30);
+
+        for (MediaType format : FORMATS.subList(1, FORMATS.size())) {
+            HttpResponse<byte[]> response = get("/api/transactions/terminal/BIN1", format);
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(MediaType.parseMediaType(response.headers().firstValue("Content-Type").orElseThrow())
+                    .isCompatibleWith(format)).as(format.toString()).isTrue();
+            assertThat(response.body().length).as(format.toString()).isLessThan(json.body().length);
+            assertThat(decode(format, response.body())).as(format.toString())
+                    .usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+        }
+
+        // نوع غير مدعوم بـ protobuf (رسالة خطأ) يرجع JSON إذا قبله العميل كبديل
+        HttpResponse<byte[]> error = client.send(request("/api/transactions/filter?size=0")
+                .header("Accept", "application/x-protobuf, application/json;q=0.5").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(error.statusCode()).isEqualTo(400);
+        assertThat(error.headers().firstValue("Content-Type").orElseThrow()).startsWith("application/json");
+    }
+
+    @Test
+    void ingestsBatchesInEveryFormat() throws Exception {
+        for (MediaType format : FORMATS) {
+            List<Transaction> batch = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                batch.add(transaction("BATCH-" + format.getSubtype() + "-" + i, "BIN2", i));
+            }
+            HttpResponse<byte[]> response = client.send(request("/api/transactions/batch")
+                    .header("Content-Type", format.toString())
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(encode(format, batch))).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            assertThat(response.statusCode()).as(format.toString()).isEqualTo(200);
+            assertThat(objectMapper.readValue(response.body(), BatchIngestResponse.class).getCreated())
+                    .as(format.toString()).isEqualTo(5);
+        }
+        assertThat(transactionService.getTransactionsByTerminalId("BIN2")).hasSize(5 * FORMATS.size());
+    }
+
+    @Test
+    void payloadSizeAndSerializationTimePerFormat() throws Exception {
+        List<Transaction> transactions = new ArrayList<>(TRANSACTIONS);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            Transaction transaction = transaction("BENCH" + i, "TERM" + (i % 500), i);
+            transaction.setId(1_000_000L + i);
+            transactions.add(transaction);
+        }
+
+        logger.debug(String.format(Locale.ROOT, "Transaction payloads (%d transactions, %d iterations):",
+                TRANSACTIONS, ITERATIONS));
+        for (MediaType format : FORMATS) {
+            byte[] payload = encode(format, transactions);
+            assertThat(decode(format, payload)).hasSize(TRANSACTIONS);
+            // إحماء الـ JIT قبل القياس
+            for (int i = 0; i < 5; i++) {
+                decode(format, encode(format, transactions));
+            }
+
+            long encodeNanos = 0;
+            long decodeNanos = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                payload = encode(format, transactions);
+                encodeNanos += System.nanoTime() - start;
+                start = System.nanoTime();
+                decode(format, payload);
+                decodeNanos += System.nanoTime() - start;
+            }
+            logger.debug(String.format(Locale.ROOT, "  %-28s %,12d bytes  %7.1f B/txn  encode %7.2f ms  decode %7.2f ms",
+                    format, payload.length, (double) payload.length / TRANSACTIONS,
+                    encodeNanos / 1e6 / ITERATIONS, decodeNanos / 1e6 / ITERATIONS));
+        }
+    }
+
+    private byte[] encode(MediaType format, List<Transaction> transactions) throws IOException {
+        if (format.equals(TransactionProtobuf.MEDIA_TYPE)) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            TransactionProtobuf.writeList(transactions, null, null, null, output);
+            return output.toByteArray();
+        }
+        return binaryFormats.mapperFor(format).writeValueAsBytes(transactions);
+    }
+
+    private List<Transaction> decode(MediaType format, byte[] payload) throws IOException {
+        if (format.equals(TransactionProtobuf.MEDIA_TYPE)) {
+            List<Transaction> transactions = new ArrayList<>();
+            TransactionProtobuf.reader(new ByteArrayInputStream(payload)).forEachRemaining(transactions::add);
+            return transactions;
+        }
+        return binaryFormats.mapperFor(format).readValue(payload, LIST);
+    }
+
+    private static Transaction transaction(String transId, String terminalId, int i) {
+        Transaction transaction = new Transaction(transId, terminalId, "Binary Merchant " + (i % 40),
+                new BigDecimal("125.50").add(BigDecimal.valueOf(i, 2)),
+                LocalDateTime.of(2025, 5, 1, 10, 0).plusSeconds(i * 37L).plusNanos(123_456_000));
+        transaction.setMerchantCommission(new BigDecimal("1.25"));
+        transaction.setProcessingDate(transaction.getTransactionDate().plusSeconds(2));
+        transaction.setMaskPan("4111****" + (1000 + i % 9000));
+        transaction.setAuthorizationNumber(String.valueOf(100000 + i));
+        transaction.setMerchantAccountNumber("ACC" + (i % 40));
+        transaction.setOutletCode("OUT" + (i % 10));
+        return transaction;
+    }
+
+    private HttpResponse<byte[]> get(String path, MediaType accept) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = request(path);
+        if (accept != null) {
+            builder.header("Accept", accept.toString());
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.springbootcrudapi.controller;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import com.example.springbootcrudapi.entity.User;
+import com.example.springbootcrudapi.repository.UserRepository;
+import com.example.springbootcrudapi.security.JwtUtil;
+import com.example.springbootcrudapi.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ETag من أرقام إصدار المعاملات: 304 بدون تنفيذ الاستعلام، وإصدار جديد فقط بعد تغيير يخص النتيجة
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:conditional;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransactionControllerConditionalGetTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 4, 1, 9, 0);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String token;
+
+    @BeforeAll
+    void setUp() {
+        User user = userRepository.save(new User("poller", "poller@example.com", "x", "Terminal Poller"));
+        token = jwtUtil.generateToken(user);
+        for (int i = 0; i < 40; i++) {
+            create("CG" + i, i % 2 == 0 ? "POLL1" : "POLL2");
+        }
+    }
+
+    @Test
+    void terminalListIsNotModifiedUntilThatTerminalChanges() throws Exception {
+        HttpResponse<byte[]> first = get("/api/transactions/terminal/POLL1", null);
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(etag).startsWith("W/\"");
+        assertThat(first.headers().firstValue("Cache-Control").orElseThrow()).contains("no-cache");
+
+        // استعلام المستخدم في فلتر JWT يبقى، لذلك يتم عد تحميل المعاملات فقط
+        EntityStatistics transactions = entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+                .getEntityStatistics(Transaction.class.getName());
+        long loaded = transactions.getLoadCount();
+        HttpResponse<byte[]> cached = get("/api/transactions/terminal/POLL1", etag);
+        assertThat(cached.statusCode()).isEqualTo(304);
+        assertThat(cached.body()).isEmpty();
+        assertThat(cached.headers().firstValue("ETag")).contains(etag);
+        assertThat(transactions.getLoadCount()).isEqualTo(loaded);
+
+        create("CG-other", "POLL2");
+        assertThat(get("/api/transactions/terminal/POLL1", etag).statusCode()).isEqualTo(304);
+
+        create("CG-same", "POLL1");
+        HttpResponse<byte[]> changed = get("/api/transactions/terminal/POLL1", etag);
+        assertThat(changed.statusCode()).isEqualTo(200);
+        assertThat(changed.headers().firstValue("ETag").orElseThrow()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void latestAndStatsChangeWithAnyTransaction() throws Exception {
+        String stats = "/api/transactions/stats/total-amount?date=2025-04-01T00:00:00";
+        String latestTag = get("/api/transactions/latest?limit=10", null).headers().firstValue("ETag").orElseThrow();
+        String statsTag = get(stats, null).headers().firstValue("ETag").orElseThrow();
+        assertThat(get("/api/transactions/latest?limit=10", latestTag).statusCode()).isEqualTo(304);
+        assertThat(get(stats, statsTag).statusCode()).isEqualTo(304);
+
+        create("CG-latest", "POLL3");
+        assertThat(get("/api/transactions/latest?limit=10", latestTag).statusCode()).isEqualTo(200);
+        assertThat(get(stats, statsTag).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void compressesLargeJsonBodies() throws Exception {
+        HttpResponse<byte[]> plain = get("/api/transactions/terminal/POLL2", null);
+        HttpResponse<byte[]> gzip = client.send(request("/api/transactions/terminal/POLL2", null)
+                .header("Accept-Encoding", "gzip").build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(plain.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(gzip.headers().firstValue("Content-Encoding")).contains("gzip");
+        assertThat(gzip.headers().firstValue("ETag")).isPresent();
+        assertThat(gzip.body().length).isLessThan(plain.body().length / 2);
+    }
+
+    @Test
+    void createsTransactionsWithoutTransId() throws Exception {
+        String body = "{\"terminalId\":\"POLL9\",\"merchantName\":\"No TransId\",\"sourceAmount\":5}";
+        for (int i = 0; i < 2; i++) {
+            HttpResponse<String> created = client.send(request("/api/transactions", null)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertThat(created.statusCode()).isEqualTo(201);
+        }
+
+        assertThat(transactionService.getTransactionsByTerminalId("POLL9"))
+                .hasSize(2)
+                .allSatisfy(transaction -> assertThat(transaction.getTransId()).isNull());
+    }
+
+    private void create(String transId, String terminalId) {
+        transactionService.createTransaction(new Transaction(transId, terminalId, "Polling Merchant " + transId,
+                BigDecimal.TEN, DAY));
+    }
+
+    private HttpResponse<byte[]> get(String path, String ifNoneMatch) throws IOException, InterruptedException {
+        return client.send(request(path, ifNoneMatch).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpRequest.Builder request(String path, String ifNoneMatch) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token);
+        if (ifNoneMatch != null) {
+            builder.header("If-None-Match", ifNoneMatch);
+        }
+        return builder;
+    }
+}
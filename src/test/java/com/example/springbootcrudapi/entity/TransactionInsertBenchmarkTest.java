@@ -0,0 +1,103 @@
+package com.example.springbootcrudapi.entity;
+
+import com.example.springbootcrudapi.config.IdAllocationConfig;
+import com.example.springbootcrudapi.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * قياس سرعة إدخال المعاملات وعدد استدعاءات TRANSACTION_SEQ حسب حجم كتلة المعرفات
+ *
+ * للمقارنة: mvn test -Dtest=TransactionInsertBenchmarkTest -Did.allocation.block-size=1 -Dbenchmark.rows=50000
+ * ثم نفس الأمر مع -Did.allocation.block-size=50
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idbench;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.springbootcrudapi.entity.TransactionInsertBenchmarkTest$SequenceCallCounter"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(IdAllocationConfig.class)
+class TransactionInsertBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionInsertBenchmarkTest.class);
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Value("${id.allocation.block-size:" + PooledSequenceGenerator.DEFAULT_BLOCK_SIZE + "}")
+    private int blockSize;
+
+    @Value("${benchmark.rows:2000}")
+    private int rows;
+
+    @Test
+    void insertsUseOneSequenceCallPerBlock() {
+        LocalDateTime date = LocalDateTime.of(2025, 8, 22, 10, 0);
+        SequenceCallCounter.CALLS.set(0);
+
+        long start = System.nanoTime();
+        List<Transaction> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < rows; i++) {
+            chunk.add(new Transaction("BENCH" + i, "TERM001", "Benchmark", BigDecimal.TEN, date));
+            if (chunk.size() == CHUNK_SIZE || i == rows - 1) {
+                transactionRepository.saveAll(chunk);
+                entityManager.flush();
+                entityManager.clear();
+                chunk.clear();
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        long sequenceCalls = SequenceCallCounter.CALLS.get();
+        logger.debug(String.format(Locale.ROOT, "Insert benchmark: rows=%d, blockSize=%d, sequenceCalls=%d, %.0f rows/s",
+                rows, blockSize, sequenceCalls, rows / (elapsedNanos / 1_000_000_000.0)));
+
+        // pooled-lo يحجز كتلة كاملة في كل استدعاء للـ Sequence
+        assertThat(sequenceCalls).isLessThanOrEqualTo((rows + blockSize - 1) / blockSize);
+        assertThat(transactionRepository.count()).isEqualTo(rows);
+    }
+
+    /**
+     * عدّ استدعاءات TRANSACTION_SEQ التي يرسلها Hibernate
+     */
+    public static class SequenceCallCounter implements StatementInspector {
+
+        static final AtomicLong CALLS = new AtomicLong();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.toUpperCase(Locale.ROOT).contains("TRANSACTION_SEQ")) {
+                CALLS.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+}
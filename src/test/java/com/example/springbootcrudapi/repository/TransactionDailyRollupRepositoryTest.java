@@ -0,0 +1,60 @@
+package com.example.springbootcrudapi.repository;
+
+import com.example.springbootcrudapi.dto.DailyTransactionStats;
+import com.example.springbootcrudapi.entity.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * إعادة حساب الإحصائيات اليومية تشمل المعاملات المؤرشفة، فلا تضيع إجماليات الأيام بعد الأرشفة
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rollup;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TransactionDailyRollupRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 5);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionHistoryRepository historyRepository;
+
+    @Autowired
+    private TransactionDailyRollupRepository rollupRepository;
+
+    @Test
+    void rebuildIncludesArchivedTransactions() {
+        Transaction archived = transactionRepository.saveAndFlush(new Transaction("ROLL-1", "TERM001", "Old",
+                new BigDecimal("100.00"), DAY.atTime(9, 0)));
+        transactionRepository.saveAndFlush(new Transaction("ROLL-2", "TERM001", "Current",
+                new BigDecimal("50.00"), DAY.atTime(18, 0)));
+        historyRepository.copyToHistory(List.of(archived.getId()), LocalDateTime.now());
+        historyRepository.deleteFromCurrent(List.of(archived.getId()));
+
+        rollupRepository.deleteByDayRange(DAY, DAY.plusDays(1));
+        rollupRepository.rebuildFromTransactions(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+
+        DailyTransactionStats stats = rollupRepository.findStatsByDay(DAY);
+        assertThat(stats.getTransactionCount()).isEqualTo(2L);
+        assertThat(stats.getTotalAmount()).isEqualByComparingTo("150.00");
+        assertThat(historyRepository.sumAndCountBetween(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay())
+                .getTransactionCount()).isEqualTo(1L);
+        assertThat(rollupRepository.findEarliestDay()).isEqualTo(DAY);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.springbootcrudapi.repository;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * التحقق من أن استعلامات TransactionRepository تستخدم الفهارس المعرّفة على الجدول
+ * يتم التقاط الـ SQL الفعلي من Hibernate ثم تنفيذ EXPLAIN عليه في H2 بوضع Oracle
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:plans;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.springbootcrudapi.repository.TransactionRepositoryPlanTest$SqlCapture"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TransactionRepositoryPlanTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 8, 22, 0, 0);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void clearCapturedSql() {
+        SqlCapture.STATEMENTS.clear();
+    }
+
+    @Test
+    void findByTransIdUsesTransIdIndex() throws SQLException {
+        transactionRepository.findByTransId("TXN001");
+        assertLastQueryUses("UK_TXN_TRANS_ID");
+    }
+
+    @Test
+    void findByTerminalIdUsesTerminalIndex() throws SQLException {
+        transactionRepository.findByTerminalId("TERM001");
+        assertLastQueryUses("IDX_TXN_TERMINAL_ID");
+    }
+
+    @Test
+    void findByAuthorizationNumberUsesAuthorizationIndex() throws SQLException {
+        transactionRepository.findByAuthorizationNumber("AUTH001");
+        assertLastQueryUses("IDX_TXN_AUTH_NUMBER");
+    }
+
+    @Test
+    void findByMerchantAccountNumberUsesMerchantAccountIndex() throws SQLException {
+        transactionRepository.findByMerchantAccountNumber("ACC001");
+        assertLastQueryUses("IDX_TXN_MERCHANT_ACCOUNT");
+    }
+
+    @Test
+    void findByOutletCodeUsesOutletIndex() throws SQLException {
+        transactionRepository.findByOutletCode("OUT001");
+        assertLastQueryUses("IDX_TXN_OUTLET_CODE");
+    }
+
+    @Test
+    void findByTransactionDateBetweenUsesDateIndex() throws SQLException {
+        transactionRepository.findByTransactionDateBetween(DAY, DAY.plusDays(7));
+        assertLastQueryUses("IDX_TXN_DATE_ID");
+    }
+
+    @Test
+    void dailyStatsUseDateIndex() throws SQLException {
+        transactionRepository.sumAndCountBetween(DAY, DAY.plusDays(1));
+        assertLastQueryUses("IDX_TXN_DATE_ID");
+    }
+
+    @Test
+    void keysetPageAfterCursorUsesDateIndex() throws SQLException {
+        transactionRepository.findPageAfter(DAY, 100L, PageRequest.of(0, 51));
+        assertLastQueryUses("IDX_TXN_DATE_ID");
+    }
+
+    @Test
+    void filterByTerminalUsesTerminalIndex() throws SQLException {
+        Specification<Transaction> specification = Specification
+                .where(TransactionSpecifications.equalTo("terminalId", "TERM001"));
+        transactionRepository.findSlice(specification, 51);
+        assertLastQueryUses("IDX_TXN_TERMINAL_ID");
+    }
+
+    private void assertLastQueryUses(String indexName) throws SQLException {
+        assertThat(SqlCapture.STATEMENTS).as("captured SQL").isNotEmpty();
+        String sql = SqlCapture.STATEMENTS.get(SqlCapture.STATEMENTS.size() - 1);
+
+        String plan = explain(sql);
+        assertThat(plan).as("plan for: %s", sql)
+                .contains("PUBLIC." + indexName)
+                .doesNotContain("MD_TRANSACTION_CURRENT.tableScan");
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    /**
+     * StatementInspector يسجل كل SQL ترسله Hibernate دون تعديله
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.springbootcrudapi.security;
+
+import com.example.springbootcrudapi.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * مسار JwtAuthenticationFilter: التحقق مرة واحدة لكل طلب، والـ cache حتى exp
+ * مع JMH benchmark يقارن المسار القديم (5 عمليات parse يعاد فيها بناء المفتاح) بالمسار الجديد:
+ * mvn test -Dtest=JwtFilterBenchmarkTest -Djmh.iterations=10 -Djmh.time=1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtFilterBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtFilterBenchmarkTest.class);
+
+    private static final String SECRET = "mySecretKey123456789012345678901234567890ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private String token;
+    private JwtAuthenticationFilter uncachedFilter;
+    private JwtAuthenticationFilter cachedFilter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        User user = new User("bench", "bench@example.com", "x", "Benchmark User");
+        JwtUtil jwtUtil = jwtUtil(86_400_000);
+        token = jwtUtil.generateToken(user);
+        uncachedFilter = filter(verifier(jwtUtil, 0), user);
+        cachedFilter = filter(verifier(jwtUtil, 1000), user);
+        request = new MockHttpServletRequest("GET", "/api/transactions");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    /**
+     * المسار قبل JwtVerifier: validateToken و extractUsername و validateToken(token, user)
+     */
+    @Benchmark
+    public String legacyParsePerCall() {
+        parseWithFreshKey(token);
+        parseWithFreshKey(token);
+        String username = parseWithFreshKey(token).getSubject();
+        parseWithFreshKey(token);
+        parseWithFreshKey(token);
+        return username;
+    }
+
+    @Benchmark
+    public Object filterVerifyOnce() throws Exception {
+        return doFilter(uncachedFilter);
+    }
+
+    @Benchmark
+    public Object filterVerifiedCache() throws Exception {
+        return doFilter(cachedFilter);
+    }
+
+    @Test
+    void verifiesOnceAndCachesUntilTokenExpiry() throws Exception {
+        JwtUtil jwtUtil = jwtUtil(1_000);
+        JwtVerifier verifier = verifier(jwtUtil, 100);
+        String shortLived = jwtUtil.generateToken(new User("short", "short@example.com", "x", "Short Lived"));
+
+        assertThat(verifier.verify(shortLived).getSubject()).isEqualTo("short");
+        assertThat(verifier.verify(shortLived).get("email", String.class)).isEqualTo("short@example.com");
+        assertThat(verifier.getStats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+
+        // تغيير بايت في التوقيع يفشل ولا يُحفظ في الـ cache
+        String tampered = shortLived.substring(0, shortLived.length() - 2)
+                + (shortLived.endsWith("AA") ? "BB" : "AA");
+        assertThat(verifier.verify(tampered)).isNull();
+        assertThat(verifier.verify("not-a-jwt")).isNull();
+        assertThat(verifier.getStats()).containsEntry("size", 1L);
+
+        // بعد exp لا يرجع من الـ cache ويفشل التحقق
+        Thread.sleep(1_200);
+        assertThat(verifier.verify(shortLived)).isNull();
+    }
+
+    @Test
+    void filterPathBenchmark() throws Exception {
+        setUp();
+        Object authenticated = doFilter(cachedFilter);
+        assertThat(authenticated).isEqualTo("bench");
+
+        Options options = new OptionsBuilder()
+                .include(Pattern.quote(JwtFilterBenchmarkTest.class.getName()) + "\\.")
+                .forks(0)
+                .threads(1)
+                .warmupIterations(Integer.getInteger("jmh.warmup", 2))
+                .warmupTime(TimeValue.milliseconds(Long.getLong("jmh.time", 1) * 200))
+                .measurementIterations(Integer.getInteger("jmh.iterations", 3))
+                .measurementTime(TimeValue.milliseconds(Long.getLong("jmh.time", 1) * 200))
+                .shouldFailOnError(true)
+                .verbosity(VerboseMode.SILENT)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        Map<String, Double> scores = new HashMap<>();
+        for (RunResult result : results) {
+            String name = result.getParams().getBenchmark();
+            scores.put(name.substring(name.lastIndexOf('.') + 1), result.getPrimaryResult().getScore());
+        }
+        logger.debug("JWT filter path (us/op): {}", scores);
+        assertThat(scores.get("filterVerifyOnce")).isLessThan(scores.get("legacyParsePerCall"));
+        assertThat(scores.get("filterVerifiedCache")).isLessThan(scores.get("filterVerifyOnce"));
+    }
+
+    private Object doFilter(JwtAuthenticationFilter filter) throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object principal = SecurityContextHolder.getContext().getAuthentication() != null
+                ? SecurityContextHolder.getContext().getAuthentication().getName() : null;
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    private static Claims parseWithFreshKey(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static JwtUtil jwtUtil(int expirationMs) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", expirationMs);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    private static JwtVerifier verifier(JwtUtil jwtUtil, long maxEntries) {
+        JwtVerifier verifier = new JwtVerifier();
+        ReflectionTestUtils.setField(verifier, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(verifier, "maxEntries", maxEntries);
+        verifier.init();
+        return verifier;
+    }
+
+    private static JwtAuthenticationFilter filter(JwtVerifier verifier, User user) {
+        JwtPrincipalResolver resolver = new JwtPrincipalResolver();
+        ReflectionTestUtils.setField(resolver, "userDetailsService",
+                (org.springframework.security.core.userdetails.UserDetailsService) username -> user);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtVerifier", verifier);
+        ReflectionTestUtils.setField(filter, "jwtPrincipalResolver", resolver);
+        return filter;
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.springbootcrudapi.security;
+
+import com.example.springbootcrudapi.entity.User;
+import com.example.springbootcrudapi.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * BCrypt على pool محدود: رفض 429 عند امتلاء الطابور، وتحديد محاولات الدخول لكل IP ومستخدم،
+ * وزمن /api/health أثناء موجة طلبات دخول مقارنة بـ BCrypt على threads الطلبات:
+ * mvn test -Dtest=LoginStormTest -Dbenchmark.storm-seconds=10 -Dbenchmark.storm-clients=32
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loginstorm;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "password.hashing.queue-capacity=4",
+        "login.throttle.ip.capacity=100000",
+        "login.throttle.ip.refill-per-minute=100000",
+        "login.throttle.username.capacity=100000",
+        "login.throttle.username.refill-per-minute=100000",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.com.example.springbootcrudapi=INFO"
+})
+class LoginStormTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginStormTest.class);
+
+    private static final int STORM_SECONDS = Integer.getInteger("benchmark.storm-seconds", 3);
+    private static final int STORM_CLIENTS = Integer.getInteger("benchmark.storm-clients", 16);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private DaoAuthenticationProvider authenticationProvider;
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 1, 2);
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Boolean>> accepted = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                accepted.add(callers.submit(() -> encoder.matches("p", "p")));
+            }
+            while ((int) encoder.getStats().get("active") + (int) encoder.getStats().get("queued") < 3) {
+                Thread.sleep(5);
+            }
+
+            // واحد قيد التنفيذ واثنان في الطابور: الرابع يُرفض مباشرة بدون انتظار
+            assertThatThrownBy(() -> encoder.matches("p", "p"))
+                    .isInstanceOf(PasswordHashingRejectedException.class)
+                    .satisfies(e -> assertThat(((PasswordHashingRejectedException) e).getRetryAfterSeconds())
+                            .isPositive());
+            assertThat(encoder.getStats()).containsEntry("rejected", 1L);
+
+            release.countDown();
+            for (Future<Boolean> result : accepted) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+            }
+        } finally {
+            callers.shutdownNow();
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void throttlesPerUsernameAndPerIp() {
+        LoginThrottle throttle = new LoginThrottle();
+        ReflectionTestUtils.setField(throttle, "enabled", true);
+        ReflectionTestUtils.setField(throttle, "ipCapacity", 5);
+        ReflectionTestUtils.setField(throttle, "ipRefillPerMinute", 1.0);
+        ReflectionTestUtils.setField(throttle, "usernameCapacity", 3);
+        ReflectionTestUtils.setField(throttle, "usernameRefillPerMinute", 1.0);
+        ReflectionTestUtils.setField(throttle, "maxKeys", 1000L);
+        throttle.init();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(throttle.tryAcquire("Victim", "10.0.0.1")).isZero();
+        }
+        // نفس المستخدم بحروف مختلفة ومن IP آخر
+        assertThat(throttle.tryAcquire("victim", "10.0.0.2")).isBetween(1L, 60L);
+        assertThat(throttle.tryAcquire("other", "10.0.0.1")).isZero();
+        assertThat(throttle.tryAcquire("third", "10.0.0.1")).isZero();
+        // IP وصل لحده (5 محاولات)
+        assertThat(throttle.tryAcquire("fourth", "10.0.0.1")).isPositive();
+        assertThat(throttle.getStats()).containsEntry("throttled", 2L);
+    }
+
+    @Test
+    void healthLatencyDuringLoginStorm() throws Exception {
+        userService.createUser(new User("storm", "storm@example.com", "secret1", "Storm User"));
+        assertThat(login("storm", "secret1")).isEqualTo(200);
+
+        double[] baseline = healthLatency(null);
+        double[] bounded = healthLatency(passwordEncoder);
+        int rejectedDuringBounded = lastRejected;
+        double[] unbounded = healthLatency(new BCryptPasswordEncoder(12));
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+
+        logger.debug(String.format(Locale.ROOT, "GET /api/health during %d-client login storm (%ds):",
+                STORM_CLIENTS, STORM_SECONDS));
+        print("no storm", baseline);
+        print("bounded", bounded);
+        print("unbounded", unbounded);
+        logger.debug(String.format(Locale.ROOT, "  bounded: %d logins answered 429, %s",
+                rejectedDuringBounded, passwordEncoder.getStats()));
+
+        assertThat(rejectedDuringBounded).isPositive();
+        assertThat(bounded[1]).isLessThan(unbounded[1]);
+    }
+
+    private int lastRejected;
+
+    /**
+     * @return p50 و p95 بالـ ms لـ /api/health، أثناء موجة دخول بالـ encoder المحدد (null = بدون موجة)
+     */
+    private double[] healthLatency(PasswordEncoder encoder) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService storm = Executors.newFixedThreadPool(STORM_CLIENTS);
+        if (encoder != null) {
+            authenticationProvider.setPasswordEncoder(encoder);
+            for (int i = 0; i < STORM_CLIENTS; i++) {
+                storm.submit(() -> {
+                    while (running.get()) {
+                        if (login("storm", "wrong-password") == 429) {
+                            rejected.incrementAndGet();
+                            Thread.sleep(50);
+                        }
+                    }
+                    return null;
+                });
+            }
+            Thread.sleep(500);
+        }
+
+        List<Double> samples = new ArrayList<>();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(STORM_SECONDS);
+        try {
+            while (System.nanoTime() < end) {
+                long start = System.nanoTime();
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/health"))
+                        .GET()
+                        .build();
+                assertThat(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()).isEqualTo(200);
+                samples.add((System.nanoTime() - start) / 1e6);
+                Thread.sleep(20);
+            }
+        } finally {
+            running.set(false);
+            storm.shutdown();
+            storm.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        lastRejected = rejected.get();
+
+        Collections.sort(samples);
+        return new double[] {samples.get(samples.size() / 2), samples.get((int) (samples.size() * 0.95))};
+    }
+
+    private int login(String username, String password) throws IOException, InterruptedException {
+        String body = "{\"usernameOrEmail\":\"" + username + "\",\"password\":\"" + password + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 429) {
+            assertThat(response.headers().firstValue("Retry-After")).isPresent();
+        }
+        return response.statusCode();
+    }
+
+    private static void print(String label, double[] latency) {
+        logger.debug(String.format(Locale.ROOT, "  %-10s p50 %7.2f ms  p95 %7.2f ms",
+                label, latency[0], latency[1]));
+    }
+}
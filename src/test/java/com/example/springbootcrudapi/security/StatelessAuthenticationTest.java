@@ -0,0 +1,169 @@
+package com.example.springbootcrudapi.security;
+
+import com.example.springbootcrudapi.entity.User;
+import com.example.springbootcrudapi.repository.UserRepository;
+import com.example.springbootcrudapi.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * الوضع stateless: المستخدم من الـ claims بدون تحميل APP_USERS في كل طلب،
+ * وتعطيل المستخدم أو تغيير دوره أو كلمة مروره أو حذفه يبطل الـ tokens السابقة مباشرة
+ * مع مقارنة زمن الطلب بتحميل المستخدم من قاعدة البيانات:
+ * mvn test -Dtest=StatelessAuthenticationTest -Dbenchmark.requests=2000
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:stateless;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "jwt.stateless.enabled=true"
+})
+class StatelessAuthenticationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatelessAuthenticationTest.class);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtPrincipalResolver jwtPrincipalResolver;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void authenticatesFromClaimsWithoutLoadingTheUser() throws Exception {
+        User user = userService.createUser(new User("stateless", "stateless@example.com", "secret1", "Stateless User"));
+        String token = jwtUtil.generateToken(user);
+
+        EntityStatistics users = entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+                .getEntityStatistics(User.class.getName());
+        long loaded = users.getLoadCount();
+        for (int i = 0; i < 20; i++) {
+            assertThat(get("/api/transactions/terminal/NONE", token)).isEqualTo(200);
+        }
+        assertThat(users.getLoadCount()).isEqualTo(loaded);
+
+        // المستخدم ليس ADMIN في الـ token
+        assertThat(get("/api/metrics/jwt", token)).isEqualTo(403);
+    }
+
+    @Test
+    void userChangesRevokeIssuedTokens() throws Exception {
+        User user = userService.createUser(new User("revoked", "revoked@example.com", "secret1", "Revoked User"));
+        String token = jwtUtil.generateToken(user);
+        assertThat(get("/api/transactions/terminal/NONE", token)).isEqualTo(200);
+
+        // تعطيل ثم إعادة تفعيل: الـ token القديم لا يعود صالحاً
+        userService.toggleUserStatus(user.getId());
+        assertThat(get("/api/transactions/terminal/NONE", token)).isEqualTo(403);
+        userService.toggleUserStatus(user.getId());
+        assertThat(get("/api/transactions/terminal/NONE", token)).isEqualTo(403);
+
+        // تغيير الدور: الـ token الجديد يحمل الدور الجديد
+        User changes = new User();
+        changes.setRole(User.Role.ADMIN);
+        User admin = userService.updateUser(user.getId(), changes);
+        String adminToken = jwtUtil.generateToken(admin);
+        assertThat(get("/api/metrics/jwt", adminToken)).isEqualTo(200);
+
+        userService.changePassword(user.getId(), "secret2");
+        assertThat(get("/api/metrics/jwt", adminToken)).isEqualTo(403);
+
+        String latest = jwtUtil.generateToken(userService.getUserById(user.getId()).orElseThrow());
+        assertThat(get("/api/transactions/terminal/NONE", latest)).isEqualTo(200);
+        userService.deleteUser(user.getId());
+        assertThat(get("/api/transactions/terminal/NONE", latest)).isEqualTo(403);
+    }
+
+    @Test
+    void revocationFromAnotherInstanceAppliesAfterTtl() throws Exception {
+        User user = userService.createUser(new User("remote", "remote@example.com", "secret1", "Remote User"));
+        long version = user.getTokenVersion();
+        TokenVersionRegistry registry = new TokenVersionRegistry();
+        ReflectionTestUtils.setField(registry, "userRepository", userRepository);
+        ReflectionTestUtils.setField(registry, "ttlSeconds", 1L);
+        ReflectionTestUtils.setField(registry, "maxUsers", 100L);
+        registry.init();
+        assertThat(registry.isCurrent("remote", version)).isTrue();
+
+        // تغيير مباشر في قاعدة البيانات كما يفعل instance آخر: الإدخال المحفوظ صالح حتى انتهاء مدته فقط
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        stored.incrementTokenVersion();
+        userRepository.save(stored);
+        assertThat(registry.isCurrent("remote", version)).isTrue();
+        Thread.sleep(1100);
+        assertThat(registry.isCurrent("remote", version)).isFalse();
+        assertThat(registry.isCurrent("remote", version + 1)).isTrue();
+    }
+
+    @Test
+    void requestLatencyStatelessVsDatabase() throws Exception {
+        int requests = Integer.getInteger("benchmark.requests", 300);
+        User user = userService.createUser(new User("latency", "latency@example.com", "secret1", "Latency User"));
+        String token = jwtUtil.generateToken(user);
+        EntityStatistics users = entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+                .getEntityStatistics(User.class.getName());
+
+        logger.debug(String.format(Locale.ROOT, "Authenticated GET x %d:", requests));
+        try {
+            for (boolean stateless : new boolean[] {false, true}) {
+                ReflectionTestUtils.setField(jwtPrincipalResolver, "stateless", stateless);
+                for (int i = 0; i < requests / 2; i++) {
+                    get("/api/transactions/terminal/NONE", token);
+                }
+
+                long loaded = users.getLoadCount();
+                long start = System.nanoTime();
+                for (int i = 0; i < requests; i++) {
+                    assertThat(get("/api/transactions/terminal/NONE", token)).isEqualTo(200);
+                }
+                long elapsed = System.nanoTime() - start;
+                logger.debug(String.format(Locale.ROOT, "  %-9s %8.3f ms/request  %5.2f user loads/request",
+                        stateless ? "stateless" : "database", elapsed / 1e6 / requests,
+                        (double) (users.getLoadCount() - loaded) / requests));
+            }
+        } finally {
+            ReflectionTestUtils.setField(jwtPrincipalResolver, "stateless", true);
+        }
+    }
+
+    private int get(String path, String token) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
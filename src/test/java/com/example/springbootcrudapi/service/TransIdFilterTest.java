@@ -0,0 +1,80 @@
+package com.example.springbootcrudapi.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * عدادات الفلتر بعرض 4 bits داخل int واحد: التشبع عند 15، عدم النزول تحت 0، وعدم التأثير على العدادات المجاورة
+ */
+class TransIdFilterTest {
+
+    private TransIdFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new TransIdFilter();
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "expectedInsertions", 100L);
+        ReflectionTestUtils.setField(filter, "targetFpp", 0.01);
+        filter.allocate();
+    }
+
+    @Test
+    void counterSaturatesAtFifteenAndStaysThere() {
+        for (int i = 0; i < 20; i++) {
+            increment(9);
+        }
+        assertThat(counter(9)).isEqualTo(15);
+
+        // العداد المشبع لا يعرف عدد العناصر الحقيقي، لذلك لا يتم إنقاصه
+        decrement(9);
+        assertThat(counter(9)).isEqualTo(15);
+        assertThat(counter(8)).isZero();
+        assertThat(counter(10)).isZero();
+    }
+
+    @Test
+    void decrementAtZeroDoesNotBorrowFromNeighbours() {
+        increment(14);
+        increment(15);
+        decrement(13);
+        decrement(14);
+        decrement(14);
+
+        assertThat(counter(13)).isZero();
+        assertThat(counter(14)).isZero();
+        assertThat(counter(15)).isEqualTo(1);
+        // أعلى عداد في الـ word: 15 يجب ألا يتحول لقيمة سالبة في الـ int
+        for (int i = 0; i < 15; i++) {
+            increment(15);
+        }
+        assertThat(counter(15)).isEqualTo(15);
+        assertThat(counter(14)).isZero();
+    }
+
+    @Test
+    void addAndRemoveAfterBuild() {
+        ReflectionTestUtils.setField(filter, "ready", true);
+        filter.add("TXN-1");
+        assertThat(filter.mightContain("TXN-1")).isTrue();
+
+        filter.removeAfterCommit("TXN-1");
+        assertThat(filter.mightContain("TXN-1")).isFalse();
+        assertThat(filter.getStats()).containsEntry("approximateElements", 0L);
+    }
+
+    private void increment(long index) {
+        ReflectionTestUtils.invokeMethod(filter, "increment", index);
+    }
+
+    private void decrement(long index) {
+        ReflectionTestUtils.invokeMethod(filter, "decrement", index);
+    }
+
+    private int counter(long index) {
+        return ReflectionTestUtils.invokeMethod(filter, "counter", index);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import com.example.springbootcrudapi.repository.TransactionRepository;
+import com.example.springbootcrudapi.service.TransactionExportService.ExportFormat;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.MessageType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * تصدير Arrow و Parquet: نفس الصفوف والقيم التي يرجعها الاستعلام، على أكثر من دفعة/row group
+ * مع مقارنة الحجم والزمن بصيغ NDJSON و CSV:
+ * mvn test -Dtest=TransactionColumnarExportTest -Dbenchmark.rows=200000
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:columnar;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=500",
+        "transaction.export.arrow.batch-rows=1000",
+        "transaction.export.parquet.row-group-size=128KB",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.springframework.web=INFO"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransactionColumnarExportTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionColumnarExportTest.class);
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000);
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final LocalDateTime END = START.plusMonths(1);
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    void seed() {
+        List<Transaction> transactions = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Transaction transaction = new Transaction("COL" + i, "COLT" + (i % 4), "Columnar Merchant " + (i % 25),
+                    new BigDecimal("10.05").add(BigDecimal.valueOf(i, 2)),
+                    START.plusSeconds(i * 211L).plusNanos(654_321_000));
+            transaction.setMerchantCommission(i % 10 == 0 ? null : new BigDecimal("0.35"));
+            transaction.setProcessingDate(i % 7 == 0 ? null : transaction.getTransactionDate().plusMinutes(1));
+            transaction.setMaskPan("5100****" + (1000 + i % 9000));
+            transaction.setOutletCode("OUT" + (i % 3));
+            transactions.add(transaction);
+        }
+        transactionRepository.saveAll(transactions);
+    }
+
+    @Test
+    void arrowStreamsRecordBatchesWithScaledAmountsAndEpochMicros() throws IOException {
+        List<Transaction> expected = expected("COLT1");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = transactionExportService.exportByDateRange(START, END, "COLT1", null, ExportFormat.ARROW, out);
+        assertThat(rows).isEqualTo(expected.size());
+
+        int batches = 0;
+        List<Long> ids = new ArrayList<>();
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(root.getSchema().findField("sourceAmount").getMetadata()).containsEntry("scale", "2");
+            while (reader.loadNextBatch()) {
+                batches++;
+                BigIntVector id = (BigIntVector) root.getVector("id");
+                VarCharVector terminal = (VarCharVector) root.getVector("terminalId");
+                BigIntVector amount = (BigIntVector) root.getVector("sourceAmount");
+                BigIntVector commission = (BigIntVector) root.getVector("merchantCommission");
+                TimeStampMicroVector date = (TimeStampMicroVector) root.getVector("transactionDate");
+                TimeStampMicroVector processing = (TimeStampMicroVector) root.getVector("processingDate");
+                for (int row = 0; row < root.getRowCount(); row++) {
+                    Transaction t = expected.get(ids.size());
+                    ids.add(id.get(row));
+                    assertThat(new String(terminal.get(row))).isEqualTo(t.getTerminalId());
+                    assertThat(BigDecimal.valueOf(amount.get(row), 2)).isEqualByComparingTo(t.getSourceAmount());
+                    assertThat(commission.isNull(row)).isEqualTo(t.getMerchantCommission() == null);
+                    assertThat(date.getObject(row)).isEqualTo(t.getTransactionDate());
+                    assertThat(processing.isNull(row)).isEqualTo(t.getProcessingDate() == null);
+                }
+            }
+        }
+        assertThat(batches).isEqualTo((expected.size() + 999) / 1000);
+        assertThat(ids).isEqualTo(expected.stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    void parquetWritesRowGroupsReadableWithoutHadoop(@TempDir Path directory) throws IOException {
+        List<Transaction> expected = expected(null);
+
+        Path file = directory.resolve("transactions.parquet");
+        try (var out = Files.newOutputStream(file)) {
+            long rows = transactionExportService.exportByDateRange(START, END, null, null, ExportFormat.PARQUET, out);
+            assertThat(rows).isEqualTo(expected.size());
+        }
+
+        ParquetReadOptions options = ParquetReadOptions.builder(new PlainParquetConfiguration())
+                .withCodecFactory(TransactionParquetWriter.SnappyCodecFactory.INSTANCE)
+                .build();
+        List<Group> groups = new ArrayList<>();
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(file), options)) {
+            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+            assertThat(schema).isEqualTo(TransactionParquetWriter.SCHEMA);
+            assertThat(reader.getRowGroups()).hasSizeGreaterThan(1);
+
+            PageReadStore pages;
+            while ((pages = reader.readNextRowGroup()) != null) {
+                RecordReader<Group> records = new ColumnIOFactory().getColumnIO(schema)
+                        .getRecordReader(pages, new GroupRecordConverter(schema));
+                for (long row = 0; row < pages.getRowCount(); row++) {
+                    groups.add(records.read());
+                }
+            }
+        }
+
+        assertThat(groups).hasSize(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Transaction t = expected.get(i);
+            Group g = groups.get(i);
+            assertThat(g.getLong("id", 0)).isEqualTo(t.getId());
+            assertThat(g.getString("transId", 0)).isEqualTo(t.getTransId());
+            assertThat(g.getLong("sourceAmount", 0))
+                    .isEqualTo(t.getSourceAmount().movePointRight(2).longValueExact());
+            assertThat(g.getFieldRepetitionCount("merchantCommission"))
+                    .isEqualTo(t.getMerchantCommission() == null ? 0 : 1);
+            assertThat(g.getLong("transactionDate", 0))
+                    .isEqualTo(TransactionExportService.epochMicros(t.getTransactionDate()));
+        }
+    }
+
+    @Test
+    void exportBypassesSecondLevelCache() throws IOException {
+        List<Long> ids = expected(null).stream().map(Transaction::getId).toList();
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(Transaction.class);
+        transactionExportService.exportByDateRange(START, END, null, null, ExportFormat.CSV,
+                new ByteArrayOutputStream());
+        transactionExportService.exportByDateRange(START, END, "COLT2", null, ExportFormat.CSV,
+                new ByteArrayOutputStream());
+
+        assertThat(ids).noneMatch(id -> cache.contains(Transaction.class, id));
+    }
+
+    @Test
+    void payloadSizeAndExportTimePerFormat() throws IOException {
+        logger.debug(String.format(Locale.ROOT, "Export of %d transactions:", ROWS));
+        for (ExportFormat format : ExportFormat.values()) {
+            // إحماء
+            transactionExportService.exportByDateRange(START, END, null, null, format, new ByteArrayOutputStream());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long start = System.nanoTime();
+            long rows = transactionExportService.exportByDateRange(START, END, null, null, format, out);
+            long elapsed = System.nanoTime() - start;
+            assertThat(rows).isEqualTo(ROWS);
+            logger.debug(String.format(Locale.ROOT, "  %-8s %,12d bytes  %6.1f B/txn  %8.1f ms",
+                    format, out.size(), (double) out.size() / ROWS, elapsed / 1e6));
+        }
+    }
+
+    private List<Transaction> expected(String terminalId) {
+        try (var stream = transactionRepository.findAll().stream()) {
+            return stream.filter(t -> terminalId == null || terminalId.equals(t.getTerminalId()))
+                    .filter(t -> t.getTransId().startsWith("COL"))
+                    .sorted((a, b) -> a.getTransactionDate().equals(b.getTransactionDate())
+                            ? a.getId().compareTo(b.getId())
+                            : a.getTransactionDate().compareTo(b.getTransactionDate()))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.springbootcrudapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ترميز وفك ترميز مؤشر الصفحة، ورفض المؤشرات غير الصحيحة برسالة واضحة
+ */
+class TransactionCursorTest {
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        LocalDateTime date = LocalDateTime.of(2024, 3, 5, 9, 30, 15, 123_456_000);
+        TransactionCursor decoded = TransactionCursor.decode(new TransactionCursor(date, 987654321L).encode());
+
+        assertThat(decoded.getTransactionDate()).isEqualTo(date);
+        assertThat(decoded.getId()).isEqualTo(987654321L);
+
+        // التاريخ بدون ثوانٍ يُكتب بصيغة أقصر ويجب أن يُقرأ بنفس القيمة
+        LocalDateTime midnight = LocalDateTime.of(2024, 3, 6, 0, 0);
+        assertThat(TransactionCursor.decode(new TransactionCursor(midnight, 1L).encode()).getTransactionDate())
+                .isEqualTo(midnight);
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String cursor = new TransactionCursor(LocalDateTime.of(2024, 12, 31, 23, 59, 59), Long.MAX_VALUE).encode();
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        for (String raw : new String[] {"2024-03-05T09:30", "|5", "not-a-date|5", "2024-03-05T09:30|x"}) {
+            String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+            assertThatThrownBy(() -> TransactionCursor.decode(cursor))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("مؤشر الصفحة غير صحيح");
+        }
+        assertThatThrownBy(() -> TransactionCursor.decode("%%%"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.entity.Transaction;
+import com.example.springbootcrudapi.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * المرشحون من الفهرس الذين لا يطابقون فعلياً لا يستهلكون حد النتائج ولا يُسقطون المعاملات المطابقة الأقدم
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:searchindex;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "transaction.search.max-candidates=4"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TransactionSearchIndex.class)
+class TransactionSearchIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 6, 1, 10, 0);
+
+    @Autowired
+    private TransactionSearchIndex searchIndex;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void falsePositiveCandidatesDoNotHideOlderMatches() {
+        for (int i = 0; i < 3; i++) {
+            create("REAL-" + i, "TERM" + i, "Shop zzabcdzz " + i, DAY.plusMinutes(i));
+        }
+        // المقاطع abc و bcd موجودة في حقلين مختلفين بدون النص abcd، والمعرفات الأحدث ترجع أولاً من الفهرس
+        for (int i = 0; i < 10; i++) {
+            create("FALSE-" + i, "XABC" + i, "bcdx Market " + i, DAY.plusHours(1).plusMinutes(i));
+        }
+
+        List<Transaction> results = searchIndex.search("ABCD");
+
+        assertThat(results).extracting(Transaction::getTransId)
+                .containsExactly("REAL-2", "REAL-1", "REAL-0");
+    }
+
+    @Test
+    void resultsStopAtTheLimit() {
+        for (int i = 0; i < 6; i++) {
+            create("LIMIT-" + i, "TERM" + i, "Limit Store qwerty " + i, DAY.plusMinutes(i));
+        }
+
+        assertThat(searchIndex.search("qwerty")).extracting(Transaction::getTransId)
+                .containsExactly("LIMIT-5", "LIMIT-4", "LIMIT-3", "LIMIT-2");
+    }
+
+    private void create(String transId, String terminalId, String merchantName, LocalDateTime date) {
+        Transaction transaction = transactionRepository.saveAndFlush(new Transaction(transId, terminalId,
+                merchantName, BigDecimal.ONE, date));
+        searchIndex.index(transaction);
+    }
+}
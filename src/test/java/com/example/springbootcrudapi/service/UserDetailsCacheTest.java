@@ -0,0 +1,132 @@
+package com.example.springbootcrudapi.service;
+
+import com.example.springbootcrudapi.entity.User;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * cache بيانات المستخدمين: مفتاح لكل من اسم المستخدم والإيميل، والحذف بعد commit أي تغيير فقط
+ * مع مقارنة زمن الإصابة بزمن التحميل من قاعدة البيانات:
+ * mvn test -Dtest=UserDetailsCacheTest -Dbenchmark.lookups=100000
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:userdetails;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.com.example.springbootcrudapi=INFO"
+})
+class UserDetailsCacheTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsCacheTest.class);
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void cachesByUsernameAndEmailAndEvictsOnEveryChange() {
+        User user = userService.createUser(new User("cached", "cached@example.com", "secret1", "Cached User"));
+
+        long loads = loads();
+        UserDetails first = userDetailsService.loadUserByUsername("cached");
+        assertThat(userDetailsService.loadUserByUsername("cached")).isSameAs(first);
+        assertThat(userDetailsService.loadUserByUsername("cached@example.com").getUsername()).isEqualTo("cached");
+        assertThat(loads()).isEqualTo(loads + 2);
+
+        // تغيير الإيميل والدور: حذف المفاتيح الثلاثة (الاسم والإيميل القديم والجديد)
+        User changes = new User();
+        changes.setEmail("renamed@example.com");
+        changes.setRole(User.Role.ADMIN);
+        userService.updateUser(user.getId(), changes);
+        assertThat(((User) userDetailsService.loadUserByUsername("cached")).getRole()).isEqualTo(User.Role.ADMIN);
+        assertThat(userDetailsService.loadUserByUsername("renamed@example.com").getUsername()).isEqualTo("cached");
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("cached@example.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+
+        String password = userDetailsService.loadUserByUsername("cached").getPassword();
+        userService.changePassword(user.getId(), "secret2");
+        assertThat(userDetailsService.loadUserByUsername("cached").getPassword()).isNotEqualTo(password);
+
+        userService.toggleUserStatus(user.getId());
+        assertThat(userDetailsService.loadUserByUsername("renamed@example.com").isEnabled()).isFalse();
+
+        userService.deleteUser(user.getId());
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("cached"))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThat(userDetailsService.getStats()).containsKeys("hitRate", "averageLoadMillis", "invalidations");
+    }
+
+    @Test
+    void evictsOnlyAfterCommit() {
+        User user = userService.createUser(new User("committed", "committed@example.com", "secret1", "Commit User"));
+        assertThat(userDetailsService.loadUserByUsername("committed").isEnabled()).isTrue();
+
+        // قبل الـ commit تبقى النسخة المحفوظة، والتحميل داخل الـ transaction لا يرى التغيير
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.toggleUserStatus(user.getId());
+            assertThat(userDetailsService.loadUserByUsername("committed").isEnabled()).isTrue();
+        });
+        assertThat(userDetailsService.loadUserByUsername("committed").isEnabled()).isFalse();
+
+        // rollback: لا يتم حذف شيء
+        long invalidations = (long) userDetailsService.getStats().get("invalidations");
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.toggleUserStatus(user.getId());
+            status.setRollbackOnly();
+        });
+        assertThat(userDetailsService.getStats()).containsEntry("invalidations", invalidations);
+        assertThat(userDetailsService.loadUserByUsername("committed").isEnabled()).isFalse();
+    }
+
+    @Test
+    void hitVersusLoadLatency() {
+        int lookups = Integer.getInteger("benchmark.lookups", 20_000);
+        User user = userService.createUser(new User("latency", "latency-cache@example.com", "secret1", "Latency"));
+        for (int i = 0; i < lookups / 10; i++) {
+            userDetailsService.loadUserByUsername("latency");
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            userDetailsService.loadUserByUsername("latency");
+        }
+        double hitMicros = (System.nanoTime() - start) / 1e3 / lookups;
+
+        // كل تغيير يحذف المستخدم، فالطلب التالي تحميل من قاعدة البيانات
+        int reloads = Math.max(1, lookups / 100);
+        for (int i = 0; i < reloads; i++) {
+            userDetailsService.onUserChanged(new UserChangedEvent(user.getId(), Set.of("latency")));
+            userDetailsService.loadUserByUsername("latency");
+        }
+        Map<String, Object> stats = userDetailsService.getStats();
+        logger.debug(String.format(Locale.ROOT, "User details lookups: hit %.2f us, load %.3f ms, hit rate %.3f",
+                hitMicros, (double) stats.get("averageLoadMillis"), (double) stats.get("hitRate")));
+        assertThat((double) stats.get("averageLoadMillis") * 1000).isGreaterThan(hitMicros);
+    }
+
+    private long loads() {
+        return (long) userDetailsService.getStats().get("loads")
+                + (long) userDetailsService.getStats().get("notFound");
+    }
+}